@@ -0,0 +1,33 @@
+package com.itestra.software_analyse_challenge;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Everything a single pass over the input directory computes.
+ *
+ * @param fileTable All files of the input directory
+ * @param facts {@link FileFacts} of every file
+ * @param contentHashes {@link ContentHash} of every file, empty if they were not computed
+ * @param graph Import graph of the files
+ * @param rollUp Totals of the packages, projects and the whole tree
+ * @param classIndex Index of the types declared by the files
+ */
+public record Analysis(FileTable fileTable, Map<File, FileFacts> facts, Map<File, String> contentHashes,
+        DependencyGraph graph, RollUp rollUp, ClassIndex classIndex) {
+
+    /**
+     * @return Map with the paths of the files relative to the input directory as keys (see
+     *         {@link FileTable#getRelativePath(int)}) and the {@link Output}s as values
+     */
+    public Map<String, Output> toOutput() {
+        // For each file put one Output object to your result map.
+        Map<String, Output> output = new HashMap<>(fileTable.size());
+        for (int id = 0; id < fileTable.size(); ++id) {
+            File file = fileTable.getFile(id);
+            output.put(fileTable.getRelativePath(id), facts.get(file).toOutput(graph.getDependencies(file)));
+        }
+        return output;
+    }
+}
@@ -0,0 +1,121 @@
+package com.itestra.software_analyse_challenge;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+
+/**
+ * Declarative rules for the dependencies between projects, e.g. {@code spark !-> fig} (spark must not depend on fig)
+ * or {@code spark -> cronutils} (spark may only depend on cronutils and the other projects of allow rules for spark).
+ * {@code *} stands for every project. Forbid rules win over allow rules, so {@code * -> *, spark !-> fig} forbids
+ * only this one dependency.
+ * <p>
+ * The rules are compiled to a bitmask of the forbidden projects of every project, indexed like the projects of the
+ * {@link DependencyGraph}, so checking a file is a single intersection with the projects it depends on.
+ */
+public final class ArchitectureRules {
+
+    private static final String ALLOW = "->";
+    private static final String FORBID = "!->";
+    private static final String ANY = "*";
+
+    /**
+     * @param from Project which depends on a forbidden project
+     * @param to Forbidden project
+     * @param chain Shortest chain of imports from a file of {@code from} to a file importing {@code to}, followed by
+     *              the imported file of {@code to} if the import is a file of the input directory
+     */
+    public record Violation(String from, String to, List<File> chain) {
+    }
+
+    private final List<String> projects;
+    /**
+     * Projects every project must not depend on.
+     */
+    private final BitSet[] forbidden;
+
+    /**
+     * @param definitions Rules, comma separated or {@code @file} with one rule per line
+     * @param projects Names of the projects, see {@link DependencyGraph#getProjects()}
+     * @throws IllegalArgumentException If a rule is invalid or names no project
+     */
+    public ArchitectureRules(String definitions, List<String> projects) {
+        this.projects = projects;
+        this.forbidden = new BitSet[projects.size()];
+        BitSet[] allowed = new BitSet[projects.size()];
+        List<String[]> forbidRules = new ArrayList<>();
+        for (String rule : parseDefinitions(definitions)) {
+            boolean forbid = rule.contains(FORBID);
+            String[] sides = rule.split(forbid ? FORBID : ALLOW, -1);
+            if (sides.length != 2) {
+                throw new IllegalArgumentException(rule + " is no rule, use from->to or from!->to");
+            }
+            if (forbid) {
+                forbidRules.add(sides);
+                continue;
+            }
+            BitSet to = resolve(sides[1].trim());
+            resolve(sides[0].trim()).stream().forEach(from -> {
+                if (allowed[from] == null) {
+                    allowed[from] = new BitSet(projects.size());
+                }
+                allowed[from].or(to);
+            });
+        }
+        for (int project = 0; project < projects.size(); ++project) {
+            forbidden[project] = new BitSet(projects.size());
+            if (allowed[project] != null) {
+                forbidden[project].set(0, projects.size());
+                forbidden[project].andNot(allowed[project]);
+            }
+        }
+        for (String[] sides : forbidRules) {
+            BitSet to = resolve(sides[1].trim());
+            resolve(sides[0].trim()).stream().forEach(from -> forbidden[from].or(to));
+        }
+        // A project may always use itself
+        for (int project = 0; project < projects.size(); ++project) {
+            forbidden[project].clear(project);
+        }
+    }
+
+    private BitSet resolve(String name) {
+        BitSet resolved = new BitSet(projects.size());
+        if (name.equals(ANY)) {
+            resolved.set(0, projects.size());
+            return resolved;
+        }
+        int project = projects.indexOf(name);
+        if (project < 0) {
+            throw new IllegalArgumentException(name + " is not a project, available: " + projects);
+        }
+        resolved.set(project);
+        return resolved;
+    }
+
+    private static List<String> parseDefinitions(String definitions) {
+        List<String> entries;
+        if (definitions.startsWith("@")) {
+            File file = new File(definitions.substring(1));
+            try {
+                entries = Files.readAllLines(file.toPath()).stream()
+                        .filter(line -> !line.trim().startsWith("#"))
+                        .toList();
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Could not read architecture rules " + file, e);
+            }
+        } else {
+            entries = Arrays.asList(definitions.split(","));
+        }
+        return entries.stream().map(String::trim).filter(entry -> !entry.isEmpty()).toList();
+    }
+
+    /**
+     * @param project Index of a project
+     * @return Projects the project must not depend on, not to be modified
+     */
+    public BitSet getForbidden(int project) {
+        return forbidden[project];
+    }
+}
@@ -0,0 +1,89 @@
+package com.itestra.software_analyse_challenge;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Analyses many input directories one after another in the same JVM, e.g. {@code batch repo1/src repo2/src} or
+ * {@code batch @roots.txt} with one directory per line (empty lines and lines starting with {@code #} are ignored).
+ * <p>
+ * Besides the warm JVM, the worker pool and the read buffers, the roots share the facts of files with the same
+ * content, so libraries copied into several roots are scanned only once, and a root declaring the same types as the
+ * root before reuses its {@link ClassIndex}.
+ */
+public final class BatchCommand {
+
+    public static final String COMMAND = "batch";
+
+    private BatchCommand() {
+    }
+
+    /**
+     * @param input Settings of the analysis of every root
+     * @param arguments Input directories and manifest files prefixed with {@code @}
+     * @param consumer Called with every root and its analysis, in the given order
+     * @param errors Called with every root which cannot be analysed and the reason
+     * @throws IllegalArgumentException If no roots are given or a manifest cannot be read
+     */
+    public static void run(Input input, List<String> arguments, BiConsumer<File, Analysis> consumer,
+            BiConsumer<File, RuntimeException> errors) {
+        List<File> roots = getRoots(arguments);
+        if (roots.isEmpty()) {
+            throw new IllegalArgumentException(COMMAND + " expects input directories or @manifest files");
+        }
+        // References depend on the other files of a root, everything else only on the content of a file
+        boolean shareFacts = !input.isSymbolReferences();
+        Map<String, FileFacts> sharedFacts = shareFacts ? new ConcurrentHashMap<>() : null;
+        ClassIndex classIndex = null;
+        for (File root : roots) {
+            if (!root.isDirectory()) {
+                errors.accept(root, new IllegalArgumentException(root + " is not a directory"));
+                continue;
+            }
+            Analysis analysis;
+            try {
+                analysis = SourceCodeAnalyser.analyseTree(root, input, sharedFacts, classIndex);
+            } catch (RuntimeException e) {
+                errors.accept(root, e);
+                continue;
+            }
+            classIndex = analysis.classIndex();
+            if (shareFacts) {
+                analysis.contentHashes().forEach((file, contentHash) -> {
+                    FileFacts facts = analysis.facts().get(file);
+                    if (!contentHash.equals(ContentHash.UNKNOWN) && !facts.isSlowFile()) {
+                        sharedFacts.putIfAbsent(contentHash, facts);
+                    }
+                });
+            }
+            consumer.accept(root, analysis);
+        }
+    }
+
+    private static List<File> getRoots(List<String> arguments) {
+        List<File> roots = new ArrayList<>();
+        for (String argument : arguments) {
+            if (!argument.startsWith("@")) {
+                roots.add(new File(argument));
+                continue;
+            }
+            File manifest = new File(argument.substring(1));
+            try {
+                Files.readAllLines(manifest.toPath()).stream()
+                        .map(String::trim)
+                        .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                        .map(File::new)
+                        .forEach(roots::add);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Could not read manifest " + manifest, e);
+            }
+        }
+        return roots;
+    }
+}
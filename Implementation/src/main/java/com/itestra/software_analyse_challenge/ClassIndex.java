@@ -0,0 +1,270 @@
+package com.itestra.software_analyse_challenge;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Index of the packages and types of the input directory, built once from the list of files.
+ * <p>
+ * Every file declares the top level type named like the file in the package of its directory relative to its source
+ * root, see {@link ProjectMapping}. Nested types are resolved to the file of their top level type.
+ * <p>
+ * Types have ids, so references found while lexing a file can be looked up by their characters without
+ * allocating a string per identifier. The names do not depend on the input directory, so another tree declaring the
+ * same types reuses them, see {@link #reuse(List, ProjectMapping)}.
+ */
+public final class ClassIndex {
+
+    private static final String ON_DEMAND = ".*";
+
+    // Types of the files, independent of the directory of the files and shared by reused indexes
+    private final List<String> typeNames;
+    private final Map<String, Integer> types;
+    private final List<Integer> typePackages;
+    private final Map<String, Integer> packageIds;
+    private final NameTable qualifiedNames;
+    private final NameTable simpleNames;
+
+    // Files declaring the types, the id of a type is the index of its file
+    private final List<File> typeFiles;
+    private final Map<File, Integer> fileTypes = new HashMap<>();
+    private final List<List<File>> packageFiles = new ArrayList<>();
+
+    /**
+     * @param files All files of the input directory
+     * @param projectMapping Mapping of the files, knows their packages
+     */
+    public ClassIndex(List<File> files, ProjectMapping projectMapping) {
+        this.typeNames = new ArrayList<>(files.size());
+        this.types = new HashMap<>();
+        this.typePackages = new ArrayList<>(files.size());
+        this.packageIds = new HashMap<>();
+        for (int index = 0; index < files.size(); ++index) {
+            String packageName = projectMapping.getPackageName(index);
+            StringBuilder name = new StringBuilder(packageName);
+            if (!packageName.isEmpty()) {
+                name.append('.');
+            }
+            name.append(getSimpleName(files.get(index)));
+            types.put(name.toString(), index);
+            typeNames.add(name.toString());
+            typePackages.add(packageIds.computeIfAbsent(packageName, p -> packageIds.size()));
+        }
+        this.qualifiedNames = new NameTable(typeNames.size());
+        this.simpleNames = new NameTable(typeNames.size());
+        for (int type = 0; type < typeNames.size(); ++type) {
+            String name = typeNames.get(type);
+            qualifiedNames.add(name, type);
+            simpleNames.add(name.substring(name.lastIndexOf('.') + 1), type);
+        }
+        this.typeFiles = files;
+        addFiles();
+    }
+
+    /**
+     * Index of the same types declared by other files.
+     */
+    private ClassIndex(ClassIndex index, List<File> files) {
+        this.typeNames = index.typeNames;
+        this.types = index.types;
+        this.typePackages = index.typePackages;
+        this.packageIds = index.packageIds;
+        this.qualifiedNames = index.qualifiedNames;
+        this.simpleNames = index.simpleNames;
+        this.typeFiles = files;
+        addFiles();
+    }
+
+    private void addFiles() {
+        for (int i = 0; i < packageIds.size(); ++i) {
+            packageFiles.add(new ArrayList<>());
+        }
+        for (int type = 0; type < typeFiles.size(); ++type) {
+            fileTypes.put(typeFiles.get(type), type);
+            packageFiles.get(typePackages.get(type)).add(typeFiles.get(type));
+        }
+    }
+
+    /**
+     * Reuses the name tables of this index for files declaring the same types in the same order, e.g. the same
+     * library or another version of the same tree analysed by a later root of a {@link BatchCommand}, instead of
+     * indexing all names again.
+     *
+     * @param files All files of another input directory
+     * @param projectMapping Mapping of the files, knows their packages
+     * @return Index of the files, {@code null} if they do not declare exactly the types of this index
+     */
+    public ClassIndex reuse(List<File> files, ProjectMapping projectMapping) {
+        if (files.size() != typeNames.size()) {
+            return null;
+        }
+        for (int type = 0; type < files.size(); ++type) {
+            String packageName = projectMapping.getPackageName(type);
+            String name = typeNames.get(type);
+            String fileName = files.get(type).getName();
+            int extension = fileName.lastIndexOf('.');
+            int simpleNameLength = extension < 0 ? fileName.length() : extension;
+            int simpleNameStart = packageName.isEmpty() ? 0 : packageName.length() + 1;
+            // Compared in place, without building the names
+            boolean same = name.length() == simpleNameStart + simpleNameLength && name.startsWith(packageName)
+                    && (packageName.isEmpty() || name.charAt(packageName.length()) == '.')
+                    && name.regionMatches(simpleNameStart, fileName, 0, simpleNameLength);
+            if (!same) {
+                return null;
+            }
+        }
+        return new ClassIndex(this, files);
+    }
+
+    /**
+     * @param imported Imported name of a single type import ({@code a.b.C}) or type import on demand
+     *                 ({@code a.b.*})
+     * @return Files declaring the imported types, empty if none of them is part of the input directory
+     */
+    public List<File> resolve(String imported) {
+        if (imported.endsWith(ON_DEMAND)) {
+            String name = imported.substring(0, imported.length() - ON_DEMAND.length());
+            Integer packageId = packageIds.get(name);
+            if (packageId != null) {
+                return packageFiles.get(packageId);
+            }
+            // Nested types of a type on demand
+            return asList(resolveType(name));
+        }
+        return asList(resolveType(imported));
+    }
+
+    /**
+     * @param imported Imported name of a single static import ({@code a.b.C.m}) or static import on demand
+     *                 ({@code a.b.C.*})
+     * @return File declaring the type of the imported members, empty if it is not part of the input directory
+     */
+    public List<File> resolveStatic(String imported) {
+        int memberStart = imported.lastIndexOf('.');
+        return memberStart < 0 ? Collections.emptyList() : asList(resolveType(imported.substring(0, memberStart)));
+    }
+
+    /**
+     * @param file File of the input directory
+     * @return Id of the type declared by the file, {@code -1} if the file is not indexed
+     */
+    public int getType(File file) {
+        Integer type = fileTypes.get(file);
+        return type == null ? -1 : type;
+    }
+
+    /**
+     * @param type Id of a type
+     * @return Fully qualified name of the type
+     */
+    public String getTypeName(int type) {
+        return typeNames.get(type);
+    }
+
+    /**
+     * @param buffer Characters of a file
+     * @param start Index of the first character of the name
+     * @param end Index after the last character of the name
+     * @return Id of the type with this fully qualified name, {@code -1} if there is none
+     */
+    public int findQualifiedType(char[] buffer, int start, int end) {
+        int[] candidates = qualifiedNames.get(buffer, start, end);
+        return candidates == null ? -1 : candidates[0];
+    }
+
+    /**
+     * @param buffer Characters of a file
+     * @param start Index of the first character of the name
+     * @param end Index after the last character of the name
+     * @param type Id of the type whose package is searched
+     * @return Id of the type with this simple name in the same package as {@code type}, {@code -1} if there is none
+     */
+    public int findSamePackageType(char[] buffer, int start, int end, int type) {
+        int[] candidates = simpleNames.get(buffer, start, end);
+        if (candidates != null) {
+            int packageId = typePackages.get(type);
+            for (int candidate : candidates) {
+                if (typePackages.get(candidate) == packageId) {
+                    return candidate;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param name Fully qualified name of a (possibly nested) type
+     * @return File declaring the type or its top level type, {@code null} if there is none
+     */
+    private File resolveType(String name) {
+        String type = name;
+        while (true) {
+            Integer id = types.get(type);
+            if (id != null) {
+                return typeFiles.get(id);
+            }
+            int lastDot = type.lastIndexOf('.');
+            if (lastDot < 0) {
+                return null;
+            }
+            type = type.substring(0, lastDot);
+        }
+    }
+
+    private static String getSimpleName(File file) {
+        String fileName = file.getName();
+        int extension = fileName.lastIndexOf('.');
+        return extension < 0 ? fileName : fileName.substring(0, extension);
+    }
+
+    private static List<File> asList(File file) {
+        return file == null ? Collections.emptyList() : List.of(file);
+    }
+
+    /**
+     * Open addressing hash table from names to type ids, which is queried with a range of characters.
+     */
+    private static final class NameTable {
+
+        private final String[] keys;
+        private final int[][] values;
+
+        NameTable(int expectedSize) {
+            int capacity = Integer.highestOneBit(Math.max(2, expectedSize) * 2) * 2;
+            this.keys = new String[capacity];
+            this.values = new int[capacity][];
+        }
+
+        void add(String name, int value) {
+            int slot = slot(name.hashCode());
+            while (keys[slot] != null && !keys[slot].equals(name)) {
+                slot = (slot + 1) & (keys.length - 1);
+            }
+            if (keys[slot] == null) {
+                keys[slot] = name;
+                values[slot] = new int[] {value};
+            } else {
+                values[slot] = Arrays.copyOf(values[slot], values[slot].length + 1);
+                values[slot][values[slot].length - 1] = value;
+            }
+        }
+
+        int[] get(char[] buffer, int start, int end) {
+            // Same hash as String#hashCode
+            int hash = 0;
+            for (int i = start; i < end; ++i) {
+                hash = 31 * hash + buffer[i];
+            }
+            for (int slot = slot(hash); keys[slot] != null; slot = (slot + 1) & (keys.length - 1)) {
+                if (JavaLexer.equals(buffer, start, end, keys[slot])) {
+                    return values[slot];
+                }
+            }
+            return null;
+        }
+
+        private int slot(int hash) {
+            return (hash ^ hash >>> 16) & (keys.length - 1);
+        }
+    }
+}
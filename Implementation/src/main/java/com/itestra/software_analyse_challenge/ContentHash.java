@@ -0,0 +1,136 @@
+package com.itestra.software_analyse_challenge;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Hash of the content of a file, used to recognise files which did not change or are identical in several trees.
+ * <p>
+ * The hash is XXH64 (seed {@code 0}) of the bytes of the file, hex encoded, followed by {@code -} and the size of
+ * the file in bytes. XXH64 is not cryptographic, but far faster than a cryptographic hash, and together with the
+ * size collisions are practically impossible for the contents of source trees.
+ */
+public final class ContentHash {
+
+    /**
+     * Hash of a file which could not be read, it never equals the hash of another file.
+     */
+    public static final String UNKNOWN = "";
+
+    private static final long PRIME1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME3 = 0x165667B19E3779F9L;
+    private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME5 = 0x27D4EB2F165667C5L;
+    private static final int STRIPE = 32;
+
+    private static final ThreadLocal<ByteBuffer> BUFFERS = ThreadLocal.withInitial(
+            () -> ByteBuffer.allocate(64 << 10).order(ByteOrder.LITTLE_ENDIAN));
+
+    private ContentHash() {
+    }
+
+    /**
+     * @param file File to hash
+     * @return Hash of the content, {@link #UNKNOWN} if the file cannot be read
+     */
+    public static String of(File file) {
+        ByteBuffer buffer = BUFFERS.get();
+        long[] lanes = lanes();
+        long length = 0;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            buffer.clear();
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                // Full stripes only, the rest is kept for the next read or the final mix
+                length += stripes(lanes, buffer);
+                buffer.compact();
+            }
+        } catch (IOException e) {
+            return UNKNOWN;
+        }
+        buffer.flip();
+        return finish(lanes, length, buffer);
+    }
+
+    /**
+     * @param content Content of a file read before, e.g. to scan it
+     * @return Hash of the content, the same as of the file
+     */
+    public static String of(byte[] content) {
+        ByteBuffer buffer = ByteBuffer.wrap(content).order(ByteOrder.LITTLE_ENDIAN);
+        long[] lanes = lanes();
+        long length = stripes(lanes, buffer);
+        return finish(lanes, length, buffer);
+    }
+
+    private static long[] lanes() {
+        return new long[] {PRIME1 + PRIME2, PRIME2, 0, -PRIME1};
+    }
+
+    /**
+     * Consumes all full stripes of the buffer.
+     *
+     * @return Number of bytes consumed
+     */
+    private static long stripes(long[] lanes, ByteBuffer buffer) {
+        long length = 0;
+        while (buffer.remaining() >= STRIPE) {
+            lanes[0] = round(lanes[0], buffer.getLong());
+            lanes[1] = round(lanes[1], buffer.getLong());
+            lanes[2] = round(lanes[2], buffer.getLong());
+            lanes[3] = round(lanes[3], buffer.getLong());
+            length += STRIPE;
+        }
+        return length;
+    }
+
+    /**
+     * @param length Number of bytes consumed by stripes
+     * @param buffer Remaining bytes, fewer than a stripe
+     */
+    private static String finish(long[] lanes, long length, ByteBuffer buffer) {
+        long hash;
+        if (length >= STRIPE) {
+            hash = Long.rotateLeft(lanes[0], 1) + Long.rotateLeft(lanes[1], 7) + Long.rotateLeft(lanes[2], 12)
+                    + Long.rotateLeft(lanes[3], 18);
+            for (long lane : lanes) {
+                hash = mergeRound(hash, lane);
+            }
+        } else {
+            hash = PRIME5;
+        }
+        length += buffer.remaining();
+        hash += length;
+        while (buffer.remaining() >= Long.BYTES) {
+            hash ^= round(0, buffer.getLong());
+            hash = Long.rotateLeft(hash, 27) * PRIME1 + PRIME4;
+        }
+        if (buffer.remaining() >= Integer.BYTES) {
+            hash ^= (buffer.getInt() & 0xFFFFFFFFL) * PRIME1;
+            hash = Long.rotateLeft(hash, 23) * PRIME2 + PRIME3;
+        }
+        while (buffer.hasRemaining()) {
+            hash ^= (buffer.get() & 0xFFL) * PRIME5;
+            hash = Long.rotateLeft(hash, 11) * PRIME1;
+        }
+        hash ^= hash >>> 33;
+        hash *= PRIME2;
+        hash ^= hash >>> 29;
+        hash *= PRIME3;
+        hash ^= hash >>> 32;
+        return String.format("%016x-%d", hash, length);
+    }
+
+    private static long round(long accumulator, long input) {
+        return Long.rotateLeft(accumulator + input * PRIME2, 31) * PRIME1;
+    }
+
+    private static long mergeRound(long accumulator, long value) {
+        return (accumulator ^ round(0, value)) * PRIME1 + PRIME4;
+    }
+}
@@ -0,0 +1,40 @@
+package com.itestra.software_analyse_challenge;
+
+/**
+ * Approximates the cyclomatic complexity of a file as one plus the number of decision points
+ * ({@code if}, {@code for}, {@code while}, {@code case}, {@code catch}, {@code &&}, {@code ||} and {@code ?}).
+ */
+public final class CyclomaticComplexityMetric implements Metric {
+
+    public static final String NAME = "complexity";
+
+    private int complexity = 1;
+    private boolean previousStartsTypeArgument = false;
+
+    @Override
+    public void token(JavaLexer.TokenKind kind, char[] buffer, int start, int end) {
+        if (kind == JavaLexer.TokenKind.COMMENT) {
+            return;
+        }
+        if (kind == JavaLexer.TokenKind.KEYWORD) {
+            if (JavaLexer.equals(buffer, start, end, "if") || JavaLexer.equals(buffer, start, end, "for")
+                    || JavaLexer.equals(buffer, start, end, "while") || JavaLexer.equals(buffer, start, end, "case")
+                    || JavaLexer.equals(buffer, start, end, "catch")) {
+                ++complexity;
+            }
+        } else if (kind == JavaLexer.TokenKind.OPERATOR) {
+            if (JavaLexer.equals(buffer, start, end, "&&") || JavaLexer.equals(buffer, start, end, "||")
+                    // A wildcard like List<?> or Map<?, ?> is no conditional operator
+                    || JavaLexer.equals(buffer, start, end, "?") && !previousStartsTypeArgument) {
+                ++complexity;
+            }
+        }
+        previousStartsTypeArgument = kind == JavaLexer.TokenKind.OPERATOR
+                && (buffer[start] == '<' || buffer[start] == ',') && end - start == 1;
+    }
+
+    @Override
+    public int getValue() {
+        return complexity;
+    }
+}
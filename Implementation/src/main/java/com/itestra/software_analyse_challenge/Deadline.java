@@ -0,0 +1,93 @@
+package com.itestra.software_analyse_challenge;
+
+/**
+ * Time budget of the analysis of a single file.
+ */
+public final class Deadline {
+
+    /**
+     * Deadline which never expires.
+     */
+    public static final Deadline NONE = new Deadline(Long.MAX_VALUE, null);
+
+    private final long startNanos;
+    private final Runnable fallback;
+    private volatile long deadlineNanos;
+    private volatile boolean exceeded = false;
+
+    private Deadline(long budgetNanos, Runnable fallback) {
+        this.startNanos = System.nanoTime();
+        this.fallback = fallback;
+        this.deadlineNanos = budgetNanos == Long.MAX_VALUE ? Long.MAX_VALUE : startNanos + budgetNanos;
+    }
+
+    /**
+     * @param budgetMillis Time budget in milliseconds, {@code 0} for no budget
+     * @return A deadline starting now
+     */
+    public static Deadline after(long budgetMillis) {
+        return after(budgetMillis, null);
+    }
+
+    /**
+     * @param budgetMillis Time budget in milliseconds, {@code 0} for no budget
+     * @param fallback Run once when the deadline has passed, instead of throwing, e.g. to drop the expensive
+     *                 visitors of a scan; the scan then goes on without time budget. {@code null} to throw
+     * @return A deadline starting now
+     */
+    public static Deadline after(long budgetMillis, Runnable fallback) {
+        return new Deadline(budgetMillis <= 0 ? Long.MAX_VALUE : budgetMillis * 1_000_000L, fallback);
+    }
+
+    /**
+     * May be called by several threads, the fallback is run by only one of them.
+     *
+     * @throws TimeBudgetExceededException If the deadline has passed and there is no fallback
+     */
+    public void check() {
+        if (deadlineNanos != Long.MAX_VALUE && System.nanoTime() - deadlineNanos > 0) {
+            exceed();
+        }
+    }
+
+    private synchronized void exceed() {
+        if (fallback == null) {
+            throw new TimeBudgetExceededException(getElapsedMillis());
+        }
+        if (!exceeded) {
+            exceeded = true;
+            deadlineNanos = Long.MAX_VALUE;
+            fallback.run();
+        }
+    }
+
+    /**
+     * @return Whether the deadline has passed and the fallback was run
+     */
+    public boolean isExceeded() {
+        return exceeded;
+    }
+
+    public long getElapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000L;
+    }
+
+    /**
+     * Thrown if the analysis of a file exceeds its time budget.
+     */
+    public static final class TimeBudgetExceededException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long elapsedMillis;
+
+        public TimeBudgetExceededException(long elapsedMillis) {
+            super("Time budget exceeded after " + elapsedMillis + " ms");
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package com.itestra.software_analyse_challenge;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Import graph between the files of the input directory: every file has an edge to every file it imports.
+ * <p>
+ * The graph is indexed by a {@link ReachabilityIndex}, so the project dependencies of a file and reachability
+ * queries between files do not need to traverse the graph.
+ */
+public final class DependencyGraph {
+
+    private final FileTable fileTable;
+    private final List<String> projects;
+    /**
+     * Index of the project every file belongs to, {@code -1} if it is in no project.
+     */
+    private final int[] ownProjects;
+    /**
+     * Projects every file imports directly, indexed like {@link #projects}.
+     */
+    private final List<BitSet> directDependencies;
+    private final int[][] successors;
+    private final int[][] predecessors;
+    private final ReachabilityIndex index;
+    /**
+     * Projects every component depends on directly or indirectly, indexed like {@link #projects}.
+     */
+    private final BitSet[] componentProjects;
+
+    /**
+     * @param fileTable All files, the ids of the files index the other arguments
+     * @param projectMapping Projects and the project of every file
+     * @param directDependencies Indices of the projects every file directly depends on
+     * @param successors Ids of the files every file imports
+     */
+    public DependencyGraph(FileTable fileTable, ProjectMapping projectMapping, List<BitSet> directDependencies,
+            int[][] successors) {
+        this.fileTable = fileTable;
+        this.projects = projectMapping.getProjects();
+        this.ownProjects = new int[fileTable.size()];
+        for (int id = 0; id < fileTable.size(); ++id) {
+            ownProjects[id] = projectMapping.getProject(id);
+        }
+        this.directDependencies = directDependencies;
+        this.successors = successors;
+        this.predecessors = invert(successors);
+        this.index = new ReachabilityIndex(successors);
+        this.componentProjects = new BitSet[index.getComponentCount()];
+        for (int c = 0; c < componentProjects.length; ++c) {
+            componentProjects[c] = new BitSet(projects.size());
+        }
+        for (int id = 0; id < fileTable.size(); ++id) {
+            componentProjects[index.getComponent(id)].or(directDependencies.get(id));
+        }
+        // Successors of a component have smaller numbers and are complete already
+        for (int c = 0; c < componentProjects.length; ++c) {
+            for (int successor : index.getComponentSuccessors(c)) {
+                componentProjects[c].or(componentProjects[successor]);
+            }
+        }
+    }
+
+    private static int[][] invert(int[][] successors) {
+        int[] counts = new int[successors.length];
+        for (int[] targets : successors) {
+            for (int target : targets) {
+                ++counts[target];
+            }
+        }
+        int[][] inverted = new int[successors.length][];
+        for (int id = 0; id < successors.length; ++id) {
+            inverted[id] = new int[counts[id]];
+            counts[id] = 0;
+        }
+        for (int id = 0; id < successors.length; ++id) {
+            for (int target : successors[id]) {
+                inverted[target][counts[target]++] = id;
+            }
+        }
+        return inverted;
+    }
+
+    public List<String> getProjects() {
+        return projects;
+    }
+
+    /**
+     * @return Estimated heap used by the arrays of the graph and its index in bytes, without the file table
+     */
+    public long getHeapBytes() {
+        long bytes = ReachabilityIndex.arrayBytes(ownProjects.length) + index.getHeapBytes();
+        for (int id = 0; id < fileTable.size(); ++id) {
+            bytes += ReachabilityIndex.arrayBytes(successors[id].length)
+                    + ReachabilityIndex.arrayBytes(predecessors[id].length);
+        }
+        for (BitSet projectsOfComponent : componentProjects) {
+            bytes += 40L + projectsOfComponent.size() / 8;
+        }
+        for (BitSet projectsOfFile : directDependencies) {
+            bytes += 40L + projectsOfFile.size() / 8;
+        }
+        return bytes;
+    }
+
+    /**
+     * @param file File of the graph
+     * @return Other projects the file depends on directly or indirectly
+     */
+    public List<String> getDependencies(File file) {
+        int id = getId(file);
+        BitSet dependencies = componentProjects[index.getComponent(id)];
+        Set<String> names = new HashSet<>(projects.size());
+        dependencies.stream()
+                .filter(project -> project != ownProjects[id])
+                .forEach(project -> names.add(projects.get(project)));
+        return names.stream().toList();
+    }
+
+    /**
+     * @param file File of the graph
+     * @return Files the file imports directly
+     */
+    public List<File> getImportedFiles(File file) {
+        int[] imported = successors[getId(file)];
+        List<File> result = new ArrayList<>(imported.length);
+        for (int id : imported) {
+            result.add(fileTable.getFile(id));
+        }
+        return result;
+    }
+
+    /**
+     * @param project Project name
+     * @return All files of other projects which depend on the project directly or indirectly
+     */
+    public List<File> getFilesDependingOn(String project) {
+        int projectIndex = projects.indexOf(project);
+        if (projectIndex < 0) {
+            throw new IllegalArgumentException(project + " is not a project, available: " + projects);
+        }
+        List<File> result = new ArrayList<>();
+        for (int id = 0; id < fileTable.size(); ++id) {
+            if (ownProjects[id] != projectIndex && componentProjects[index.getComponent(id)].get(projectIndex)) {
+                result.add(fileTable.getFile(id));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return Whether {@code from} imports {@code to} directly or indirectly
+     */
+    public boolean reaches(File from, File to) {
+        return index.reaches(getId(from), getId(to));
+    }
+
+    /**
+     * Breadth first search which only follows imports that still reach the target.
+     *
+     * @return Shortest chain of imports from {@code from} to {@code to}, both included, empty if there is none
+     */
+    public List<File> getShortestImportChain(File from, File to) {
+        int source = getId(from);
+        int target = getId(to);
+        if (!index.reaches(source, target)) {
+            return Collections.emptyList();
+        }
+        int[] parent = new int[fileTable.size()];
+        Arrays.fill(parent, -1);
+        parent[source] = source;
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(source);
+        while (!queue.isEmpty() && parent[target] < 0) {
+            int id = queue.poll();
+            for (int successor : successors[id]) {
+                if (parent[successor] < 0 && index.reaches(successor, target)) {
+                    parent[successor] = id;
+                    queue.add(successor);
+                }
+            }
+        }
+        LinkedList<File> chain = new LinkedList<>();
+        for (int id = target; id != source; id = parent[id]) {
+            chain.addFirst(fileTable.getFile(id));
+        }
+        chain.addFirst(from);
+        return chain;
+    }
+
+    /**
+     * Checks every file with one intersection of the forbidden projects of its project and the projects it depends on,
+     * which are already propagated through the graph. Only for the violated rules the graph is searched for a chain.
+     *
+     * @param rules Rules for the projects of this graph
+     * @return Violations of the rules by project and forbidden project, each with its shortest chain of imports
+     */
+    public List<ArchitectureRules.Violation> getViolations(ArchitectureRules rules) {
+        // Forbidden projects every project depends on
+        BitSet[] violated = new BitSet[projects.size()];
+        for (int id = 0; id < fileTable.size(); ++id) {
+            int own = ownProjects[id];
+            if (own >= 0 && rules.getForbidden(own).intersects(componentProjects[index.getComponent(id)])) {
+                if (violated[own] == null) {
+                    violated[own] = new BitSet(projects.size());
+                }
+                violated[own].or(componentProjects[index.getComponent(id)]);
+                violated[own].and(rules.getForbidden(own));
+            }
+        }
+        List<ArchitectureRules.Violation> violations = new ArrayList<>();
+        for (int from = 0; from < projects.size(); ++from) {
+            if (violated[from] != null) {
+                int source = from;
+                violated[from].stream().forEach(to -> violations.add(new ArchitectureRules.Violation(
+                        projects.get(source), projects.get(to), getShortestChainToProject(source, to))));
+            }
+        }
+        return violations;
+    }
+
+    /**
+     * Breadth first search from all files of a project which only follows imports that still depend on the target.
+     *
+     * @return Shortest chain of imports from a file of {@code from} to a file importing {@code to}, followed by an
+     *         imported file of {@code to} if there is one
+     */
+    private List<File> getShortestChainToProject(int from, int to) {
+        int[] parent = new int[fileTable.size()];
+        Arrays.fill(parent, -1);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int id = 0; id < fileTable.size(); ++id) {
+            if (ownProjects[id] == from && componentProjects[index.getComponent(id)].get(to)) {
+                parent[id] = id;
+                queue.add(id);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int id = queue.poll();
+            if (ownProjects[id] != to && directDependencies.get(id).get(to)) {
+                LinkedList<File> chain = new LinkedList<>();
+                int file = id;
+                chain.addFirst(fileTable.getFile(file));
+                while (parent[file] != file) {
+                    file = parent[file];
+                    chain.addFirst(fileTable.getFile(file));
+                }
+                Arrays.stream(successors[id]).filter(successor -> ownProjects[successor] == to).findFirst()
+                        .ifPresent(successor -> chain.add(fileTable.getFile(successor)));
+                return chain;
+            }
+            for (int successor : successors[id]) {
+                if (parent[successor] < 0 && componentProjects[index.getComponent(successor)].get(to)) {
+                    parent[successor] = id;
+                    queue.add(successor);
+                }
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * @param file File which would be deleted
+     * @return All other files which import the file directly or indirectly and therefore break without it
+     */
+    public List<File> getDependents(File file) {
+        int start = getId(file);
+        boolean[] visited = new boolean[fileTable.size()];
+        visited[start] = true;
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(start);
+        List<File> result = new ArrayList<>();
+        while (!queue.isEmpty()) {
+            for (int predecessor : predecessors[queue.poll()]) {
+                if (!visited[predecessor]) {
+                    visited[predecessor] = true;
+                    result.add(fileTable.getFile(predecessor));
+                    queue.add(predecessor);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writes the files as nodes labelled with their relative paths and every import between them as edge.
+     *
+     * @param writer Writer to stream the graph to
+     */
+    public void writeFileGraph(GraphWriter writer) throws IOException {
+        for (int id = 0; id < fileTable.size(); ++id) {
+            writer.node(id, fileTable.getRelativePath(id));
+        }
+        for (int id = 0; id < fileTable.size(); ++id) {
+            for (int successor : successors[id]) {
+                writer.edge(id, successor, 1);
+            }
+        }
+    }
+
+    /**
+     * Writes the projects as nodes and the imports between files of different projects as edges, weighted with the
+     * number of imports.
+     *
+     * @param writer Writer to stream the graph to
+     */
+    public void writeProjectGraph(GraphWriter writer) throws IOException {
+        long[][] imports = new long[projects.size()][projects.size()];
+        for (int id = 0; id < fileTable.size(); ++id) {
+            for (int successor : successors[id]) {
+                if (ownProjects[id] >= 0 && ownProjects[successor] >= 0 && ownProjects[id] != ownProjects[successor]) {
+                    ++imports[ownProjects[id]][ownProjects[successor]];
+                }
+            }
+        }
+        for (int project = 0; project < projects.size(); ++project) {
+            writer.node(project, projects.get(project));
+        }
+        for (int from = 0; from < projects.size(); ++from) {
+            for (int to = 0; to < projects.size(); ++to) {
+                if (imports[from][to] > 0) {
+                    writer.edge(from, to, imports[from][to]);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param name Path relative to the input directory (e.g. {@code spark/Request.java}), fully qualified class
+     *             name (e.g. {@code spark.Request}) or file name if it is unique (e.g. {@code Request.java})
+     * @return The file of the graph, {@code null} if no file of the graph matches
+     * @throws IllegalArgumentException If several files of the graph match
+     */
+    public File findFile(String name) {
+        String path = name.endsWith(".java") ? name.replace('/', File.separatorChar)
+                : name.replace('.', File.separatorChar) + ".java";
+        File file = new File(fileTable.getInputDirectory() + File.separator + path);
+        if (fileTable.getId(file) >= 0) {
+            return file;
+        }
+        int[] candidates = fileTable.findBySimpleName(name);
+        if (candidates.length == 1) {
+            return fileTable.getFile(candidates[0]);
+        }
+        if (candidates.length > 1) {
+            throw new IllegalArgumentException(name + " is ambiguous: " + String.join(", ",
+                    Arrays.stream(candidates).mapToObj(fileTable::getRelativePath).sorted().toList()));
+        }
+        return null;
+    }
+
+    /**
+     * @return Path of a file relative to the input directory
+     */
+    public String getRelativePath(File file) {
+        return fileTable.getRelativePath(getId(file));
+    }
+
+    private int getId(File file) {
+        int id = fileTable.getId(file);
+        if (id < 0) {
+            throw new IllegalArgumentException(file + " is not part of the dependency graph");
+        }
+        return id;
+    }
+}
@@ -0,0 +1,91 @@
+package com.itestra.software_analyse_challenge;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.*;
+
+/**
+ * Compares two trees or saved {@link Snapshot}s, e.g. {@code diff base.snapshot ../head/src/main/java}, and prints
+ * only the added, removed and changed files:
+ * <pre>
+ * + spark/New.java: 12 source lines, [fig]
+ * - spark/Old.java
+ * ~ spark/Changed.java: source lines 40 -> 42, dependencies [] -> [fig]
+ * </pre>
+ * Files of the head tree with the same content as a file of the base are not analysed again, unless references are
+ * resolved, which depend on the other files of the tree. Snapshots must have been taken with the settings of the
+ * analysis of the diff, see {@link Input#getAnalysisSettings()}.
+ */
+public final class DiffCommand {
+
+    public static final String COMMAND = "diff";
+
+    private DiffCommand() {
+    }
+
+    /**
+     * @param input Settings of the analysis of trees
+     * @param arguments Base and head, each a directory or a snapshot file
+     * @param out Stream to print the differences to
+     * @throws IllegalArgumentException If the arguments are invalid or a snapshot was taken with other settings
+     */
+    public static void run(Input input, List<String> arguments, PrintStream out) {
+        if (arguments.size() != 2) {
+            throw new IllegalArgumentException(COMMAND + " expects a base and a head directory or snapshot");
+        }
+        Snapshot base = load(new File(arguments.get(0)), input, Collections.emptyMap());
+        // References depend on the other files of the tree, everything else only on the content of a file
+        Snapshot head = load(new File(arguments.get(1)), input,
+                input.isSymbolReferences() ? Collections.emptyMap() : base.getFactsByContentHash());
+        SortedSet<String> paths = new TreeSet<>(base.getEntries().keySet());
+        paths.addAll(head.getEntries().keySet());
+        for (String path : paths) {
+            Snapshot.Entry before = base.getEntries().get(path);
+            Snapshot.Entry after = head.getEntries().get(path);
+            if (before == null) {
+                out.println("+ " + path + ": " + after.facts().getLineNumber() + " source lines, "
+                        + after.dependencies());
+            } else if (after == null) {
+                out.println("- " + path);
+            } else {
+                List<String> changes = new ArrayList<>();
+                compare(changes, "source lines", before.facts().getLineNumber(), after.facts().getLineNumber());
+                compare(changes, "source lines without getters and block comments",
+                        before.facts().getLineNumberBonus(), after.facts().getLineNumberBonus());
+                compare(changes, "dependencies", before.dependencies(), after.dependencies());
+                boolean contentChanged = !before.contentHash().equals(after.contentHash())
+                        || before.contentHash().equals(ContentHash.UNKNOWN);
+                if (contentChanged && changes.isEmpty()) {
+                    changes.add("content changed");
+                }
+                if (!changes.isEmpty()) {
+                    out.println("~ " + path + ": " + String.join(", ", changes));
+                }
+            }
+        }
+    }
+
+    private static void compare(List<String> changes, String name, Object before, Object after) {
+        if (!before.equals(after)) {
+            changes.add(name + " " + before + " -> " + after);
+        }
+    }
+
+    private static Snapshot load(File file, Input input, Map<String, FileFacts> knownFacts) {
+        if (file.isDirectory()) {
+            return Snapshot.of(SourceCodeAnalyser.analyseTree(file, input, knownFacts), input);
+        }
+        Snapshot snapshot;
+        try {
+            snapshot = Snapshot.read(file);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not read snapshot " + file, e);
+        }
+        if (!snapshot.getSettings().equals(input.getAnalysisSettings())) {
+            throw new IllegalArgumentException("Snapshot " + file + " was taken with the settings "
+                    + String.join(" ", snapshot.getSettings()) + ", use the same settings for the diff");
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,58 @@
+package com.itestra.software_analyse_challenge;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes a graph in the DOT language of Graphviz.
+ */
+public final class DotGraphWriter implements GraphWriter {
+
+    private final Writer writer;
+
+    /**
+     * @param writer Buffered writer, closed by {@link #close()}
+     */
+    public DotGraphWriter(Writer writer) throws IOException {
+        this.writer = writer;
+        writer.write("digraph dependencies {\n");
+    }
+
+    @Override
+    public void node(int id, String label) throws IOException {
+        writer.write("  n");
+        writer.write(Integer.toString(id));
+        writer.write(" [label=\"");
+        for (int i = 0; i < label.length(); ++i) {
+            char c = label.charAt(i);
+            if (c == '"' || c == '\\') {
+                writer.write('\\');
+            }
+            writer.write(c);
+        }
+        writer.write("\"];\n");
+    }
+
+    @Override
+    public void edge(int from, int to, long weight) throws IOException {
+        writer.write("  n");
+        writer.write(Integer.toString(from));
+        writer.write(" -> n");
+        writer.write(Integer.toString(to));
+        if (weight != 1) {
+            writer.write(" [weight=");
+            writer.write(Long.toString(weight));
+            writer.write(", label=\"");
+            writer.write(Long.toString(weight));
+            writer.write("\"]");
+        }
+        writer.write(";\n");
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (writer) {
+            writer.write("}\n");
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.itestra.software_analyse_challenge;
+
+import java.util.Arrays;
+
+/**
+ * Computes the {@link Fingerprint} of a file while it is read and lexed: a hash of all lines for exact duplicates and
+ * a MinHash signature of the shingles of {@value #SHINGLE_SIZE} consecutive tokens for near-duplicates.
+ * <p>
+ * Comments and whitespace are ignored and all literals are treated as the same token, so reformatted or
+ * re-commented copies still have the same shingles.
+ */
+public final class DuplicateCollector implements LineVisitor, TokenVisitor {
+
+    public static final int SHINGLE_SIZE = 5;
+    public static final int SIGNATURE_SIZE = 128;
+
+    private static final long LITERAL = 0x6C6974657261L;
+    private static final long[] SEEDS = new long[SIGNATURE_SIZE];
+
+    static {
+        long seed = 0x5DEECE66DL;
+        for (int i = 0; i < SIGNATURE_SIZE; ++i) {
+            seed = mix(seed + 0x9E3779B97F4A7C15L);
+            SEEDS[i] = seed;
+        }
+    }
+
+    private long contentHash = 0xCBF29CE484222325L;
+    private long length = 0;
+    private final long[] tokens = new long[SHINGLE_SIZE];
+    private long tokenCount = 0;
+    private final long[] signature = new long[SIGNATURE_SIZE];
+
+    public DuplicateCollector() {
+        Arrays.fill(signature, Long.MAX_VALUE);
+    }
+
+    @Override
+    public void line(char[] buffer, int start, int end) {
+        // FNV-1a over the characters, with the line terminator as '\n'
+        long hash = contentHash;
+        for (int i = start; i < end; ++i) {
+            hash = (hash ^ buffer[i]) * 0x100000001B3L;
+        }
+        contentHash = (hash ^ '\n') * 0x100000001B3L;
+        length += end - start + 1;
+    }
+
+    @Override
+    public void token(JavaLexer.TokenKind kind, char[] buffer, int start, int end) {
+        if (kind == JavaLexer.TokenKind.COMMENT) {
+            return;
+        }
+        long token = LITERAL;
+        if (kind != JavaLexer.TokenKind.LITERAL) {
+            token = 0xCBF29CE484222325L;
+            for (int i = start; i < end; ++i) {
+                token = (token ^ buffer[i]) * 0x100000001B3L;
+            }
+        }
+        tokens[(int) (tokenCount++ % SHINGLE_SIZE)] = token;
+        if (tokenCount < SHINGLE_SIZE) {
+            return;
+        }
+        long shingle = 0;
+        for (int i = 0; i < SHINGLE_SIZE; ++i) {
+            shingle = shingle * 31 + tokens[(int) ((tokenCount + i) % SHINGLE_SIZE)];
+        }
+        for (int i = 0; i < SIGNATURE_SIZE; ++i) {
+            long value = mix(shingle ^ SEEDS[i]);
+            if (value < signature[i]) {
+                signature[i] = value;
+            }
+        }
+    }
+
+    /**
+     * Finalizer of SplitMix64, a fast bijective mix of all bits.
+     */
+    private static long mix(long value) {
+        long z = value;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @return Fingerprint of all visited lines and tokens
+     */
+    public Fingerprint getFingerprint() {
+        return new Fingerprint(contentHash, length, tokenCount >= SHINGLE_SIZE ? signature.clone() : null);
+    }
+
+    /**
+     * @param contentHash Hash of the lines of the file
+     * @param length Number of characters of the file, counting every line terminator as one
+     * @param signature MinHash signature, {@code null} if the file has too few tokens for a single shingle
+     */
+    public record Fingerprint(long contentHash, long length, long[] signature) {
+
+        /**
+         * @return Estimated Jaccard similarity of the shingles of both files
+         */
+        public double similarity(Fingerprint other) {
+            int equal = 0;
+            for (int i = 0; i < SIGNATURE_SIZE; ++i) {
+                if (signature[i] == other.signature[i]) {
+                    ++equal;
+                }
+            }
+            return equal / (double) SIGNATURE_SIZE;
+        }
+    }
+}
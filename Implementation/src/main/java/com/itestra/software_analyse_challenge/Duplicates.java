@@ -0,0 +1,113 @@
+package com.itestra.software_analyse_challenge;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Exact and near-duplicate files, found from the {@link DuplicateCollector.Fingerprint}s of an {@link Analysis}.
+ * <p>
+ * Exact duplicates have the same content hash and length. Near-duplicates are found by locality sensitive hashing:
+ * the MinHash signatures are split into {@value #BANDS} bands, only files which agree in at least one band are
+ * compared, so the number of comparisons stays close to the number of similar pairs.
+ */
+public final class Duplicates {
+
+    public static final int BANDS = 16;
+    private static final int ROWS = DuplicateCollector.SIGNATURE_SIZE / BANDS;
+
+    /**
+     * @param files Relative paths of files with identical content, sorted
+     */
+    public record ExactDuplicate(List<String> files) {
+    }
+
+    /**
+     * @param first Relative path of a file
+     * @param second Relative path of a similar file
+     * @param similarity Estimated Jaccard similarity of their token shingles
+     */
+    public record NearDuplicate(String first, String second, double similarity) {
+    }
+
+    private final List<ExactDuplicate> exactDuplicates = new ArrayList<>();
+    private final List<NearDuplicate> nearDuplicates = new ArrayList<>();
+
+    /**
+     * @param analysis Analysis with fingerprints
+     * @param threshold Minimum similarity of near-duplicates
+     */
+    public Duplicates(Analysis analysis, double threshold) {
+        FileTable fileTable = analysis.fileTable();
+        Map<List<Long>, List<Integer>> byContent = new HashMap<>();
+        List<Integer> representatives = new ArrayList<>();
+        for (int id = 0; id < fileTable.size(); ++id) {
+            DuplicateCollector.Fingerprint fingerprint = fingerprint(analysis, id);
+            if (fingerprint != null) {
+                List<Integer> same = byContent.computeIfAbsent(
+                        List.of(fingerprint.contentHash(), fingerprint.length()), key -> new ArrayList<>());
+                if (same.isEmpty() && fingerprint.signature() != null) {
+                    representatives.add(id);
+                }
+                same.add(id);
+            }
+        }
+        byContent.values().stream().filter(same -> same.size() > 1)
+                .forEach(same -> exactDuplicates.add(new ExactDuplicate(
+                        same.stream().map(fileTable::getRelativePath).sorted().toList())));
+        exactDuplicates.sort(Comparator.comparing(duplicate -> duplicate.files().getFirst()));
+
+        // Exact duplicates are compared by one representative only
+        Set<Long> compared = new HashSet<>();
+        for (int band = 0; band < BANDS; ++band) {
+            Map<Long, List<Integer>> buckets = new HashMap<>();
+            for (int id : representatives) {
+                long[] signature = fingerprint(analysis, id).signature();
+                long key = band;
+                for (int row = band * ROWS; row < (band + 1) * ROWS; ++row) {
+                    key = key * 0x100000001B3L + signature[row];
+                }
+                buckets.computeIfAbsent(key, k -> new ArrayList<>()).add(id);
+            }
+            for (List<Integer> bucket : buckets.values()) {
+                for (int i = 0; i < bucket.size(); ++i) {
+                    for (int j = i + 1; j < bucket.size(); ++j) {
+                        int first = bucket.get(i);
+                        int second = bucket.get(j);
+                        if (!compared.add((long) first << 32 | second)) {
+                            continue;
+                        }
+                        double similarity = fingerprint(analysis, first).similarity(fingerprint(analysis, second));
+                        if (similarity >= threshold) {
+                            String firstPath = fileTable.getRelativePath(first);
+                            String secondPath = fileTable.getRelativePath(second);
+                            nearDuplicates.add(firstPath.compareTo(secondPath) < 0
+                                    ? new NearDuplicate(firstPath, secondPath, similarity)
+                                    : new NearDuplicate(secondPath, firstPath, similarity));
+                        }
+                    }
+                }
+            }
+        }
+        nearDuplicates.sort(Comparator.comparingDouble(NearDuplicate::similarity).reversed()
+                .thenComparing(NearDuplicate::first).thenComparing(NearDuplicate::second));
+    }
+
+    private static DuplicateCollector.Fingerprint fingerprint(Analysis analysis, int id) {
+        File file = analysis.fileTable().getFile(id);
+        return analysis.facts().get(file).getFingerprint();
+    }
+
+    /**
+     * @return Groups of files with identical content
+     */
+    public List<ExactDuplicate> getExactDuplicates() {
+        return exactDuplicates;
+    }
+
+    /**
+     * @return Pairs of similar files with different content, the most similar first
+     */
+    public List<NearDuplicate> getNearDuplicates() {
+        return nearDuplicates;
+    }
+}
@@ -0,0 +1,54 @@
+package com.itestra.software_analyse_challenge;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes a graph as compact binary edge list, all numbers big endian:
+ * <ul>
+ *     <li>The magic number {@code 0x44455047} ("DEPG") and the format version {@code 1} as {@code int}</li>
+ *     <li>Per node: the {@code int} {@code 0} followed by its label in modified UTF-8
+ *         ({@link DataOutputStream#writeUTF(String)})</li>
+ *     <li>Per edge: the {@code int} {@code 1} followed by source id and target id as {@code int} and
+ *         the weight as {@code long}</li>
+ * </ul>
+ * Node ids are implied by the order of the nodes. The records end with the stream.
+ */
+public final class EdgeListGraphWriter implements GraphWriter {
+
+    public static final int MAGIC = 0x44455047;
+    public static final int VERSION = 1;
+    public static final int NODE = 0;
+    public static final int EDGE = 1;
+
+    private final DataOutputStream output;
+
+    /**
+     * @param output Buffered stream, closed by {@link #close()}
+     */
+    public EdgeListGraphWriter(OutputStream output) throws IOException {
+        this.output = new DataOutputStream(output);
+        this.output.writeInt(MAGIC);
+        this.output.writeInt(VERSION);
+    }
+
+    @Override
+    public void node(int id, String label) throws IOException {
+        output.writeInt(NODE);
+        output.writeUTF(label);
+    }
+
+    @Override
+    public void edge(int from, int to, long weight) throws IOException {
+        output.writeInt(EDGE);
+        output.writeInt(from);
+        output.writeInt(to);
+        output.writeLong(weight);
+    }
+
+    @Override
+    public void close() throws IOException {
+        output.close();
+    }
+}
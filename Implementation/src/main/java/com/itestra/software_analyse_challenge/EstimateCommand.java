@@ -0,0 +1,228 @@
+package com.itestra.software_analyse_challenge;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.util.*;
+import java.util.function.ToIntFunction;
+
+/**
+ * Estimates the source lines of every project and of the whole tree from a sample of the files, e.g.
+ * {@code estimate 0.05 0.95} scans 5 % of the files and prints the totals with 95 % confidence intervals.
+ * <p>
+ * The files of every project are stratified by their size (powers of four). Every stratum is sampled separately
+ * and its total is extrapolated with a ratio estimator: the source lines per byte of the sampled files times the
+ * bytes of all files of the stratum, which are known without reading the files. Sizes and source lines are highly
+ * correlated, so the estimate is much more precise than extrapolating the number of files. The sample is chosen
+ * deterministically, so repeated estimates of the same tree are equal.
+ */
+public final class EstimateCommand {
+
+    public static final String COMMAND = "estimate";
+
+    private static final double DEFAULT_SAMPLE_FRACTION = 0.05;
+    private static final double DEFAULT_CONFIDENCE = 0.95;
+    /**
+     * Smallest sample of a stratum which allows to estimate its variance.
+     */
+    private static final int MIN_STRATUM_SAMPLE = 3;
+    private static final long SEED = 0x5eed;
+
+    private EstimateCommand() {
+    }
+
+    /**
+     * Estimated total of a measure.
+     *
+     * @param total Extrapolated total
+     * @param variance Estimated variance of the total
+     */
+    public record Estimate(double total, double variance) {
+
+        /**
+         * @param z Quantile of the standard normal distribution of the confidence level
+         * @return Half width of the confidence interval
+         */
+        public double margin(double z) {
+            return z * Math.sqrt(variance);
+        }
+
+        private Estimate plus(Estimate other) {
+            return new Estimate(total + other.total, variance + other.variance);
+        }
+    }
+
+    /**
+     * Files of one project with sizes in the same power of four.
+     */
+    private static final class Stratum {
+        private final List<File> files = new ArrayList<>();
+        private final List<File> sample = new ArrayList<>();
+        private long bytes;
+    }
+
+    /**
+     * @param input Settings of the analysis of the sampled files
+     * @param arguments Optional sample fraction (default {@value #DEFAULT_SAMPLE_FRACTION}) and confidence level
+     *                  (default {@value #DEFAULT_CONFIDENCE})
+     * @param out Stream to print the estimate to
+     * @throws IllegalArgumentException If the arguments are invalid
+     */
+    public static void run(Input input, List<String> arguments, PrintStream out) {
+        if (arguments.size() > 2) {
+            throw new IllegalArgumentException(COMMAND + " expects at most a sample fraction and a confidence level");
+        }
+        double fraction = parse(arguments, 0, DEFAULT_SAMPLE_FRACTION, "sample fraction");
+        double confidence = parse(arguments, 1, DEFAULT_CONFIDENCE, "confidence level");
+        if (fraction <= 0 || fraction > 1 || confidence <= 0 || confidence >= 1) {
+            throw new IllegalArgumentException("The sample fraction must be in (0, 1] and the confidence level in (0, 1)");
+        }
+        File inputDirectory = input.getInputDirectory();
+        List<File> files = SourceCodeAnalyser.getFilesInDirectory(inputDirectory);
+        ProjectMapping projectMapping = new ProjectMapping(input.getProjectDefinitions(), inputDirectory, files);
+
+        // Project index + 1 (0 for files in no project) -> size class -> stratum
+        List<Map<Integer, Stratum>> strata = new ArrayList<>();
+        for (int project = 0; project <= projectMapping.getProjects().size(); ++project) {
+            strata.add(new TreeMap<>());
+        }
+        for (int index = 0; index < files.size(); ++index) {
+            File file = files.get(index);
+            long size = file.length();
+            Stratum stratum = strata.get(projectMapping.getProject(index) + 1)
+                    .computeIfAbsent((64 - Long.numberOfLeadingZeros(size)) / 2, s -> new Stratum());
+            stratum.files.add(file);
+            stratum.bytes += size;
+        }
+        Random random = new Random(SEED);
+        List<File> sample = new ArrayList<>();
+        for (Map<Integer, Stratum> projectStrata : strata) {
+            for (Stratum stratum : projectStrata.values()) {
+                stratum.files.sort(Comparator.comparing(File::getPath));
+                List<File> shuffled = new ArrayList<>(stratum.files);
+                Collections.shuffle(shuffled, random);
+                int size = (int) Math.min(stratum.files.size(),
+                        Math.max(MIN_STRATUM_SAMPLE, Math.round(fraction * stratum.files.size())));
+                stratum.sample.addAll(shuffled.subList(0, size));
+                sample.addAll(stratum.sample);
+            }
+        }
+
+        Map<File, FileFacts> facts = SourceCodeAnalyser.scanFiles(sample, input,
+                new ClassIndex(files, projectMapping), null, Collections.emptyMap(), null);
+        double z = normalQuantile(0.5 + confidence / 2);
+        long sampledBytes = sample.stream().mapToLong(File::length).sum();
+        long totalBytes = strata.stream().flatMap(s -> s.values().stream()).mapToLong(s -> s.bytes).sum();
+        out.printf(Locale.ROOT, "Estimate from %d of %d files (%.1f %% of the files, %.1f %% of the bytes), "
+                        + "%.0f %% confidence intervals: %n", sample.size(), files.size(),
+                100.0 * sample.size() / Math.max(1, files.size()), 100.0 * sampledBytes / Math.max(1, totalBytes),
+                100 * confidence);
+        List<List<String>> rows = new ArrayList<>();
+        rows.add(List.of("Project", "Files", "Sampled Files", "Source Lines",
+                "Source Lines without Getters and Block Comments"));
+        Estimate allLines = new Estimate(0, 0);
+        Estimate allLinesBonus = new Estimate(0, 0);
+        for (int project = 0; project < projectMapping.getProjects().size(); ++project) {
+            Estimate lines = new Estimate(0, 0);
+            Estimate linesBonus = new Estimate(0, 0);
+            int projectFiles = 0;
+            int projectSample = 0;
+            for (Stratum stratum : strata.get(project + 1).values()) {
+                lines = lines.plus(estimate(stratum, file -> facts.get(file).getLineNumber()));
+                linesBonus = linesBonus.plus(estimate(stratum, file -> facts.get(file).getLineNumberBonus()));
+                projectFiles += stratum.files.size();
+                projectSample += stratum.sample.size();
+            }
+            rows.add(List.of(projectMapping.getProjects().get(project), String.valueOf(projectFiles),
+                    String.valueOf(projectSample), format(lines, z), format(linesBonus, z)));
+            allLines = allLines.plus(lines);
+            allLinesBonus = allLinesBonus.plus(linesBonus);
+        }
+        for (Stratum stratum : strata.getFirst().values()) {
+            allLines = allLines.plus(estimate(stratum, file -> facts.get(file).getLineNumber()));
+            allLinesBonus = allLinesBonus.plus(estimate(stratum, file -> facts.get(file).getLineNumberBonus()));
+        }
+        rows.add(1, List.of("<all>", String.valueOf(files.size()), String.valueOf(sample.size()),
+                format(allLines, z), format(allLinesBonus, z)));
+        SourceCodeAnalyser.printTable(rows, out);
+    }
+
+    /**
+     * Ratio estimator of the total of a stratum with the file sizes as auxiliary variable.
+     *
+     * @param stratum Sampled stratum
+     * @param measure Source lines of a sampled file, negative if they could not be counted
+     * @return Estimated total and its variance
+     */
+    private static Estimate estimate(Stratum stratum, ToIntFunction<File> measure) {
+        int n = stratum.sample.size();
+        int populationSize = stratum.files.size();
+        double[] y = new double[n];
+        double[] x = new double[n];
+        double sumY = 0;
+        double sumX = 0;
+        for (int i = 0; i < n; ++i) {
+            File file = stratum.sample.get(i);
+            y[i] = Math.max(0, measure.applyAsInt(file));
+            x[i] = file.length();
+            sumY += y[i];
+            sumX += x[i];
+        }
+        if (n == populationSize) {
+            return new Estimate(sumY, 0);
+        }
+        // Empty files of the stratum of size 0 have no lines either
+        double ratio = sumX == 0 ? sumY / n : sumY / sumX;
+        double total = sumX == 0 ? ratio * populationSize : ratio * stratum.bytes;
+        double squaredResiduals = 0;
+        for (int i = 0; i < n; ++i) {
+            double residual = sumX == 0 ? y[i] - ratio : y[i] - ratio * x[i];
+            squaredResiduals += residual * residual;
+        }
+        double variance = (double) populationSize * populationSize * (1 - (double) n / populationSize) / n
+                * squaredResiduals / (n - 1);
+        return new Estimate(total, variance);
+    }
+
+    private static String format(Estimate estimate, double z) {
+        return String.format(Locale.ROOT, "%.0f +/- %.0f", estimate.total(), estimate.margin(z));
+    }
+
+    private static double parse(List<String> arguments, int index, double defaultValue, String name) {
+        if (arguments.size() <= index) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(arguments.get(index));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(arguments.get(index) + " is not a number for the " + name, e);
+        }
+    }
+
+    /**
+     * Inverse of the standard normal distribution function, Acklam's rational approximation with a relative error
+     * below 1.15e-9.
+     *
+     * @param p Probability in (0, 1)
+     * @return Quantile of {@code p}
+     */
+    static double normalQuantile(double p) {
+        double[] a = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02, 1.383577518672690e+02,
+                -3.066479806614716e+01, 2.506628277459239e+00};
+        double[] b = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02, 6.680131188771972e+01,
+                -1.328068155288572e+01};
+        double[] c = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00, -2.549732539343734e+00,
+                4.374664141464968e+00, 2.938163982698783e+00};
+        double[] d = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00, 3.754408661907416e+00};
+        double low = 0.02425;
+        if (p < low || p > 1 - low) {
+            double q = Math.sqrt(-2 * Math.log(p < low ? p : 1 - p));
+            double x = (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                    / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+            return p < low ? x : -x;
+        }
+        double q = p - 0.5;
+        double r = q * q;
+        return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q
+                / (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+    }
+}
@@ -0,0 +1,192 @@
+package com.itestra.software_analyse_challenge;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Local store of the {@link FileFacts} of file contents, keyed by their {@link ContentHash}, so runs on other
+ * worktrees or branches reuse the facts of identical files.
+ * <p>
+ * Every content is a small file {@code v1/<first two hash characters>/<hash>} in the store directory with the
+ * source lines, the source lines without getters and block comments, the imports and the static imports. Reading an
+ * entry marks it as recently used. Sizes are counted in whole blocks of the file system, as every entry takes at
+ * least one, and their total is kept in the file {@code v1/usage}, so {@link #evict()} only lists the store when
+ * the total exceeds the size limit. It then deletes the least recently used entries until the store fits
+ * {@value #LOW_WATER_PERCENT} % of the limit, so the next runs need not list it again. Entries are written
+ * atomically, so several runs can share a store; runs at the same time may lose the additions of each other to the
+ * total, which only delays the next eviction. The store is a cache: if it cannot be read or written, the files are
+ * simply analysed.
+ */
+public final class FactStore {
+
+    private static final String VERSION = "v1";
+    private static final String USAGE = "usage";
+    private static final int LOW_WATER_PERCENT = 90;
+    private static final long DEFAULT_BLOCK_SIZE = 4096;
+
+    private final Path directory;
+    private final long maxBytes;
+    /**
+     * Bytes of the entries added since the last {@link #evict()}, in whole blocks.
+     */
+    private final AtomicLong addedBytes = new AtomicLong();
+    private volatile long blockSize = 0;
+
+    /**
+     * @param directory Directory of the store, created if necessary
+     * @param maxBytes Size limit of all entries in bytes
+     */
+    public FactStore(File directory, long maxBytes) {
+        this.directory = directory.toPath().resolve(VERSION);
+        this.maxBytes = maxBytes;
+    }
+
+    private Path entry(String contentHash) {
+        return directory.resolve(contentHash.substring(0, 2)).resolve(contentHash);
+    }
+
+    /**
+     * @param contentHash {@link ContentHash} of a file
+     * @return Facts of the content, {@code null} if the store has none
+     */
+    public FileFacts get(String contentHash) {
+        if (contentHash.equals(ContentHash.UNKNOWN)) {
+            return null;
+        }
+        Path entry = entry(contentHash);
+        try {
+            String[] columns = Files.readString(entry, StandardCharsets.UTF_8).split("\t", -1);
+            if (columns.length != 4) {
+                return null;
+            }
+            FileFacts facts = new FileFacts(split(columns[2]), split(columns[3]))
+                    .lineNumbers(Integer.parseInt(columns[0]), Integer.parseInt(columns[1]));
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            return facts;
+        } catch (IOException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param contentHash {@link ContentHash} of a file
+     * @param facts Facts of the file with source lines
+     */
+    public void put(String contentHash, FileFacts facts) {
+        if (contentHash.equals(ContentHash.UNKNOWN)) {
+            return;
+        }
+        Path entry = entry(contentHash);
+        try {
+            Files.createDirectories(entry.getParent());
+            byte[] content = String.join("\t", String.valueOf(facts.getLineNumber()),
+                    String.valueOf(facts.getLineNumberBonus()), String.join(",", facts.getImports()),
+                    String.join(",", facts.getStaticImports())).getBytes(StandardCharsets.UTF_8);
+            write(entry, content);
+            addedBytes.addAndGet(allocatedBytes(content.length));
+        } catch (IOException e) {
+            // Not stored, the file is analysed again next time
+        }
+    }
+
+    /**
+     * Deletes the least recently used entries if the entries exceed the size limit, until they fit
+     * {@value #LOW_WATER_PERCENT} % of it.
+     */
+    public void evict() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        long usage = readUsage();
+        long added = addedBytes.getAndSet(0);
+        if (usage >= 0 && usage + added <= maxBytes) {
+            writeUsage(usage + added);
+            return;
+        }
+        record Entry(Path path, long size, long lastUsed) {
+        }
+        List<Entry> entries = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(directory, 2)) {
+            // Entries are in the subdirectories, the usage is directly in the directory
+            paths.filter(path -> !path.getParent().equals(directory)).forEach(path -> {
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                    if (attributes.isRegularFile()) {
+                        entries.add(new Entry(path, allocatedBytes(attributes.size()),
+                                attributes.lastModifiedTime().toMillis()));
+                    }
+                } catch (IOException e) {
+                    // Deleted by another run
+                }
+            });
+        } catch (IOException | UncheckedIOException e) {
+            return;
+        }
+        long size = entries.stream().mapToLong(Entry::size).sum();
+        long lowWaterBytes = maxBytes / 100 * LOW_WATER_PERCENT;
+        if (size > maxBytes) {
+            entries.sort(Comparator.comparingLong(Entry::lastUsed));
+            for (int i = 0; i < entries.size() && size > lowWaterBytes; ++i) {
+                try {
+                    Files.deleteIfExists(entries.get(i).path());
+                    size -= entries.get(i).size();
+                } catch (IOException e) {
+                    // Deleted by another run or not deletable, try the next one
+                }
+            }
+        }
+        writeUsage(size);
+    }
+
+    /**
+     * @return Total size of the entries in whole blocks, {@code -1} if it is unknown
+     */
+    private long readUsage() {
+        try {
+            return Long.parseLong(Files.readString(directory.resolve(USAGE), StandardCharsets.UTF_8).trim());
+        } catch (IOException | NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void writeUsage(long usage) {
+        try {
+            write(directory.resolve(USAGE), String.valueOf(usage).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            // Unknown, the store is listed again by the next eviction
+        }
+    }
+
+    private static void write(Path path, byte[] content) throws IOException {
+        Path temporary = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+        Files.write(temporary, content);
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * @param size Size of a file in bytes
+     * @return Bytes the file takes in the file system of the store, in whole blocks
+     */
+    private long allocatedBytes(long size) {
+        if (blockSize == 0) {
+            try {
+                blockSize = Math.max(1, Files.getFileStore(directory).getBlockSize());
+            } catch (IOException | UnsupportedOperationException e) {
+                blockSize = DEFAULT_BLOCK_SIZE;
+            }
+        }
+        return Math.max(1, (size + blockSize - 1) / blockSize) * blockSize;
+    }
+
+    private static List<String> split(String list) {
+        return list.isEmpty() ? Collections.emptyList() : List.of(list.split(","));
+    }
+}
@@ -0,0 +1,162 @@
+package com.itestra.software_analyse_challenge;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything the analysis learns from reading a single file. The dependencies are only known after
+ * all files were read, so they are added when the facts are turned into an {@link Output}.
+ */
+public final class FileFacts {
+
+    private final List<String> imports;
+    private final List<String> staticImports;
+    private List<String> references = Collections.emptyList();
+    private DuplicateCollector.Fingerprint fingerprint;
+
+    private boolean hasLineNumbers = false;
+    private int lineNumber;
+    private int lineNumberBonus;
+
+    private final Map<String, Integer> metrics = new LinkedHashMap<>();
+
+    private boolean slowFile = false;
+    private long sizeBytes;
+    private long elapsedMillis;
+    private boolean linearFallback;
+
+    /**
+     * @param imports All imported classes and packages of the file
+     * @param staticImports All statically imported members of the file
+     */
+    public FileFacts(final List<String> imports, final List<String> staticImports) {
+        this.imports = imports;
+        this.staticImports = staticImports;
+    }
+
+    /**
+     * @param lineNumber Source lines of the file (task 1)
+     * @param lineNumberBonus Source lines without getters and block comments (task 3)
+     * @return this
+     */
+    public FileFacts lineNumbers(final int lineNumber, final int lineNumberBonus) {
+        this.lineNumber = lineNumber;
+        this.lineNumberBonus = lineNumberBonus;
+        this.hasLineNumbers = true;
+        return this;
+    }
+
+    /**
+     * @param references Fully qualified names of the types referenced without import, see {@link ReferenceCollector}
+     * @return this
+     */
+    public FileFacts references(final List<String> references) {
+        this.references = references;
+        return this;
+    }
+
+    /**
+     * @param fingerprint Fingerprint of the file to find duplicates
+     * @return this
+     */
+    public FileFacts fingerprint(final DuplicateCollector.Fingerprint fingerprint) {
+        this.fingerprint = fingerprint;
+        return this;
+    }
+
+    /**
+     * @param name Name of the metric
+     * @param value Value of the metric for the file
+     * @return this
+     */
+    public FileFacts metric(final String name, final int value) {
+        this.metrics.put(name, value);
+        return this;
+    }
+
+    /**
+     * Marks the file as slow file, see {@link Output#slowFile(long, long, boolean)}.
+     *
+     * @return this
+     */
+    public FileFacts slowFile(final long sizeBytes, final long elapsedMillis, final boolean linearFallback) {
+        this.slowFile = true;
+        this.sizeBytes = sizeBytes;
+        this.elapsedMillis = elapsedMillis;
+        this.linearFallback = linearFallback;
+        return this;
+    }
+
+    /**
+     * @param dependencies Projects the file depends on
+     * @return {@link Output} object of the file
+     */
+    public Output toOutput(final List<String> dependencies) {
+        Output output = hasLineNumbers
+                ? new Output(lineNumber, dependencies).lineNumberBonus(lineNumberBonus)
+                : new Output(dependencies);
+        metrics.forEach(output::metric);
+        if (slowFile) {
+            output.slowFile(sizeBytes, elapsedMillis, linearFallback);
+        }
+        return output;
+    }
+
+    /**
+     * @return Source lines of the file, {@code -1} if they were not counted
+     */
+    public int getLineNumber() {
+        return hasLineNumbers ? lineNumber : -1;
+    }
+
+    /**
+     * @return Source lines without getters and block comments, {@code -1} if they were not counted
+     */
+    public int getLineNumberBonus() {
+        return hasLineNumbers ? lineNumberBonus : -1;
+    }
+
+    /**
+     * @return Values of the metrics by their names
+     */
+    public Map<String, Integer> getMetrics() {
+        return metrics;
+    }
+
+    public boolean isSlowFile() {
+        return slowFile;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public boolean isLinearFallback() {
+        return linearFallback;
+    }
+
+    public List<String> getImports() {
+        return imports;
+    }
+
+    public List<String> getStaticImports() {
+        return staticImports;
+    }
+
+    public List<String> getReferences() {
+        return references;
+    }
+
+    /**
+     * @return Fingerprint of the file, {@code null} if it was not computed
+     */
+    public DuplicateCollector.Fingerprint getFingerprint() {
+        return fingerprint;
+    }
+}
@@ -0,0 +1,294 @@
+package com.itestra.software_analyse_challenge;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CoderResult;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Reads a file once and passes its lines to all {@link LineVisitor}s of the file.
+ * <p>
+ * The byte and character buffers and the {@link SourceDecoder} are reused for all files scanned by the same thread,
+ * so scanning a file allocates nothing per line.
+ */
+public final class FileScanner {
+
+    private static final int BUFFER_SIZE = 8192;
+    /**
+     * Largest character buffer kept for later files, larger ones only grow for a file with a huge line.
+     */
+    private static final int MAX_KEPT_BUFFER_SIZE = 1 << 20;
+
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    private FileScanner() {
+    }
+
+    /**
+     * Passes all lines of a file to the visitors.
+     * The scan stops early as soon as all visitors are {@link LineVisitor#isDone() done}.
+     *
+     * @param file File to scan
+     * @param charset Charset of non-ASCII files, {@code null} to detect it, see {@link SourceDecoder}
+     * @param visitors Visitors of the lines, a list with random access
+     * @param deadline Time budget of the file
+     * @throws IOException If the file cannot be read
+     */
+    public static void scan(File file, Charset charset, List<? extends LineVisitor> visitors, Deadline deadline)
+            throws IOException {
+        scan(FileChannel.open(file.toPath(), StandardOpenOption.READ), charset, visitors, deadline);
+    }
+
+    /**
+     * Passes all lines of a file which was read into memory before, e.g. by {@link ReadAhead}, to the visitors.
+     *
+     * @param content Bytes of the file
+     * @param charset Charset of non-ASCII files, {@code null} to detect it, see {@link SourceDecoder}
+     * @param visitors Visitors of the lines, a list with random access
+     * @param deadline Time budget of the file
+     */
+    public static void scan(byte[] content, Charset charset, List<? extends LineVisitor> visitors,
+            Deadline deadline) {
+        try {
+            scan(Channels.newChannel(new ByteArrayInputStream(content)), charset, visitors, deadline);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Reading from memory failed", e);
+        }
+    }
+
+    private static void scan(ReadableByteChannel input, Charset charset, List<? extends LineVisitor> visitors,
+            Deadline deadline) throws IOException {
+        Buffers buffers = BUFFERS.get();
+        try {
+            scan(input, charset, visitors, deadline, buffers);
+        } finally {
+            // Long-running servers would otherwise keep the buffer of a minified file in every thread forever
+            buffers.shrink();
+        }
+    }
+
+    private static void scan(ReadableByteChannel input, Charset charset, List<? extends LineVisitor> visitors,
+            Deadline deadline, Buffers buffers) throws IOException {
+        ByteBuffer bytes = buffers.bytes.clear();
+        SourceDecoder decoder = buffers.decoder.reset(charset);
+        try (ReadableByteChannel channel = input) {
+            CharBuffer chars = buffers.chars.clear();
+            boolean endOfInput = false;
+            boolean finished = false;
+            boolean skipLineFeed = false;
+            while (!finished) {
+                if (!endOfInput) {
+                    int read = channel.read(bytes);
+                    endOfInput = read < 0;
+                    if (read > 0) {
+                        Telemetry.add(Telemetry.BYTES_READ, read);
+                    }
+                }
+                bytes.flip();
+                int length = chars.position();
+                CoderResult result = decoder.decode(bytes, chars, endOfInput);
+                if (endOfInput && result.isUnderflow()) {
+                    finished = decoder.flush(chars).isUnderflow();
+                }
+                bytes.compact();
+                char[] buffer = chars.array();
+                int end = chars.position();
+                // \r\n split between two reads is a single line terminator
+                int start = skipLineFeed && length == 0 && end > 0 && buffer[0] == '\n' ? 1 : 0;
+                // The incomplete line at the front has no line terminator, so only the new characters are searched
+                int lineStart = Math.max(0, LinearSlocCounter.lineStartAfter(buffer, length, end));
+                if (lineStart > start) {
+                    skipLineFeed = buffer[lineStart - 1] == '\r';
+                    lines(buffer, start, lineStart, visitors);
+                    if (isDone(visitors)) {
+                        return;
+                    }
+                } else if (end > length) {
+                    skipLineFeed = false;
+                }
+                deadline.check();
+                // Move the incomplete last line to the front and grow the buffer if the line does not fit
+                int remaining = end - lineStart;
+                if (remaining == buffer.length) {
+                    chars = buffers.grow();
+                } else {
+                    System.arraycopy(buffer, lineStart, buffer, 0, remaining);
+                    chars.clear().position(remaining);
+                }
+            }
+            lines(chars.array(), 0, chars.position(), visitors);
+        }
+    }
+
+    /**
+     * Passes all lines of a text to the visitors.
+     *
+     * @param buffer Characters of the file
+     * @param start Index of the first character of the first line
+     * @param end Index after the text, an empty last line without line terminator is omitted
+     * @param visitors Visitors of the lines, a list with random access
+     */
+    public static void lines(char[] buffer, int start, int end, List<? extends LineVisitor> visitors) {
+        int lineStart = start;
+        for (int i = start; i < end; ++i) {
+            char c = buffer[i];
+            if (c == '\n' || c == '\r') {
+                // \r\n is a single line terminator
+                if (c == '\r' && i + 1 < end && buffer[i + 1] == '\n') {
+                    line(buffer, lineStart, i, visitors);
+                    lineStart = ++i + 1;
+                } else {
+                    line(buffer, lineStart, i, visitors);
+                    lineStart = i + 1;
+                }
+            }
+        }
+        if (lineStart < end) {
+            line(buffer, lineStart, end, visitors);
+        }
+    }
+
+    /**
+     * Passes all lines of a file read into memory to the visitors, in slices of about the size of the buffer of a
+     * {@link #scan(File, Charset, List, Deadline) scan}, so the deadline is checked as often as in a scan.
+     * The pass stops early as soon as all visitors are {@link LineVisitor#isDone() done}.
+     *
+     * @param text Characters of the file, see {@link #read(File, Charset, Deadline)}
+     * @param visitors Visitors of the lines, a list with random access
+     * @param deadline Time budget of the file
+     */
+    public static void lines(Text text, List<? extends LineVisitor> visitors, Deadline deadline) {
+        char[] chars = text.chars();
+        int start = 0;
+        while (start < text.length() && !isDone(visitors)) {
+            int end = lineStartFrom(chars, Math.min(start + BUFFER_SIZE, text.length()), text.length());
+            lines(chars, start, end, visitors);
+            deadline.check();
+            start = end;
+        }
+    }
+
+    /**
+     * @return First index from {@code index} on which starts a line, {@code length} if there is none
+     */
+    private static int lineStartFrom(char[] chars, int index, int length) {
+        int i = index;
+        // \r\n is a single line terminator
+        while (i < length && chars[i - 1] != '\n' && (chars[i - 1] != '\r' || chars[i] == '\n')) {
+            ++i;
+        }
+        return i;
+    }
+
+    /**
+     * Reads a whole file into memory.
+     *
+     * @param file File to read
+     * @param charset Charset of non-ASCII files, {@code null} to detect it, see {@link SourceDecoder}
+     * @param deadline Time budget of the file
+     * @return Characters of the file, the array may be larger than the file
+     * @throws IOException If the file cannot be read
+     */
+    public static Text read(File file, Charset charset, Deadline deadline) throws IOException {
+        return read(Files.readAllBytes(file.toPath()), charset, deadline);
+    }
+
+    /**
+     * Decodes a whole file which was read into memory before.
+     *
+     * @param content Bytes of the file
+     * @param charset Charset of non-ASCII files, {@code null} to detect it, see {@link SourceDecoder}
+     * @param deadline Time budget of the file
+     * @return Characters of the file, the array may be larger than the file
+     */
+    public static Text read(byte[] content, Charset charset, Deadline deadline) {
+        Telemetry.add(Telemetry.BYTES_READ, content.length);
+        deadline.check();
+        SourceDecoder decoder = BUFFERS.get().decoder.reset(charset);
+        ByteBuffer bytes = ByteBuffer.wrap(content);
+        // Every byte is at most one character, except for malformed input replaced by the configured charset
+        CharBuffer chars = CharBuffer.allocate(content.length + 1);
+        while (decoder.decode(bytes, chars, true).isOverflow()) {
+            chars = CharBuffer.allocate(2 * chars.capacity()).put(chars.flip());
+        }
+        while (decoder.flush(chars).isOverflow()) {
+            chars = CharBuffer.allocate(2 * chars.capacity()).put(chars.flip());
+        }
+        return new Text(chars.array(), chars.position());
+    }
+
+    /**
+     * @return Capacity of the character buffer the current thread keeps between files
+     */
+    static int getBufferCapacity() {
+        return BUFFERS.get().chars.capacity();
+    }
+
+    private static void line(char[] buffer, int start, int end, List<? extends LineVisitor> visitors) {
+        // Indexed loop, so no iterator is allocated per line
+        for (int i = 0; i < visitors.size(); ++i) {
+            LineVisitor visitor = visitors.get(i);
+            if (!visitor.isDone()) {
+                visitor.line(buffer, start, end);
+            }
+        }
+    }
+
+    private static boolean isDone(List<? extends LineVisitor> visitors) {
+        for (int i = 0; i < visitors.size(); ++i) {
+            if (!visitors.get(i).isDone()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Buffers of a single thread.
+     */
+    private static final class Buffers {
+
+        private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+        private final SourceDecoder decoder = new SourceDecoder();
+        private CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+
+        /**
+         * Doubles the character buffer for lines which do not fit, the larger buffer is kept for later files up to
+         * {@value #MAX_KEPT_BUFFER_SIZE} characters.
+         *
+         * @return The new character buffer, positioned after the copied content
+         */
+        private CharBuffer grow() {
+            CharBuffer grown = CharBuffer.allocate(chars.capacity() * 2);
+            grown.put(chars.array(), 0, chars.capacity());
+            chars = grown;
+            return grown;
+        }
+
+        /**
+         * Replaces a character buffer larger than {@value #MAX_KEPT_BUFFER_SIZE} characters by a buffer of the
+         * default size.
+         */
+        private void shrink() {
+            if (chars.capacity() > MAX_KEPT_BUFFER_SIZE) {
+                chars = CharBuffer.allocate(BUFFER_SIZE);
+            }
+        }
+    }
+
+    /**
+     * Characters of a file read into memory.
+     *
+     * @param chars Characters of the file, may be larger than the file
+     * @param length Number of characters of the file
+     */
+    public record Text(char[] chars, int length) {
+    }
+}
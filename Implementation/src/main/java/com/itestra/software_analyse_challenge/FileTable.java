@@ -0,0 +1,108 @@
+package com.itestra.software_analyse_challenge;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Ids and relative paths of the files of the input directory.
+ * <p>
+ * Paths are stored as a tree: every directory is stored once as its parent and its name, and every file as its
+ * directory and its name, with all names interned. Relative paths are built on demand and always use {@code /}
+ * as separator, so they are unique keys independent of the platform. The {@link File}s are the ones of the
+ * analysis, which keeps them anyway as keys of its facts, so mapping between ids and files is a lookup.
+ */
+public final class FileTable {
+
+    private static final int ROOT = -1;
+
+    private final File inputDirectory;
+    private final List<File> files;
+    private final Map<File, Integer> ids;
+    private final int[] fileDirectories;
+    private final String[] fileNames;
+    private final List<String> directoryNames = new ArrayList<>();
+    private final List<Integer> directoryParents = new ArrayList<>();
+    private final Map<String, int[]> simpleNames = new HashMap<>();
+
+    /**
+     * @param inputDirectory Directory the files were found in
+     * @param files All files of the input directory, the id of a file is its index
+     */
+    public FileTable(File inputDirectory, List<File> files) {
+        this.inputDirectory = inputDirectory;
+        this.files = files;
+        this.ids = new HashMap<>(files.size());
+        this.fileDirectories = new int[files.size()];
+        this.fileNames = new String[files.size()];
+        Map<String, String> names = new HashMap<>();
+        // Directory per parent id and name, the root has id -1
+        Map<Integer, Map<String, Integer>> children = new HashMap<>();
+        Path root = inputDirectory.toPath();
+        for (int id = 0; id < files.size(); ++id) {
+            File file = files.get(id);
+            ids.put(file, id);
+            Path relative = root.relativize(file.toPath());
+            int directory = ROOT;
+            for (int i = 0; i < relative.getNameCount() - 1; ++i) {
+                String name = names.computeIfAbsent(relative.getName(i).toString(), n -> n);
+                int parent = directory;
+                directory = children.computeIfAbsent(parent, p -> new HashMap<>()).computeIfAbsent(name, n -> {
+                    directoryNames.add(n);
+                    directoryParents.add(parent);
+                    return directoryNames.size() - 1;
+                });
+            }
+            fileDirectories[id] = directory;
+            fileNames[id] = names.computeIfAbsent(file.getName(), n -> n);
+            int finalId = id;
+            simpleNames.merge(fileNames[id], new int[] {id}, (existing, added) -> {
+                int[] merged = Arrays.copyOf(existing, existing.length + 1);
+                merged[existing.length] = finalId;
+                return merged;
+            });
+        }
+    }
+
+    public File getInputDirectory() {
+        return inputDirectory;
+    }
+
+    public int size() {
+        return fileNames.length;
+    }
+
+    /**
+     * @return File with the id
+     */
+    public File getFile(int id) {
+        return files.get(id);
+    }
+
+    /**
+     * @return Id of the file, {@code -1} if it is not part of the table
+     */
+    public int getId(File file) {
+        return ids.getOrDefault(file, -1);
+    }
+
+    /**
+     * @return Path of the file relative to the input directory, separated by {@code /}
+     */
+    public String getRelativePath(int id) {
+        StringBuilder path = new StringBuilder(fileNames[id]);
+        for (int directory = fileDirectories[id]; directory != ROOT; directory = directoryParents.get(directory)) {
+            path.insert(0, '/').insert(0, directoryNames.get(directory));
+        }
+        return path.toString();
+    }
+
+    /**
+     * @param simpleName File name, e.g. {@code Routes.java}
+     * @return Ids of all files with this name
+     */
+    public int[] findBySimpleName(String simpleName) {
+        int[] found = simpleNames.get(simpleName);
+        return found == null ? new int[0] : found.clone();
+    }
+}
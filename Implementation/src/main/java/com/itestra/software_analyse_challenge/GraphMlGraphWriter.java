@@ -0,0 +1,61 @@
+package com.itestra.software_analyse_challenge;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes a graph in GraphML, with the labels and weights as data keys {@code label} and {@code weight}.
+ */
+public final class GraphMlGraphWriter implements GraphWriter {
+
+    private final Writer writer;
+
+    /**
+     * @param writer Buffered writer, closed by {@link #close()}
+     */
+    public GraphMlGraphWriter(Writer writer) throws IOException {
+        this.writer = writer;
+        writer.write("""
+                <?xml version="1.0" encoding="UTF-8"?>
+                <graphml xmlns="http://graphml.graphdrawing.org/xmlns">
+                  <key id="label" for="node" attr.name="label" attr.type="string"/>
+                  <key id="weight" for="edge" attr.name="weight" attr.type="long"/>
+                  <graph id="dependencies" edgedefault="directed">
+                """);
+    }
+
+    @Override
+    public void node(int id, String label) throws IOException {
+        writer.write("    <node id=\"n");
+        writer.write(Integer.toString(id));
+        writer.write("\"><data key=\"label\">");
+        for (int i = 0; i < label.length(); ++i) {
+            char c = label.charAt(i);
+            switch (c) {
+                case '<' -> writer.write("&lt;");
+                case '>' -> writer.write("&gt;");
+                case '&' -> writer.write("&amp;");
+                default -> writer.write(c);
+            }
+        }
+        writer.write("</data></node>\n");
+    }
+
+    @Override
+    public void edge(int from, int to, long weight) throws IOException {
+        writer.write("    <edge source=\"n");
+        writer.write(Integer.toString(from));
+        writer.write("\" target=\"n");
+        writer.write(Integer.toString(to));
+        writer.write("\"><data key=\"weight\">");
+        writer.write(Long.toString(weight));
+        writer.write("</data></edge>\n");
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (writer) {
+            writer.write("  </graph>\n</graphml>\n");
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.itestra.software_analyse_challenge;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streaming writer of a directed graph: all nodes are written first, then every edge as soon as it is known,
+ * nothing is buffered besides the underlying stream.
+ */
+public interface GraphWriter extends Closeable {
+
+    /**
+     * @param id Id of the node, ids are {@code 0, 1, 2, ...} in the order of the calls
+     * @param label Label of the node
+     */
+    void node(int id, String label) throws IOException;
+
+    /**
+     * Called after all nodes.
+     *
+     * @param from Id of the source node
+     * @param to Id of the target node
+     * @param weight Weight of the edge, e.g. the number of imports between two projects
+     */
+    void edge(int from, int to, long weight) throws IOException;
+
+    /**
+     * @param file File to write to, the format is chosen by its extension: {@code .dot}, {@code .graphml} or
+     *             {@code .bin} ({@link EdgeListGraphWriter})
+     * @return A writer for the file
+     * @throws IllegalArgumentException If the extension is unknown
+     */
+    static GraphWriter open(File file) throws IOException {
+        String name = file.getName();
+        if (name.endsWith(".dot")) {
+            return new DotGraphWriter(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file),
+                    StandardCharsets.UTF_8)));
+        } else if (name.endsWith(".graphml")) {
+            return new GraphMlGraphWriter(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file),
+                    StandardCharsets.UTF_8)));
+        } else if (name.endsWith(".bin")) {
+            return new EdgeListGraphWriter(new BufferedOutputStream(new FileOutputStream(file)));
+        }
+        throw new IllegalArgumentException(name + " has no known graph format, use .dot, .graphml or .bin");
+    }
+}
@@ -0,0 +1,105 @@
+package com.itestra.software_analyse_challenge;
+
+/**
+ * Detects the end of the header of a Java file, i.e., the first type declaration.
+ * Imports can only appear before it, so reading a file for its imports can stop there.
+ */
+public final class HeaderScanner {
+
+    private static final String[] TYPE_DECLARATION_KEYWORDS = {"class", "interface", "enum", "record"};
+
+    private boolean insideBlockComment = false;
+
+    /**
+     * Processes the next line of the file.
+     *
+     * @param buffer Characters of the file
+     * @param start Index of the first character of the line
+     * @param end Index after the last character of the line (excluding the line terminator)
+     * @return Whether a type declaration starts in this line (outside of comments and literals)
+     */
+    public boolean declaresType(char[] buffer, int start, int end) {
+        int i = start;
+        boolean firstToken = true;
+        while (i < end) {
+            if (insideBlockComment) {
+                int commentEnd = indexOfBlockCommentEnd(buffer, i, end);
+                if (commentEnd < 0) {
+                    return false;
+                }
+                insideBlockComment = false;
+                i = commentEnd + 2;
+                continue;
+            }
+            char c = buffer[i];
+            if (c == '/' && i + 1 < end && buffer[i + 1] == '/') {
+                return false;
+            } else if (c == '/' && i + 1 < end && buffer[i + 1] == '*') {
+                insideBlockComment = true;
+                i += 2;
+            } else if (c == '"' || c == '\'') {
+                i = skipLiteral(buffer, i, end);
+            } else if (Character.isJavaIdentifierStart(c)) {
+                int tokenEnd = i + 1;
+                while (tokenEnd < end && Character.isJavaIdentifierPart(buffer[tokenEnd])) {
+                    ++tokenEnd;
+                }
+                if (firstToken && (JavaLexer.equals(buffer, i, tokenEnd, "import")
+                        || JavaLexer.equals(buffer, i, tokenEnd, "package"))) {
+                    // Segments of imported names like a.record.B are no keywords
+                    return false;
+                }
+                char previous = i > start ? buffer[i - 1] : ' ';
+                if (previous == '@' && JavaLexer.equals(buffer, i, tokenEnd, "interface")
+                        || previous != '.' && isTypeDeclarationKeyword(buffer, i, tokenEnd)) {
+                    return true;
+                }
+                firstToken = false;
+                i = tokenEnd;
+            } else {
+                if (!Character.isWhitespace(c)) {
+                    firstToken = false;
+                }
+                ++i;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isTypeDeclarationKeyword(char[] buffer, int start, int end) {
+        for (String keyword : TYPE_DECLARATION_KEYWORDS) {
+            if (JavaLexer.equals(buffer, start, end, keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int indexOfBlockCommentEnd(char[] buffer, int start, int end) {
+        for (int i = start; i + 1 < end; ++i) {
+            if (buffer[i] == '*' && buffer[i + 1] == '/') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return Index after the closing quote, or the end of the line
+     */
+    private static int skipLiteral(char[] buffer, int start, int end) {
+        char quote = buffer[start];
+        int i = start + 1;
+        while (i < end) {
+            char c = buffer[i];
+            if (c == '\\') {
+                i += 2;
+            } else if (c == quote) {
+                return i + 1;
+            } else {
+                ++i;
+            }
+        }
+        return end;
+    }
+}
@@ -0,0 +1,104 @@
+package com.itestra.software_analyse_challenge;
+
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Reads the imports from a Java file.
+ * <p>
+ * Import lines are recognised like the regular expression {@code ^ *import (static )?([a-zA-Z_.]+(\.\*)?); *$}
+ * would, but without allocating anything for lines which are no imports. Imports on demand keep their {@code .*}.
+ */
+public final class ImportCollector implements LineVisitor {
+
+    private static final String IMPORT = "import ";
+    private static final String STATIC = "static ";
+
+    private final List<String> imports = new LinkedList<>();
+    private final List<String> staticImports = new LinkedList<>();
+    private final HeaderScanner headerScanner;
+    private boolean done = false;
+
+    /**
+     * @param headerOnly If True, stop at the first type declaration, as no imports can follow
+     */
+    public ImportCollector(boolean headerOnly) {
+        this.headerScanner = headerOnly ? new HeaderScanner() : null;
+    }
+
+    @Override
+    public void line(char[] buffer, int start, int end) {
+        int nameEnd = importedNameEnd(buffer, start, end);
+        if (nameEnd >= 0) {
+            int nameStart = nameEnd;
+            while (buffer[nameStart - 1] != ' ') {
+                --nameStart;
+            }
+            String imported = new String(buffer, nameStart, nameEnd - nameStart);
+            if (nameStart - STATIC.length() >= start
+                    && JavaLexer.equals(buffer, nameStart - STATIC.length(), nameStart, STATIC)) {
+                staticImports.add(imported);
+            } else {
+                imports.add(imported);
+            }
+        } else if (headerScanner != null && headerScanner.declaresType(buffer, start, end)) {
+            done = true;
+        }
+    }
+
+    /**
+     * @return Index after the imported name if the line is an import, {@code -1} otherwise
+     */
+    private static int importedNameEnd(char[] buffer, int start, int end) {
+        int i = start;
+        while (i < end && buffer[i] == ' ') {
+            ++i;
+        }
+        if (end - i < IMPORT.length() || !JavaLexer.equals(buffer, i, i + IMPORT.length(), IMPORT)) {
+            return -1;
+        }
+        i += IMPORT.length();
+        if (end - i >= STATIC.length() && JavaLexer.equals(buffer, i, i + STATIC.length(), STATIC)) {
+            i += STATIC.length();
+        }
+        int nameStart = i;
+        while (i < end && isNameChar(buffer[i])) {
+            ++i;
+        }
+        if (i < end && buffer[i] == '*' && i > nameStart && buffer[i - 1] == '.') {
+            ++i;
+        }
+        int nameEnd = i;
+        if (nameEnd == nameStart || i == end || buffer[i] != ';') {
+            return -1;
+        }
+        ++i;
+        while (i < end && buffer[i] == ' ') {
+            ++i;
+        }
+        return i == end ? nameEnd : -1;
+    }
+
+    private static boolean isNameChar(char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c == '_' || c == '.';
+    }
+
+    @Override
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * @return All imported classes and packages in the file
+     */
+    public List<String> getImports() {
+        return imports;
+    }
+
+    /**
+     * @return All statically imported members in the file
+     */
+    public List<String> getStaticImports() {
+        return staticImports;
+    }
+}
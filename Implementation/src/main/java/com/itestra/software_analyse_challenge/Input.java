@@ -1,12 +1,40 @@
 package com.itestra.software_analyse_challenge;
 
 import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.Option;
 
 import java.io.File;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.List;
 
 public class Input {
 
     private final File inputDirectory;
+    private final long fileTimeBudgetMillis;
+    private final boolean linearFallback;
+    private final long parallelLexingThreshold;
+    private final boolean headerOnly;
+    private final Charset charset;
+    private final int readAheadDepth;
+    private final ReadAhead.Order readAheadOrder;
+    private final boolean skipSLOC;
+    private final boolean symbolReferences;
+    private final boolean rollUp;
+    private final boolean duplicates;
+    private final double duplicateThreshold;
+    private final String projectDefinitions;
+    private final String ruleDefinitions;
+    private final File openMetricsFile;
+    private final File exportFile;
+    private final boolean exportProjectGraph;
+    private final List<MetricProvider> metrics;
+    private final String command;
+    private final List<String> commandArguments;
+    private final File snapshotFile;
+    private final FactStore factStore;
+    private final File journalFile;
+    private final boolean resume;
 
     public Input(CommandLine commandLine) {
         String optionValue = commandLine.getOptionValue(SourceCodeAnalyser.INPUT_DIR, SourceCodeAnalyser.DEFAULT_INPUT_DIR);
@@ -14,10 +42,252 @@ public class Input {
         if (!this.inputDirectory.isDirectory()) {
             throw new IllegalArgumentException(optionValue + " is not a directory");
         }
+        this.fileTimeBudgetMillis = parseLong(commandLine, SourceCodeAnalyser.FILE_TIME_BUDGET, "0");
+        this.linearFallback = commandLine.hasOption(SourceCodeAnalyser.LINEAR_FALLBACK);
+        this.parallelLexingThreshold = parseLong(commandLine, SourceCodeAnalyser.PARALLEL_LEXING_THRESHOLD,
+                SourceCodeAnalyser.DEFAULT_PARALLEL_LEXING_THRESHOLD);
+        this.headerOnly = commandLine.hasOption(SourceCodeAnalyser.HEADER_ONLY);
+        String charsetName = commandLine.getOptionValue(SourceCodeAnalyser.CHARSET);
+        try {
+            this.charset = charsetName == null ? null : Charset.forName(charsetName);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(charsetName + " is no supported charset", e);
+        }
+        this.readAheadDepth = (int) parseLong(commandLine, SourceCodeAnalyser.READ_AHEAD, "0");
+        if (readAheadDepth < 0) {
+            throw new IllegalArgumentException(readAheadDepth + " is no valid read-ahead depth");
+        }
+        String ioOrder = commandLine.getOptionValue(SourceCodeAnalyser.IO_ORDER, "tree");
+        this.readAheadOrder = switch (ioOrder) {
+            case "tree" -> ReadAhead.Order.TREE;
+            case "inode" -> ReadAhead.Order.INODE;
+            default -> throw new IllegalArgumentException(ioOrder + " is no I/O order, use tree or inode");
+        };
+        List<String> arguments = commandLine.getArgList();
+        this.command = arguments.isEmpty() ? "" : arguments.getFirst();
+        if (!command.isEmpty() && !command.equals(QueryCommand.COMMAND) && !command.equals(DiffCommand.COMMAND)
+                && !command.equals(BatchCommand.COMMAND) && !command.equals(ServeCommand.COMMAND)
+                && !command.equals(EstimateCommand.COMMAND)) {
+            throw new IllegalArgumentException("Unknown command " + command);
+        }
+        this.commandArguments = arguments.isEmpty() ? List.of() : List.copyOf(arguments.subList(1, arguments.size()));
+        // Queries only need the dependency graph
+        this.skipSLOC = commandLine.hasOption(SourceCodeAnalyser.SKIP_SLOC) || command.equals(QueryCommand.COMMAND);
+        this.symbolReferences = commandLine.hasOption(SourceCodeAnalyser.SYMBOL_REFERENCES);
+        this.rollUp = commandLine.hasOption(SourceCodeAnalyser.ROLL_UP);
+        this.duplicates = commandLine.hasOption(SourceCodeAnalyser.DUPLICATES);
+        String threshold = commandLine.getOptionValue(SourceCodeAnalyser.DUPLICATE_THRESHOLD,
+                SourceCodeAnalyser.DEFAULT_DUPLICATE_THRESHOLD);
+        try {
+            this.duplicateThreshold = Double.parseDouble(threshold);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(threshold + " is not a number for "
+                    + SourceCodeAnalyser.DUPLICATE_THRESHOLD.getLongOpt(), e);
+        }
+        this.projectDefinitions = commandLine.getOptionValue(SourceCodeAnalyser.PROJECTS);
+        this.ruleDefinitions = commandLine.getOptionValue(SourceCodeAnalyser.RULES);
+        this.openMetricsFile = commandLine.hasOption(SourceCodeAnalyser.OPENMETRICS_FILE)
+                ? new File(commandLine.getOptionValue(SourceCodeAnalyser.OPENMETRICS_FILE)) : null;
+        this.snapshotFile = commandLine.hasOption(SourceCodeAnalyser.SNAPSHOT)
+                ? new File(commandLine.getOptionValue(SourceCodeAnalyser.SNAPSHOT)) : null;
+        this.factStore = commandLine.hasOption(SourceCodeAnalyser.FACT_STORE)
+                ? new FactStore(new File(commandLine.getOptionValue(SourceCodeAnalyser.FACT_STORE)),
+                        parseLong(commandLine, SourceCodeAnalyser.FACT_STORE_SIZE,
+                                SourceCodeAnalyser.DEFAULT_FACT_STORE_SIZE) << 20)
+                : null;
+        this.journalFile = commandLine.hasOption(SourceCodeAnalyser.JOURNAL)
+                ? new File(commandLine.getOptionValue(SourceCodeAnalyser.JOURNAL)) : null;
+        this.resume = commandLine.hasOption(SourceCodeAnalyser.RESUME);
+        if (resume && journalFile == null) {
+            throw new IllegalArgumentException(SourceCodeAnalyser.RESUME.getLongOpt() + " needs a "
+                    + SourceCodeAnalyser.JOURNAL.getLongOpt());
+        }
+        if (resume && symbolReferences) {
+            // References depend on the other files of the tree, journaled ones may be resolved against removed files
+            throw new IllegalArgumentException(SourceCodeAnalyser.RESUME.getLongOpt() + " cannot be combined with "
+                    + SourceCodeAnalyser.SYMBOL_REFERENCES.getLongOpt());
+        }
+        this.exportFile = commandLine.hasOption(SourceCodeAnalyser.EXPORT)
+                ? new File(commandLine.getOptionValue(SourceCodeAnalyser.EXPORT)) : null;
+        String exportLevel = commandLine.getOptionValue(SourceCodeAnalyser.EXPORT_LEVEL, "file");
+        if (!exportLevel.equals("file") && !exportLevel.equals("project")) {
+            throw new IllegalArgumentException(exportLevel + " is no export level, use file or project");
+        }
+        this.exportProjectGraph = exportLevel.equals("project");
+        String metricsValue = commandLine.getOptionValue(SourceCodeAnalyser.METRICS, "");
+        this.metrics = Metrics.resolve(Arrays.stream(metricsValue.split(","))
+                .map(String::trim).filter(name -> !name.isEmpty()).toList());
+    }
+
+    private static long parseLong(CommandLine commandLine, Option option, String defaultValue) {
+        String optionValue = commandLine.getOptionValue(option, defaultValue);
+        try {
+            return Long.parseLong(optionValue);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(optionValue + " is not a number for " + option.getLongOpt(), e);
+        }
     }
 
     @SuppressWarnings("unused")
     public File getInputDirectory() {
         return inputDirectory;
     }
+
+    public long getFileTimeBudgetMillis() {
+        return fileTimeBudgetMillis;
+    }
+
+    public boolean isLinearFallback() {
+        return linearFallback;
+    }
+
+    public long getParallelLexingThreshold() {
+        return parallelLexingThreshold;
+    }
+
+    public boolean isHeaderOnly() {
+        return headerOnly;
+    }
+
+    /**
+     * @return Charset of files with non-ASCII characters, {@code null} to detect it, see {@link SourceDecoder}
+     */
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * @return Number of reads in flight ahead of the lexing threads, {@code 0} if the lexing threads read the files
+     */
+    public int getReadAheadDepth() {
+        return readAheadDepth;
+    }
+
+    public ReadAhead.Order getReadAheadOrder() {
+        return readAheadOrder;
+    }
+
+    public boolean isSkipSLOC() {
+        return skipSLOC;
+    }
+
+    public boolean isSymbolReferences() {
+        return symbolReferences;
+    }
+
+    public boolean isRollUp() {
+        return rollUp;
+    }
+
+    public boolean isDuplicates() {
+        return duplicates;
+    }
+
+    /**
+     * @return Minimum estimated similarity of near-duplicate files
+     */
+    public double getDuplicateThreshold() {
+        return duplicateThreshold;
+    }
+
+    /**
+     * @return Definitions of the projects for {@link ProjectMapping}, {@code null} for the default projects
+     */
+    public String getProjectDefinitions() {
+        return projectDefinitions;
+    }
+
+    /**
+     * @return Definitions of the {@link ArchitectureRules} to check, {@code null} if none are checked
+     */
+    public String getRuleDefinitions() {
+        return ruleDefinitions;
+    }
+
+    /**
+     * @return File to write the {@link Telemetry} to periodically, {@code null} if it is not written
+     */
+    public File getOpenMetricsFile() {
+        return openMetricsFile;
+    }
+
+    /**
+     * @return File to export the dependency graph to, {@code null} if it is not exported
+     */
+    public File getExportFile() {
+        return exportFile;
+    }
+
+    /**
+     * @return Whether the project graph instead of the file graph is exported
+     */
+    public boolean isExportProjectGraph() {
+        return exportProjectGraph;
+    }
+
+    /**
+     * @return Providers of the additional metrics to compute
+     */
+    public List<MetricProvider> getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return File to save a {@link Snapshot} of the analysis to, {@code null} if none is saved
+     */
+    public File getSnapshotFile() {
+        return snapshotFile;
+    }
+
+    /**
+     * @return Store to reuse the facts of files from, {@code null} if none is used
+     */
+    public FactStore getFactStore() {
+        return factStore;
+    }
+
+    /**
+     * @return File to journal the facts of the analysed files to, {@code null} if none is written
+     */
+    public File getJournalFile() {
+        return journalFile;
+    }
+
+    /**
+     * @return Whether the analysis is resumed from the facts in the {@link Journal}
+     */
+    public boolean isResume() {
+        return resume;
+    }
+
+    /**
+     * @return Settings ({@code name=value}) which change the facts or the dependencies of the files, so results of
+     *         other settings (e.g. a {@link Snapshot}) are recognized
+     */
+    public List<String> getAnalysisSettings() {
+        return List.of(
+                "skip-sloc=" + skipSLOC,
+                "header-only=" + headerOnly,
+                "symbol-references=" + symbolReferences,
+                "duplicates=" + duplicates,
+                "charset=" + charset,
+                "file-time-budget=" + fileTimeBudgetMillis,
+                "linear-fallback=" + linearFallback,
+                "metrics=" + String.join(",", metrics.stream().map(MetricProvider::getName).toList()),
+                "projects=" + (projectDefinitions == null ? "" : projectDefinitions));
+    }
+
+    /**
+     * @return Command to run instead of printing the analysis, e.g. {@value QueryCommand#COMMAND}, empty if none
+     */
+    public String getCommand() {
+        return command;
+    }
+
+    /**
+     * @return Arguments of the command
+     */
+    public List<String> getCommandArguments() {
+        return commandArguments;
+    }
 }
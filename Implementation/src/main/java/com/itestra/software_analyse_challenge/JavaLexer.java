@@ -0,0 +1,240 @@
+package com.itestra.software_analyse_challenge;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Splits the lines of a Java file into tokens and passes them to the {@link TokenVisitor}s of the file,
+ * e.g. its {@link Metric}s.
+ */
+public final class JavaLexer implements LineVisitor {
+
+    /**
+     * Kind of a token.
+     */
+    public enum TokenKind {
+        IDENTIFIER, KEYWORD, LITERAL, OPERATOR, COMMENT
+    }
+
+    /**
+     * Kind of a line.
+     */
+    public enum LineKind {
+        /** Line without any token */
+        BLANK,
+        /** Line which only contains comments */
+        COMMENT,
+        /** Line with at least one token which is no comment */
+        CODE
+    }
+
+    /**
+     * Keywords and literals grouped by their first letter, so looking up an identifier allocates nothing.
+     */
+    private static final String[][] KEYWORDS = groupByFirstLetter("abstract", "assert", "boolean", "break", "byte",
+            "case", "catch", "char", "class", "const", "continue", "default", "do", "double", "else", "enum",
+            "extends", "final", "finally", "float", "for", "goto", "if", "implements", "import", "instanceof", "int",
+            "interface", "long", "native", "new", "package", "private", "protected", "public", "return", "short",
+            "static", "strictfp", "super", "switch", "synchronized", "this", "throw", "throws", "transient", "try",
+            "void", "volatile", "while", "true", "false", "null");
+
+    private static final String[] TWO_CHAR_OPERATORS = {"&&", "||", "->", "::", "==", "!=", "<=", ">=", "++", "--"};
+
+    private final List<? extends TokenVisitor> visitors;
+
+    private boolean insideBlockComment = false;
+    private boolean insideTextBlock = false;
+
+    /**
+     * @param visitors Visitors to pass the tokens and lines to, a list with random access
+     */
+    public JavaLexer(List<? extends TokenVisitor> visitors) {
+        this.visitors = visitors;
+    }
+
+    /**
+     * @param buffer Characters of the file
+     * @param start Index of the first character
+     * @param end Index after the last character
+     * @param keyword Keyword to compare with
+     * @return Whether the characters equal the keyword
+     */
+    public static boolean equals(char[] buffer, int start, int end, String keyword) {
+        if (end - start != keyword.length()) {
+            return false;
+        }
+        for (int i = 0; i < keyword.length(); ++i) {
+            if (buffer[start + i] != keyword.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void line(char[] buffer, int start, int end) {
+        boolean code = false;
+        boolean comment = false;
+        int i = start;
+        while (i < end) {
+            if (insideBlockComment) {
+                int commentEnd = blockCommentEnd(buffer, i, end);
+                insideBlockComment = commentEnd < 0;
+                int tokenEnd = insideBlockComment ? end : commentEnd;
+                token(TokenKind.COMMENT, buffer, i, tokenEnd);
+                comment = true;
+                i = tokenEnd;
+                continue;
+            }
+            if (insideTextBlock) {
+                int literalEnd = textBlockEnd(buffer, i, end);
+                insideTextBlock = literalEnd < 0;
+                int tokenEnd = insideTextBlock ? end : literalEnd;
+                token(TokenKind.LITERAL, buffer, i, tokenEnd);
+                code = true;
+                i = tokenEnd;
+                continue;
+            }
+            char c = buffer[i];
+            if (Character.isWhitespace(c)) {
+                ++i;
+            } else if (c == '/' && i + 1 < end && buffer[i + 1] == '/') {
+                token(TokenKind.COMMENT, buffer, i, end);
+                comment = true;
+                i = end;
+            } else if (c == '/' && i + 1 < end && buffer[i + 1] == '*') {
+                int commentEnd = blockCommentEnd(buffer, i + 2, end);
+                insideBlockComment = commentEnd < 0;
+                int tokenEnd = insideBlockComment ? end : commentEnd;
+                token(TokenKind.COMMENT, buffer, i, tokenEnd);
+                comment = true;
+                i = tokenEnd;
+            } else if (c == '"' && i + 2 < end && buffer[i + 1] == '"' && buffer[i + 2] == '"') {
+                int literalEnd = textBlockEnd(buffer, i + 3, end);
+                insideTextBlock = literalEnd < 0;
+                int tokenEnd = insideTextBlock ? end : literalEnd;
+                token(TokenKind.LITERAL, buffer, i, tokenEnd);
+                code = true;
+                i = tokenEnd;
+            } else {
+                int tokenEnd;
+                TokenKind kind;
+                if (c == '"' || c == '\'') {
+                    tokenEnd = literalEnd(buffer, i, end);
+                    kind = TokenKind.LITERAL;
+                } else if (Character.isDigit(c) || c == '.' && i + 1 < end && Character.isDigit(buffer[i + 1])) {
+                    tokenEnd = i + 1;
+                    while (tokenEnd < end && (Character.isLetterOrDigit(buffer[tokenEnd])
+                            || buffer[tokenEnd] == '_' || buffer[tokenEnd] == '.')) {
+                        ++tokenEnd;
+                    }
+                    kind = TokenKind.LITERAL;
+                } else if (Character.isJavaIdentifierStart(c)) {
+                    tokenEnd = i + 1;
+                    while (tokenEnd < end && Character.isJavaIdentifierPart(buffer[tokenEnd])) {
+                        ++tokenEnd;
+                    }
+                    kind = isKeyword(buffer, i, tokenEnd) ? TokenKind.KEYWORD : TokenKind.IDENTIFIER;
+                } else {
+                    tokenEnd = i + operatorLength(buffer, i, end);
+                    kind = TokenKind.OPERATOR;
+                }
+                token(kind, buffer, i, tokenEnd);
+                code = true;
+                i = tokenEnd;
+            }
+        }
+        LineKind kind = code ? LineKind.CODE : comment ? LineKind.COMMENT : LineKind.BLANK;
+        // Indexed loops, so no iterator is allocated per line or token
+        for (int v = 0; v < visitors.size(); ++v) {
+            visitors.get(v).line(kind, buffer, start, end);
+        }
+    }
+
+    private void token(TokenKind kind, char[] buffer, int start, int end) {
+        for (int i = 0; i < visitors.size(); ++i) {
+            visitors.get(i).token(kind, buffer, start, end);
+        }
+    }
+
+    private static boolean isKeyword(char[] buffer, int start, int end) {
+        // All keywords are lower case ASCII words
+        char first = buffer[start];
+        if (first < 'a' || first > 'z') {
+            return false;
+        }
+        for (String keyword : KEYWORDS[first - 'a']) {
+            if (equals(buffer, start, end, keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String[][] groupByFirstLetter(String... keywords) {
+        String[][] groups = new String[26][];
+        for (char letter = 'a'; letter <= 'z'; ++letter) {
+            char first = letter;
+            groups[letter - 'a'] = Arrays.stream(keywords).filter(k -> k.charAt(0) == first).toArray(String[]::new);
+        }
+        return groups;
+    }
+
+    private static int operatorLength(char[] buffer, int start, int end) {
+        if (start + 1 < end) {
+            for (String operator : TWO_CHAR_OPERATORS) {
+                if (buffer[start] == operator.charAt(0) && buffer[start + 1] == operator.charAt(1)) {
+                    return 2;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * @return Index after the closing quote of the string or character literal, or {@code end} if it is not closed
+     */
+    private static int literalEnd(char[] buffer, int start, int end) {
+        char quote = buffer[start];
+        int i = start + 1;
+        while (i < end) {
+            if (buffer[i] == '\\') {
+                i += 2;
+            } else if (buffer[i] == quote) {
+                return i + 1;
+            } else {
+                ++i;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * @return Index after the closing {@code *}{@code /}, {@code -1} if the comment does not end in this line
+     */
+    private static int blockCommentEnd(char[] buffer, int start, int end) {
+        for (int i = start; i + 1 < end; ++i) {
+            if (buffer[i] == '*' && buffer[i + 1] == '/') {
+                return i + 2;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return Index after the closing {@code """}, {@code -1} if the text block does not end in this line
+     */
+    private static int textBlockEnd(char[] buffer, int start, int end) {
+        int i = start;
+        while (i + 2 < end) {
+            if (buffer[i] == '\\') {
+                i += 2;
+            } else if (buffer[i] == '"' && buffer[i + 1] == '"' && buffer[i + 2] == '"') {
+                return i + 3;
+            } else {
+                ++i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,285 @@
+package com.itestra.software_analyse_challenge;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Append-only journal of the {@link FileFacts} of the files analysed so far, so an interrupted analysis of a large
+ * tree can be resumed instead of starting from zero.
+ * <p>
+ * The journal is a text file with a header line, a line with the input directory and the settings of the analysis
+ * ({@link Input#getAnalysisSettings()}), and one tab separated line per analysed file: relative path, size, last
+ * modification time, source lines, source lines without getters and block comments ({@code -1} if not counted),
+ * imports, static imports, references, metrics ({@code name=value}), fingerprint (content hash, length and signature
+ * as unsigned numbers) and slow file (size, milliseconds and {@code 1} if counted by the linear fallback), lists
+ * separated by {@code ,} and values escaped by {@link TextColumns}.
+ * <p>
+ * Lines are appended in batches and forced to the disk every {@value #SYNC_ENTRIES} files or
+ * {@value #SYNC_MILLIS} ms, so the journal costs one {@code fsync} per batch, not per file. A full batch is swapped
+ * for an empty one under the lock of the journal and written and forced under a separate lock, so the threads
+ * recording files do not wait for the {@code fsync}; batches may reach the disk out of order, which does not matter
+ * as every line stands alone. A run which is killed loses at most the batches being written; a partially written
+ * last line is cut off when the journal is resumed. On resume,
+ * the facts of every file whose size and modification time are unchanged are taken from the journal, and the
+ * dependency graph is built from them like from freshly read facts. Resolved references depend on the other files of
+ * the tree, not only on the file itself, so an analysis with {@code --symbol-references} cannot be resumed.
+ */
+public final class Journal implements Closeable {
+
+    private static final String HEADER = "# software analyse journal 2";
+    private static final int SYNC_ENTRIES = 1024;
+    private static final long SYNC_MILLIS = 1000;
+    private static final int COLUMNS = 11;
+
+    /**
+     * @param size Size of the file when its facts were recorded
+     * @param lastModified Last modification time of the file when its facts were recorded
+     * @param facts Facts of the file
+     */
+    private record Entry(long size, long lastModified, FileFacts facts) {
+    }
+
+    private final File file;
+    private final File inputDirectory;
+    private final Map<String, Entry> entries;
+    private final FileChannel channel;
+    /**
+     * Held while writing to and forcing the channel, never together with the lock of the journal.
+     */
+    private final Object writeLock = new Object();
+    private StringBuilder pending = new StringBuilder();
+    private int pendingEntries;
+    private long lastSync = System.currentTimeMillis();
+
+    private Journal(File file, File inputDirectory, Map<String, Entry> entries, FileChannel channel) {
+        this.file = file;
+        this.inputDirectory = inputDirectory;
+        this.entries = entries;
+        this.channel = channel;
+    }
+
+    /**
+     * @param file Journal file, created if necessary
+     * @param inputDirectory Directory of the analysed files
+     * @param input Settings of the analysis, a journal of other settings is not resumed
+     * @param resume Whether the facts of the journal are reused and new ones appended, otherwise the journal is
+     *               started over
+     * @return The open journal
+     * @throws IOException If the journal cannot be read or written
+     */
+    public static Journal open(File file, File inputDirectory, Input input, boolean resume) throws IOException {
+        String settings = settings(inputDirectory, input);
+        Map<String, Entry> entries = new HashMap<>();
+        long validLength = 0;
+        if (resume && file.isFile()) {
+            try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+                if (HEADER.equals(readLine(in)) && settings.equals(readLine(in))) {
+                    validLength = utf8Length(HEADER) + 1 + utf8Length(settings) + 1;
+                    String line;
+                    while ((line = readLine(in)) != null && parse(line, entries)) {
+                        validLength += utf8Length(line) + 1;
+                    }
+                }
+            }
+        }
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        Journal journal = new Journal(file, inputDirectory, entries, channel);
+        try {
+            if (validLength == 0) {
+                entries.clear();
+                channel.truncate(0);
+                journal.append(HEADER + "\n" + settings + "\n");
+                journal.sync();
+            } else {
+                // Without the line a killed run left incomplete
+                channel.truncate(validLength);
+                channel.position(validLength);
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return journal;
+    }
+
+    /**
+     * @param file File of the input directory
+     * @return Facts of the file from the journal, {@code null} if it is not journaled or changed since
+     */
+    public FileFacts get(File file) {
+        Entry entry = entries.get(relativePath(file));
+        return entry != null && entry.size() == file.length() && entry.lastModified() == file.lastModified()
+                ? entry.facts() : null;
+    }
+
+    /**
+     * @return Number of files with facts in the journal when it was opened
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Appends the facts of a file, forcing the batch to the disk if it is full or old enough.
+     *
+     * @param file Analysed file
+     * @param facts Facts of the file
+     */
+    public void record(File file, FileFacts facts) {
+        List<String> metrics = new ArrayList<>(facts.getMetrics().size());
+        facts.getMetrics().forEach((name, value) -> metrics.add(name + "=" + value));
+        String line = String.join("\t", TextColumns.escape(relativePath(file)), String.valueOf(file.length()),
+                String.valueOf(file.lastModified()), String.valueOf(facts.getLineNumber()),
+                String.valueOf(facts.getLineNumberBonus()), TextColumns.join(facts.getImports()),
+                TextColumns.join(facts.getStaticImports()), TextColumns.join(facts.getReferences()),
+                TextColumns.join(metrics), fingerprint(facts.getFingerprint()), slowFile(facts)) + "\n";
+        StringBuilder batch = null;
+        synchronized (this) {
+            pending.append(line);
+            long now = System.currentTimeMillis();
+            if (++pendingEntries >= SYNC_ENTRIES || now - lastSync >= SYNC_MILLIS) {
+                batch = takePending();
+                lastSync = now;
+            }
+        }
+        if (batch != null) {
+            try {
+                write(batch);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write the journal " + file, e);
+            }
+        }
+    }
+
+    /**
+     * Forces the last batch to the disk and closes the journal.
+     */
+    @Override
+    public void close() throws IOException {
+        StringBuilder batch;
+        synchronized (this) {
+            batch = takePending();
+        }
+        try {
+            write(batch);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * @return The pending batch, replaced by an empty one; called with the lock of the journal held
+     */
+    private StringBuilder takePending() {
+        StringBuilder batch = pending;
+        pending = new StringBuilder(batch.capacity());
+        pendingEntries = 0;
+        return batch;
+    }
+
+    private void write(StringBuilder batch) throws IOException {
+        synchronized (writeLock) {
+            append(batch.toString());
+            sync();
+        }
+    }
+
+    private void append(String text) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    private void sync() throws IOException {
+        channel.force(false);
+    }
+
+    private String relativePath(File file) {
+        return inputDirectory.toPath().relativize(file.toPath()).toString();
+    }
+
+    /**
+     * Input directory and settings which change the facts of the files, a journal with others cannot be resumed.
+     */
+    private static String settings(File inputDirectory, Input input) {
+        return TextColumns.escape(inputDirectory.getAbsolutePath()) + "\t"
+                + String.join("\t", input.getAnalysisSettings().stream().map(TextColumns::escape).toList());
+    }
+
+    /**
+     * @return Whether the line was complete
+     */
+    private static boolean parse(String line, Map<String, Entry> entries) {
+        String[] columns = line.split("\t", -1);
+        if (columns.length != COLUMNS) {
+            return false;
+        }
+        try {
+            FileFacts facts = new FileFacts(TextColumns.split(columns[5]), TextColumns.split(columns[6]))
+                    .references(TextColumns.split(columns[7]));
+            int lineNumber = Integer.parseInt(columns[3]);
+            if (lineNumber != -1) {
+                facts.lineNumbers(lineNumber, Integer.parseInt(columns[4]));
+            }
+            for (String metric : TextColumns.split(columns[8])) {
+                int separator = metric.lastIndexOf('=');
+                facts.metric(metric.substring(0, separator), Integer.parseInt(metric.substring(separator + 1)));
+            }
+            if (!columns[9].isEmpty()) {
+                long[] values = Arrays.stream(columns[9].split(",")).mapToLong(Long::parseUnsignedLong).toArray();
+                facts.fingerprint(new DuplicateCollector.Fingerprint(values[0], values[1],
+                        values.length > 2 ? Arrays.copyOfRange(values, 2, values.length) : null));
+            }
+            if (!columns[10].isEmpty()) {
+                String[] slow = columns[10].split(",");
+                facts.slowFile(Long.parseLong(slow[0]), Long.parseLong(slow[1]), slow[2].equals("1"));
+            }
+            entries.put(TextColumns.unescape(columns[0]),
+                    new Entry(Long.parseLong(columns[1]), Long.parseLong(columns[2]), facts));
+            return true;
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            return false;
+        }
+    }
+
+    private static String fingerprint(DuplicateCollector.Fingerprint fingerprint) {
+        if (fingerprint == null) {
+            return "";
+        }
+        StringJoiner values = new StringJoiner(",");
+        values.add(Long.toUnsignedString(fingerprint.contentHash())).add(Long.toUnsignedString(fingerprint.length()));
+        if (fingerprint.signature() != null) {
+            Arrays.stream(fingerprint.signature()).forEach(value -> values.add(Long.toUnsignedString(value)));
+        }
+        return values.toString();
+    }
+
+    private static String slowFile(FileFacts facts) {
+        return facts.isSlowFile() ? facts.getSizeBytes() + "," + facts.getElapsedMillis() + ","
+                + (facts.isLinearFallback() ? "1" : "0") : "";
+    }
+
+    /**
+     * @return Next line terminated by {@code \n}, {@code null} at the end of the journal or if the line is incomplete
+     */
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) {
+                return null;
+            }
+            line.write(b);
+        }
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    private static int utf8Length(String line) {
+        return line.getBytes(StandardCharsets.UTF_8).length;
+    }
+}
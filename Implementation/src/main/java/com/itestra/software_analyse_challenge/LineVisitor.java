@@ -0,0 +1,23 @@
+package com.itestra.software_analyse_challenge;
+
+/**
+ * Visitor of the lines of a file. All visitors of a file share a single read of it, see {@link FileScanner}.
+ */
+public interface LineVisitor {
+
+    /**
+     * Processes the next line of the file.
+     *
+     * @param buffer Characters of the file
+     * @param start Index of the first character of the line
+     * @param end Index after the last character of the line (excluding the line terminator)
+     */
+    void line(char[] buffer, int start, int end);
+
+    /**
+     * @return Whether the visitor does not need any further lines, the scan stops when all visitors are done
+     */
+    default boolean isDone() {
+        return false;
+    }
+}
@@ -0,0 +1,264 @@
+package com.itestra.software_analyse_challenge;
+
+/**
+ * Counts the source lines of a file (task 1) or the source lines without getters and block comments (task 3).
+ * <p>
+ * No regular expressions are used: Every line is inspected with a constant number of linear scans, so the runtime
+ * is linear in the file size, even for huge single line files.
+ */
+public final class LinearSlocCounter implements LineVisitor {
+
+    /**
+     * Number of states between two lines, see {@link #getState()}.
+     */
+    public static final int STATES = 9;
+
+    /**
+     * State at the beginning of a file.
+     */
+    public static final int INITIAL_STATE = 0;
+
+    private final boolean enhanced;
+
+    private int lineNumber = 0;
+    private boolean insideMultilineString = false;
+    private boolean insideBlockComment = false;
+    private int expectedGetterLine = 0;
+
+    /**
+     * @param enhanced If True, further excluding of lines for the task 3 otherwise counting of task 1.
+     */
+    public LinearSlocCounter(boolean enhanced) {
+        this(enhanced, INITIAL_STATE);
+    }
+
+    /**
+     * @param enhanced If True, further excluding of lines for the task 3 otherwise counting of task 1.
+     * @param state State to start in, see {@link #getState()}
+     */
+    public LinearSlocCounter(boolean enhanced, int state) {
+        this.enhanced = enhanced;
+        this.insideMultilineString = state / 3 == 2;
+        this.insideBlockComment = state / 3 == 1;
+        this.expectedGetterLine = state % 3;
+    }
+
+    /**
+     * @param state State between two lines, see {@link #getState()}
+     * @param enhanced Whether the state belongs to an enhanced counter
+     * @return Whether the state can occur at all, block comments are only tracked by enhanced counters
+     */
+    public static boolean isReachable(int state, boolean enhanced) {
+        return enhanced || state / 3 != 1;
+    }
+
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * The state between two lines consists of the kind of the code (source code, block comment or
+     * multiline string) and the progress of the getter detection.
+     *
+     * @return State in {@code [0, STATES)}
+     */
+    public int getState() {
+        return (insideMultilineString ? 2 : insideBlockComment ? 1 : 0) * 3 + expectedGetterLine;
+    }
+
+    /**
+     * @param buffer Characters of the file
+     * @param start Index to start searching
+     * @param end Index to stop searching
+     * @return Index after the last line terminator in {@code [start, end)}, {@code -1} if there is none
+     */
+    public static int lineStartAfter(char[] buffer, int start, int end) {
+        for (int i = end - 1; i >= start; --i) {
+            if (buffer[i] == '\n' || buffer[i] == '\r') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Processes all lines of a text. The last line ends at {@code end}, even if it has no line terminator.
+     *
+     * @param buffer Characters of the file
+     * @param start Index of the first character of the first line
+     * @param end Index after the last character of the text
+     */
+    public void lines(char[] buffer, int start, int end) {
+        int lineStart = start;
+        for (int i = start; i < end; ++i) {
+            char c = buffer[i];
+            // Empty lines are skipped, so \r\n can be treated as two line terminators
+            if (c == '\n' || c == '\r') {
+                line(buffer, lineStart, i);
+                lineStart = i + 1;
+            }
+        }
+        line(buffer, lineStart, end);
+    }
+
+    /**
+     * Processes the next line of the file.
+     *
+     * @param buffer Characters of the file
+     * @param start Index of the first character of the line
+     * @param end Index after the last character of the line (excluding the line terminator)
+     */
+    @Override
+    public void line(char[] buffer, int start, int end) {
+        // trim
+        while (start < end && buffer[start] <= ' ') {
+            ++start;
+        }
+        while (end > start && buffer[end - 1] <= ' ') {
+            --end;
+        }
+        if (start == end) {
+            return;
+        }
+        boolean multilineStringFirstLine = false;
+        int blockCommentStart = -1;
+        if (!insideMultilineString && !insideBlockComment) {
+            // Check for multiline string first, as it consider not to be in a block comment
+            if (startsMultilineString(buffer, start, end)) {
+                insideMultilineString = true;
+                multilineStringFirstLine = true;
+            } else if (enhanced) {
+                blockCommentStart = blockCommentStart(buffer, start, end);
+                if (blockCommentStart >= 0) {
+                    insideBlockComment = true;
+                    if (blockCommentStart != start) {
+                        // block comment starts after a source code line --> count this line
+                        ++lineNumber;
+                    }
+                }
+            }
+        }
+        if (!insideBlockComment) {
+            // "lines containing comments" --> Line which is only a comment
+            if (!(startsWith(buffer, start, end, "//") && !insideMultilineString)) {
+                ++lineNumber;
+            }
+            if (!insideMultilineString) {
+                if (isGetterLine(expectedGetterLine, buffer, start, end)) {
+                    ++expectedGetterLine;
+                    if (expectedGetterLine == 3) {
+                        // getter method was found --> 3 lines were counted too much
+                        lineNumber -= 3;
+                        expectedGetterLine = 0;
+                    }
+                } else {
+                    expectedGetterLine = 0;
+                }
+            }
+        }
+        if (insideMultilineString && !multilineStringFirstLine && indexOf(buffer, start, end, "\"\"\"") >= 0) {
+            insideMultilineString = false;
+        }
+        if (insideBlockComment) {
+            int blockCommentEnd = lastIndexOf(buffer, start, end, "*/");
+            // Mirrors the regular expression: A block comment does not end if its end directly follows its start
+            if (blockCommentEnd >= 0 && !(blockCommentStart >= 0 && blockCommentStart + 2 == blockCommentEnd)) {
+                insideBlockComment = false;
+                if (blockCommentEnd + 2 == end - 1) {
+                    // block comment before source code line --> count this line
+                    ++lineNumber;
+                }
+            }
+        }
+    }
+
+    /**
+     * A multiline string starts, if {@code """} occurs before any line comment (or block comment if enhanced).
+     */
+    private boolean startsMultilineString(char[] buffer, int start, int end) {
+        for (int i = start; i < end; ++i) {
+            char c = buffer[i];
+            if (c == '"' && i + 2 < end && buffer[i + 1] == '"' && buffer[i + 2] == '"') {
+                return true;
+            }
+            if (c == '/' && i + 1 < end && (buffer[i + 1] == '/' || enhanced && buffer[i + 1] == '*')) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Index of the last {@code /*} which neither follows a {@code /} nor a line comment, {@code -1} if none
+     */
+    private static int blockCommentStart(char[] buffer, int start, int end) {
+        int lineComment = indexOf(buffer, start, end, "//");
+        int limit = lineComment < 0 ? end : lineComment;
+        for (int i = limit - 2; i >= start; --i) {
+            if (buffer[i] == '/' && buffer[i + 1] == '*' && (i == start || buffer[i - 1] != '/')) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Linear equivalent of the getter patterns {@code ^public .* get.*\(\) *\{$}, {@code ^return *(this\.)?.*;$}
+     * and <code>^}$</code>.
+     */
+    private static boolean isGetterLine(int getterLine, char[] buffer, int start, int end) {
+        switch (getterLine) {
+            case 0 -> {
+                if (!startsWith(buffer, start, end, "public ") || buffer[end - 1] != '{') {
+                    return false;
+                }
+                int parenthesis = end - 1;
+                while (parenthesis > start && buffer[parenthesis - 1] == ' ') {
+                    --parenthesis;
+                }
+                parenthesis -= 2;
+                if (parenthesis < start + 7 || buffer[parenthesis] != '(' || buffer[parenthesis + 1] != ')') {
+                    return false;
+                }
+                int get = indexOf(buffer, start + 7, end, " get");
+                return get >= 0 && get + 4 <= parenthesis;
+            }
+            case 1 -> {
+                return end - start >= 7 && startsWith(buffer, start, end, "return") && buffer[end - 1] == ';';
+            }
+            default -> {
+                return end - start == 1 && buffer[start] == '}';
+            }
+        }
+    }
+
+    private static boolean startsWith(char[] buffer, int start, int end, String prefix) {
+        if (end - start < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); ++i) {
+            if (buffer[start + i] != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(char[] buffer, int start, int end, String needle) {
+        for (int i = start; i <= end - needle.length(); ++i) {
+            if (startsWith(buffer, i, end, needle)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(char[] buffer, int start, int end, String needle) {
+        for (int i = end - needle.length(); i >= start; --i) {
+            if (startsWith(buffer, i, end, needle)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
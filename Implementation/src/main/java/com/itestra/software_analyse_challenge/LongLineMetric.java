@@ -0,0 +1,25 @@
+package com.itestra.software_analyse_challenge;
+
+/**
+ * Counts the lines which are longer than {@value #MAX_LINE_LENGTH} characters.
+ */
+public final class LongLineMetric implements Metric {
+
+    public static final String NAME = "long-lines";
+
+    public static final int MAX_LINE_LENGTH = 120;
+
+    private int longLines = 0;
+
+    @Override
+    public void line(JavaLexer.LineKind kind, char[] buffer, int start, int end) {
+        if (end - start > MAX_LINE_LENGTH) {
+            ++longLines;
+        }
+    }
+
+    @Override
+    public int getValue() {
+        return longLines;
+    }
+}
@@ -0,0 +1,67 @@
+package com.itestra.software_analyse_challenge;
+
+/**
+ * Approximates the number of method and constructor declarations: An identifier which follows a type or a
+ * modifier, followed by a parameter list and a method body (or {@code ;} for abstract methods).
+ */
+public final class MethodCountMetric implements Metric {
+
+    public static final String NAME = "methods";
+
+    private static final String[] TYPES_AND_MODIFIERS = {"void", "boolean", "byte", "char", "short", "int", "long",
+            "float", "double", "public", "protected", "private", "static", "final", "abstract", "synchronized",
+            "native", "default", "strictfp"};
+
+    private int methods = 0;
+    private boolean previousIsType = false;
+    private boolean candidate = false;
+    private int parenthesisDepth = 0;
+    private boolean awaitingBody = false;
+
+    @Override
+    public void token(JavaLexer.TokenKind kind, char[] buffer, int start, int end) {
+        if (kind == JavaLexer.TokenKind.COMMENT) {
+            return;
+        }
+        boolean operator = kind == JavaLexer.TokenKind.OPERATOR;
+        if (awaitingBody) {
+            if (operator && (buffer[start] == '{' || buffer[start] == ';')) {
+                ++methods;
+                awaitingBody = false;
+            } else if (!(kind == JavaLexer.TokenKind.IDENTIFIER || JavaLexer.equals(buffer, start, end, "throws")
+                    || operator && (buffer[start] == '.' || buffer[start] == ','))) {
+                // Neither body nor throws clause
+                awaitingBody = false;
+            }
+        } else if (parenthesisDepth > 0) {
+            if (operator && buffer[start] == '(') {
+                ++parenthesisDepth;
+            } else if (operator && buffer[start] == ')' && --parenthesisDepth == 0) {
+                awaitingBody = true;
+            }
+        } else if (candidate && operator && buffer[start] == '(') {
+            parenthesisDepth = 1;
+        }
+        candidate = kind == JavaLexer.TokenKind.IDENTIFIER && previousIsType;
+        previousIsType = switch (kind) {
+            case IDENTIFIER -> !JavaLexer.equals(buffer, start, end, "record");
+            case KEYWORD -> isTypeOrModifier(buffer, start, end);
+            case OPERATOR -> buffer[start] == '>' || buffer[start] == ']';
+            default -> false;
+        };
+    }
+
+    private static boolean isTypeOrModifier(char[] buffer, int start, int end) {
+        for (String keyword : TYPES_AND_MODIFIERS) {
+            if (JavaLexer.equals(buffer, start, end, keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int getValue() {
+        return methods;
+    }
+}
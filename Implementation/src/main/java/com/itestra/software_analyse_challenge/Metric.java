@@ -0,0 +1,15 @@
+package com.itestra.software_analyse_challenge;
+
+/**
+ * Metric of a single file, computed from the events of the {@link JavaLexer}.
+ * <p>
+ * A new instance is created for every file by its {@link MetricProvider}. All metrics of a file
+ * share a single read and lex of the file.
+ */
+public interface Metric extends TokenVisitor {
+
+    /**
+     * @return Value of the metric after all lines were visited
+     */
+    int getValue();
+}
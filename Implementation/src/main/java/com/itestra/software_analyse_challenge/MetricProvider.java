@@ -0,0 +1,18 @@
+package com.itestra.software_analyse_challenge;
+
+/**
+ * Service provider of a {@link Metric}. Besides the built-in metrics of {@link Metrics}, further metrics are
+ * loaded with {@link java.util.ServiceLoader} from {@code META-INF/services}.
+ */
+public interface MetricProvider {
+
+    /**
+     * @return Unique name of the metric, used on the command line and as column of the output
+     */
+    String getName();
+
+    /**
+     * @return New instance of the metric for a single file
+     */
+    Metric create();
+}
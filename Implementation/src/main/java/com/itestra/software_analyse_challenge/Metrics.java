@@ -0,0 +1,74 @@
+package com.itestra.software_analyse_challenge;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Registry of all available {@link Metric}s: the built-in ones and those provided by {@link MetricProvider}
+ * services on the class path.
+ */
+public final class Metrics {
+
+    /**
+     * Selects all available metrics on the command line.
+     */
+    public static final String ALL = "all";
+
+    private Metrics() {
+    }
+
+    /**
+     * Loads the providers on first use only, so runs without metrics do not scan the class path for services.
+     */
+    private static final class Providers {
+        private static final Map<String, MetricProvider> PROVIDERS = loadProviders();
+    }
+
+    private static Map<String, MetricProvider> loadProviders() {
+        Map<String, MetricProvider> providers = new LinkedHashMap<>();
+        builtIn(providers, MethodCountMetric.NAME, MethodCountMetric::new);
+        builtIn(providers, CyclomaticComplexityMetric.NAME, CyclomaticComplexityMetric::new);
+        builtIn(providers, TodoMetric.NAME, TodoMetric::new);
+        builtIn(providers, LongLineMetric.NAME, LongLineMetric::new);
+        ServiceLoader.load(MetricProvider.class).forEach(provider -> providers.put(provider.getName(), provider));
+        return providers;
+    }
+
+    private static void builtIn(Map<String, MetricProvider> providers, String name, Supplier<Metric> factory) {
+        providers.put(name, new MetricProvider() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public Metric create() {
+                return factory.get();
+            }
+        });
+    }
+
+    /**
+     * @param names Names of the metrics or {@value #ALL}
+     * @return Providers of the metrics in the given order
+     * @throws IllegalArgumentException If a metric is unknown
+     */
+    public static List<MetricProvider> resolve(List<String> names) {
+        if (names.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<String, MetricProvider> providers = Providers.PROVIDERS;
+        if (names.contains(ALL)) {
+            return List.copyOf(providers.values());
+        }
+        List<MetricProvider> resolved = new ArrayList<>(names.size());
+        for (String name : names) {
+            MetricProvider provider = providers.get(name);
+            if (provider == null) {
+                throw new IllegalArgumentException(name + " is not a metric, available: " + providers.keySet());
+            }
+            resolved.add(provider);
+        }
+        return resolved;
+    }
+}
@@ -1,20 +1,42 @@
 package com.itestra.software_analyse_challenge;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class Output {
 
+    private final boolean hasLineNumber;
     private final int lineNumber;
     private boolean hasLineNumberBonus = false;
     private int lineNumberBonus;
 
     private final List<String> dependencies;
 
+    private final Map<String, Integer> metrics = new LinkedHashMap<>();
+
+    private boolean slowFile = false;
+    private long sizeBytes;
+    private long elapsedMillis;
+    private boolean linearFallback;
+
     public Output(final int lineNumber, final List<String> dependencies) {
+        this.hasLineNumber = true;
         this.lineNumber = lineNumber;
         this.dependencies = dependencies;
     }
 
+    /**
+     * Output of a file whose source lines were not counted.
+     *
+     * @param dependencies Dependencies of the file
+     */
+    public Output(final List<String> dependencies) {
+        this.hasLineNumber = false;
+        this.lineNumber = 0;
+        this.dependencies = dependencies;
+    }
+
     @SuppressWarnings("unused")
     public Output lineNumberBonus(final int lineNumberBonus) {
         this.lineNumberBonus = lineNumberBonus;
@@ -22,8 +44,34 @@ public class Output {
         return this;
     }
 
+    /**
+     * @param name Name of the {@link Metric}
+     * @param value Value of the metric for the file
+     * @return this
+     */
+    public Output metric(final String name, final int value) {
+        this.metrics.put(name, value);
+        return this;
+    }
+
+    /**
+     * Marks the file as slow file, i.e., its analysis exceeded the time budget.
+     *
+     * @param sizeBytes Size of the file
+     * @param elapsedMillis Time spent until the analysis was interrupted
+     * @param linearFallback Whether the line numbers were counted by the linear fallback counter
+     * @return this
+     */
+    public Output slowFile(final long sizeBytes, final long elapsedMillis, final boolean linearFallback) {
+        this.slowFile = true;
+        this.sizeBytes = sizeBytes;
+        this.elapsedMillis = elapsedMillis;
+        this.linearFallback = linearFallback;
+        return this;
+    }
+
     public String getLineNumber() {
-        return String.valueOf(lineNumber);
+        return this.hasLineNumber ? String.valueOf(lineNumber) : "N/A";
     }
 
     public String getLineNumberBonus() {
@@ -33,4 +81,29 @@ public class Output {
     public String getDependencies() {
         return String.valueOf(dependencies);
     }
+
+    /**
+     * @param name Name of the {@link Metric}
+     * @return Value of the metric or N/A if the metric was not computed
+     */
+    public String getMetric(final String name) {
+        Integer value = metrics.get(name);
+        return value != null ? String.valueOf(value) : "N/A";
+    }
+
+    public boolean isSlowFile() {
+        return slowFile;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public boolean isLinearFallback() {
+        return linearFallback;
+    }
 }
@@ -1,16 +1,21 @@
 package com.itestra.software_analyse_challenge;
 
+import java.util.List;
+
 public class OutputLine {
     private final String fileName;
     private final String lineNumber;
     private final String lineNumberWithoutGetterSetter;
     private final String dependencies;
+    private final List<String> metrics;
 
-    public OutputLine(String fileName, String lineNumber, String lineNumberWithoutGetterSetter, String dependencies) {
+    public OutputLine(String fileName, String lineNumber, String lineNumberWithoutGetterSetter, String dependencies,
+            List<String> metrics) {
         this.fileName = fileName;
         this.lineNumber = lineNumber;
         this.lineNumberWithoutGetterSetter = lineNumberWithoutGetterSetter;
         this.dependencies = dependencies;
+        this.metrics = metrics;
     }
 
     public String getFileName() {
@@ -28,4 +33,8 @@ public class OutputLine {
     public String getDependencies() {
         return dependencies;
     }
+
+    public List<String> getMetrics() {
+        return metrics;
+    }
 }
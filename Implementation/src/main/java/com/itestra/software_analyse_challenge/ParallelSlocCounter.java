@@ -0,0 +1,100 @@
+package com.itestra.software_analyse_challenge;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Counts the source lines of very large files with multiple threads.
+ * <p>
+ * The text is split into chunks at line boundaries. As the state at the beginning of a chunk is only known after
+ * the previous chunks have been processed, every chunk is lexed speculatively from every reachable
+ * {@link LinearSlocCounter#getState() state}. Composing the resulting state transitions from the first to the last
+ * chunk gives exactly the line numbers of a sequential pass.
+ */
+public final class ParallelSlocCounter {
+
+    /**
+     * Chunks smaller than this are not worth to be lexed by an own task.
+     */
+    private static final int MIN_CHUNK_SIZE = 1 << 20;
+
+    private ParallelSlocCounter() {
+    }
+
+    /**
+     * Counts the source lines of a file.
+     *
+     * @param text Characters of the file
+     * @param deadline Time budget of the file
+     * @return Line number of task 1 at index 0 and line number of task 3 at index 1
+     */
+    public static int[] count(FileScanner.Text text, Deadline deadline) {
+        int[] boundaries = chunkBoundaries(text.chars(), text.length(), ForkJoinPool.getCommonPoolParallelism() * 4);
+        return new int[] {count(text.chars(), boundaries, false, deadline),
+                count(text.chars(), boundaries, true, deadline)};
+    }
+
+    /**
+     * @param text Characters of the file
+     * @param boundaries Start index of every chunk followed by the end of the text
+     * @param enhanced If True, further excluding of lines for the task 3 otherwise counting of task 1.
+     * @param deadline Time budget of the file
+     * @return Line number of the text
+     */
+    static int count(char[] text, int[] boundaries, boolean enhanced, Deadline deadline) {
+        int chunks = boundaries.length - 1;
+        // transitions[chunk][state] = {end state, line number} when the chunk is lexed starting in state
+        int[][][] transitions = IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> {
+                    int[][] transition = new int[LinearSlocCounter.STATES][];
+                    for (int state = 0; state < LinearSlocCounter.STATES; ++state) {
+                        // The first chunk always starts at the beginning of the file
+                        boolean possible = chunk == 0 ? state == LinearSlocCounter.INITIAL_STATE
+                                : LinearSlocCounter.isReachable(state, enhanced);
+                        if (possible) {
+                            deadline.check();
+                            LinearSlocCounter counter = new LinearSlocCounter(enhanced, state);
+                            counter.lines(text, boundaries[chunk], boundaries[chunk + 1]);
+                            transition[state] = new int[] {counter.getState(), counter.getLineNumber()};
+                        }
+                    }
+                    return transition;
+                })
+                .toArray(int[][][]::new);
+        int state = LinearSlocCounter.INITIAL_STATE;
+        int lineNumber = 0;
+        for (int[][] transition : transitions) {
+            lineNumber += transition[state][1];
+            state = transition[state][0];
+        }
+        return lineNumber;
+    }
+
+    /**
+     * Splits a text into chunks which start at the beginning of a line.
+     *
+     * @param text Characters of the file
+     * @param length Number of characters in {@code text}
+     * @param maxChunks Upper bound of the number of chunks
+     * @return Start index of every chunk followed by {@code length}
+     */
+    static int[] chunkBoundaries(char[] text, int length, int maxChunks) {
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, length / Math.max(1, maxChunks));
+        int[] boundaries = new int[length / chunkSize + 2];
+        int chunks = 0;
+        int start = 0;
+        while (start < length) {
+            boundaries[chunks++] = start;
+            int end = Math.min(length, start + chunkSize);
+            // Move the end behind the next line terminator, so no line is split
+            while (end < length && text[end - 1] != '\n' && text[end - 1] != '\r') {
+                ++end;
+            }
+            start = end;
+        }
+        boundaries[chunks] = length;
+        int[] result = new int[chunks + 1];
+        System.arraycopy(boundaries, 0, result, 0, chunks + 1);
+        return result;
+    }
+}
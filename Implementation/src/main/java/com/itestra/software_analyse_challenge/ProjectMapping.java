@@ -0,0 +1,266 @@
+package com.itestra.software_analyse_challenge;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Assigns the files of the input directory and imported names to projects.
+ * <p>
+ * Projects are defined by package prefixes ({@code core=com.company.core}) or by source roots
+ * ({@code core=modules/core/src/main/java}, a segment {@code *} matches any directory). Both kinds are compiled into
+ * prefix tries over the segments of the names, so classifying a file or an import takes one lookup per segment.
+ * The packages declared below a source root are added to the package trie, so imports of them are classified too.
+ * <p>
+ * Without definitions, the directories directly in the input directory are the projects and root packages.
+ */
+public final class ProjectMapping {
+
+    /**
+     * Definition which discovers the modules of {@code pom.xml} and {@code settings.gradle} files.
+     */
+    public static final String AUTO = "auto";
+
+    private static final String[] SOURCE_ROOTS = {"src/main/java", "src/test/java"};
+    private static final Pattern MAVEN_MODULE = Pattern.compile("<module>\\s*([^<]+?)\\s*</module>");
+    private static final Pattern GRADLE_INCLUDE = Pattern.compile("^\\s*include\\b(.*)$", Pattern.MULTILINE);
+    private static final Pattern QUOTED = Pattern.compile("[\"']([^\"']+)[\"']");
+
+    private final List<String> projects = new ArrayList<>();
+    private final Node packages = new Node();
+    private final Node sourceRoots = new Node();
+    /**
+     * Project of every file, indexed like the files, {@code -1} if it is in no project.
+     */
+    private final int[] fileProjects;
+    private final String[] packageNames;
+
+    /**
+     * Node of a trie, the children are keyed by the next segment.
+     */
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private int project = -1;
+
+        private Node child(String segment) {
+            return children.computeIfAbsent(segment, s -> new Node());
+        }
+    }
+
+    /**
+     * @param definitions Comma separated definitions {@code name=prefix} (a prefix without name is its own name),
+     *                    {@link #AUTO}, a file with one definition per line prefixed with {@code @}, or {@code null}
+     *                    for the directories directly in the input directory
+     * @param inputDirectory Directory the files were found in
+     * @param files All files of the input directory
+     * @throws IllegalArgumentException If a definition is malformed or the file of definitions cannot be read
+     */
+    public ProjectMapping(String definitions, File inputDirectory, List<File> files) {
+        List<String> parsed = parseDefinitions(definitions, inputDirectory);
+        if (parsed.isEmpty()) {
+            /*
+             * Assumption: Directory is always the java source directory
+             * where the first level of subdirectories are the projects / root packages to consider.
+             */
+            Arrays.stream(Objects.requireNonNull(inputDirectory.listFiles(File::isDirectory)))
+                    .map(File::getName)
+                    .forEach(name -> parsed.add(name + "=" + name));
+        }
+        for (String definition : parsed) {
+            int separator = definition.indexOf('=');
+            String name = separator < 0 ? definition : definition.substring(0, separator).trim();
+            String prefix = separator < 0 ? definition : definition.substring(separator + 1).trim();
+            if (name.isEmpty() || prefix.isEmpty()) {
+                throw new IllegalArgumentException(definition + " is no project definition, use name=prefix");
+            }
+            int project = projects.indexOf(name);
+            if (project < 0) {
+                project = projects.size();
+                projects.add(name);
+            }
+            boolean sourceRoot = prefix.contains("/");
+            Node node = sourceRoot ? sourceRoots : packages;
+            for (String segment : prefix.split(sourceRoot ? "/" : "\\.")) {
+                if (!segment.isEmpty()) {
+                    node = node.child(segment);
+                }
+            }
+            node.project = project;
+        }
+
+        this.fileProjects = new int[files.size()];
+        this.packageNames = new String[files.size()];
+        Path root = inputDirectory.toPath();
+        for (int index = 0; index < files.size(); ++index) {
+            Path relative = root.relativize(files.get(index).toPath());
+            int directories = relative.getNameCount() - 1;
+            // Longest source root containing the file
+            int project = -1;
+            int packageStart = 0;
+            Node node = sourceRoots;
+            for (int i = 0; i < directories && node != null; ++i) {
+                Node next = node.children.get(relative.getName(i).toString());
+                node = next != null ? next : node.children.get("*");
+                if (node != null && node.project >= 0) {
+                    project = node.project;
+                    packageStart = i + 1;
+                }
+            }
+            StringJoiner packageName = new StringJoiner(".");
+            for (int i = packageStart; i < directories; ++i) {
+                packageName.add(relative.getName(i).toString());
+            }
+            packageNames[index] = packageName.toString();
+            if (project >= 0) {
+                if (!packageNames[index].isEmpty()) {
+                    Node packageNode = packages;
+                    for (int i = packageStart; i < directories; ++i) {
+                        packageNode = packageNode.child(relative.getName(i).toString());
+                    }
+                    if (packageNode.project < 0) {
+                        packageNode.project = project;
+                    }
+                }
+                fileProjects[index] = project;
+            } else {
+                fileProjects[index] = -2;
+            }
+        }
+        // Files outside of source roots belong to the project of their package, known only now
+        for (int index = 0; index < files.size(); ++index) {
+            if (fileProjects[index] == -2) {
+                fileProjects[index] = packageNames[index].isEmpty() ? -1 : classify(packageNames[index]);
+            }
+        }
+    }
+
+    private static List<String> parseDefinitions(String definitions, File inputDirectory) {
+        List<String> parsed = new ArrayList<>();
+        if (definitions == null || definitions.isBlank()) {
+            return parsed;
+        }
+        if (definitions.equals(AUTO)) {
+            discoverMavenModules(inputDirectory, "", parsed);
+            discoverGradleProjects(inputDirectory, parsed);
+            return parsed;
+        }
+        List<String> entries;
+        if (definitions.startsWith("@")) {
+            File file = new File(definitions.substring(1));
+            try {
+                entries = Files.readAllLines(file.toPath()).stream()
+                        .filter(line -> !line.trim().startsWith("#"))
+                        .toList();
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Could not read project definitions " + file, e);
+            }
+        } else {
+            entries = Arrays.asList(definitions.split(","));
+        }
+        entries.stream().map(String::trim).filter(entry -> !entry.isEmpty()).forEach(parsed::add);
+        return parsed;
+    }
+
+    /**
+     * Adds the source roots of the modules of the {@code pom.xml} in the directory, descending into aggregators.
+     */
+    private static void discoverMavenModules(File directory, String path, List<String> definitions) {
+        String pom = readIfExists(new File(directory, "pom.xml"));
+        if (pom == null) {
+            return;
+        }
+        Matcher module = MAVEN_MODULE.matcher(pom);
+        while (module.find()) {
+            String modulePath = path + module.group(1).replace('\\', '/');
+            File moduleDirectory = new File(directory, module.group(1));
+            int before = definitions.size();
+            discoverMavenModules(moduleDirectory, modulePath + "/", definitions);
+            if (definitions.size() == before) {
+                addSourceRoots(modulePath, modulePath, definitions);
+            }
+        }
+    }
+
+    /**
+     * Adds the source roots of the projects included by the {@code settings.gradle(.kts)} in the directory.
+     */
+    private static void discoverGradleProjects(File directory, List<String> definitions) {
+        for (String name : List.of("settings.gradle", "settings.gradle.kts")) {
+            String settings = readIfExists(new File(directory, name));
+            if (settings == null) {
+                continue;
+            }
+            Matcher include = GRADLE_INCLUDE.matcher(settings);
+            while (include.find()) {
+                Matcher project = QUOTED.matcher(include.group(1));
+                while (project.find()) {
+                    String projectPath = project.group(1).replaceFirst("^:", "").replace(':', '/');
+                    addSourceRoots(projectPath, projectPath, definitions);
+                }
+            }
+        }
+    }
+
+    private static void addSourceRoots(String name, String path, List<String> definitions) {
+        for (String sourceRoot : SOURCE_ROOTS) {
+            definitions.add(name + "=" + path + "/" + sourceRoot);
+        }
+    }
+
+    private static String readIfExists(File file) {
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            return Files.readString(file.toPath());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not read " + file, e);
+        }
+    }
+
+    public List<String> getProjects() {
+        return projects;
+    }
+
+    /**
+     * @param index Index of a file in the list of files of the input directory
+     * @return Index of the project of the file, {@code -1} if it is in no project
+     */
+    public int getProject(int index) {
+        return fileProjects[index];
+    }
+
+    /**
+     * @param index Index of a file in the list of files of the input directory
+     * @return Package of the file, i.e., its directory relative to its source root, separated by {@code .}
+     */
+    public String getPackageName(int index) {
+        return packageNames[index];
+    }
+
+    /**
+     * @param name Qualified name, e.g. an imported type {@code a.b.C} or package {@code a.b.*}
+     * @return Index of the project with the longest package prefix of the name, {@code -1} if there is none
+     */
+    public int classify(String name) {
+        int project = -1;
+        Node node = packages;
+        int start = 0;
+        while (node != null && start < name.length()) {
+            int end = name.indexOf('.', start);
+            if (end < 0) {
+                end = name.length();
+            }
+            node = node.children.get(name.substring(start, end));
+            if (node != null && node.project >= 0) {
+                project = node.project;
+            }
+            start = end + 1;
+        }
+        return project;
+    }
+}
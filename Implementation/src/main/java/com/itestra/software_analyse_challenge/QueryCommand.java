@@ -0,0 +1,72 @@
+package com.itestra.software_analyse_challenge;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * Command line queries over the {@link DependencyGraph}, e.g.
+ * {@code query depends-on spark}, {@code query chain fig/basic/Fmt.java spark.Request} or
+ * {@code query dependents cronutils/Function.java}.
+ */
+public final class QueryCommand {
+
+    public static final String COMMAND = "query";
+
+    private static final String USAGE = "Queries: " + COMMAND + " depends-on <project> | "
+            + COMMAND + " reaches <file> <file> | " + COMMAND + " chain <file> <file> | "
+            + COMMAND + " dependents <file>";
+
+    private QueryCommand() {
+    }
+
+    /**
+     * @param graph Dependency graph of the input directory
+     * @param arguments Arguments after {@value #COMMAND}
+     * @param out Stream to print the answer to
+     * @throws IllegalArgumentException If the query is unknown or its arguments are invalid
+     */
+    public static void run(DependencyGraph graph, List<String> arguments, PrintStream out) {
+        String query = arguments.isEmpty() ? "" : arguments.getFirst();
+        switch (query) {
+            case "depends-on" -> {
+                requireArguments(arguments, 1);
+                printFiles(graph, graph.getFilesDependingOn(arguments.get(1)), out);
+            }
+            case "reaches" -> {
+                requireArguments(arguments, 2);
+                out.println(graph.reaches(findFile(graph, arguments.get(1)), findFile(graph, arguments.get(2))));
+            }
+            case "chain" -> {
+                requireArguments(arguments, 2);
+                List<File> chain = graph.getShortestImportChain(findFile(graph, arguments.get(1)),
+                        findFile(graph, arguments.get(2)));
+                out.println(chain.isEmpty() ? "No import chain"
+                        : String.join(" -> ", chain.stream().map(graph::getRelativePath).toList()));
+            }
+            case "dependents" -> {
+                requireArguments(arguments, 1);
+                printFiles(graph, graph.getDependents(findFile(graph, arguments.get(1))), out);
+            }
+            default -> throw new IllegalArgumentException("Unknown query '" + query + "'. " + USAGE);
+        }
+    }
+
+    private static void requireArguments(List<String> arguments, int count) {
+        if (arguments.size() != count + 1) {
+            throw new IllegalArgumentException(arguments.getFirst() + " expects " + count + " argument(s). " + USAGE);
+        }
+    }
+
+    private static File findFile(DependencyGraph graph, String name) {
+        File file = graph.findFile(name);
+        if (file == null) {
+            throw new IllegalArgumentException(name + " is not a file of the input directory");
+        }
+        return file;
+    }
+
+    private static void printFiles(DependencyGraph graph, List<File> files, PrintStream out) {
+        files.stream().map(graph::getRelativePath).sorted().forEach(out::println);
+    }
+}
@@ -0,0 +1,268 @@
+package com.itestra.software_analyse_challenge;
+
+import java.util.Arrays;
+
+/**
+ * Precomputed reachability of a directed graph, so "does u reach v?" is answered by a binary search.
+ * <p>
+ * The strongly connected components are condensed into a DAG first. Every component is numbered in post order of
+ * a spanning forest of the DAG and labelled with the merged post order intervals of all components it reaches
+ * (compressed transitive closure). Then u reaches v iff the post order number of v lies in one of the intervals
+ * of u.
+ */
+public final class ReachabilityIndex {
+
+    private final int[] component;
+    private final int componentCount;
+    private final int[][] componentSuccessors;
+    private final int[] postOrder;
+    /**
+     * Lowest post order number in the spanning tree below every component, the subtree of a component
+     * covers {@code [subtreeStart, postOrder]}.
+     */
+    private final int[] subtreeStart;
+    /**
+     * Sorted, disjoint intervals {@code [start, end]} flattened to {@code start0, end0, start1, end1, ...}.
+     */
+    private final int[][] intervals;
+
+    /**
+     * @param successors Successors of every node
+     */
+    public ReachabilityIndex(int[][] successors) {
+        this.component = new int[successors.length];
+        this.componentCount = stronglyConnectedComponents(successors, component);
+        this.componentSuccessors = condense(successors);
+        this.postOrder = new int[componentCount];
+        this.subtreeStart = new int[componentCount];
+        numberSpanningForest();
+        this.intervals = new int[componentCount][];
+        // Components are numbered in reverse topological order, so all successors are labelled before
+        for (int c = 0; c < componentCount; ++c) {
+            int[] label = {subtreeStart[c], postOrder[c]};
+            for (int successor : componentSuccessors[c]) {
+                label = merge(label, intervals[successor]);
+            }
+            intervals[c] = label;
+        }
+    }
+
+    /**
+     * @return Whether there is a path from {@code from} to {@code to}, every node reaches itself
+     */
+    public boolean reaches(int from, int to) {
+        int[] label = intervals[component[from]];
+        int target = postOrder[component[to]];
+        int low = 0;
+        int high = label.length / 2 - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (label[2 * middle + 1] < target) {
+                low = middle + 1;
+            } else if (label[2 * middle] > target) {
+                high = middle - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param node Node of the graph
+     * @return Strongly connected component of the node, components are numbered in reverse topological order,
+     *         i.e., successors of a component have smaller numbers
+     */
+    public int getComponent(int node) {
+        return component[node];
+    }
+
+    public int getComponentCount() {
+        return componentCount;
+    }
+
+    /**
+     * @param component Strongly connected component
+     * @return Distinct successor components of the component
+     */
+    public int[] getComponentSuccessors(int component) {
+        return componentSuccessors[component];
+    }
+
+    /**
+     * @return Estimated heap used by the arrays of the index in bytes
+     */
+    public long getHeapBytes() {
+        long bytes = arrayBytes(component.length) + arrayBytes(postOrder.length) + arrayBytes(subtreeStart.length);
+        for (int c = 0; c < componentCount; ++c) {
+            bytes += arrayBytes(componentSuccessors[c].length) + arrayBytes(intervals[c].length);
+        }
+        return bytes;
+    }
+
+    /**
+     * @return Estimated heap used by an {@code int[]} of the length, including its header and reference
+     */
+    static long arrayBytes(int length) {
+        return 24L + 4L * length;
+    }
+
+    /**
+     * Tarjan's algorithm, iterative so deep graphs do not overflow the stack.
+     *
+     * @param successors Successors of every node
+     * @param component Component of every node, filled by this method
+     * @return Number of components
+     */
+    private static int stronglyConnectedComponents(int[][] successors, int[] component) {
+        int n = successors.length;
+        int[] index = new int[n];
+        int[] lowLink = new int[n];
+        Arrays.fill(index, -1);
+        boolean[] onStack = new boolean[n];
+        int[] stack = new int[n];
+        int stackSize = 0;
+        int[] callStack = new int[n];
+        int[] nextSuccessor = new int[n];
+        int nextIndex = 0;
+        int components = 0;
+        for (int root = 0; root < n; ++root) {
+            if (index[root] >= 0) {
+                continue;
+            }
+            int depth = 0;
+            callStack[depth++] = root;
+            index[root] = lowLink[root] = nextIndex++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+            while (depth > 0) {
+                int node = callStack[depth - 1];
+                if (nextSuccessor[node] < successors[node].length) {
+                    int successor = successors[node][nextSuccessor[node]++];
+                    if (index[successor] < 0) {
+                        index[successor] = lowLink[successor] = nextIndex++;
+                        stack[stackSize++] = successor;
+                        onStack[successor] = true;
+                        callStack[depth++] = successor;
+                    } else if (onStack[successor]) {
+                        lowLink[node] = Math.min(lowLink[node], index[successor]);
+                    }
+                } else {
+                    --depth;
+                    if (depth > 0) {
+                        int parent = callStack[depth - 1];
+                        lowLink[parent] = Math.min(lowLink[parent], lowLink[node]);
+                    }
+                    if (lowLink[node] == index[node]) {
+                        int member;
+                        do {
+                            member = stack[--stackSize];
+                            onStack[member] = false;
+                            component[member] = components;
+                        } while (member != node);
+                        ++components;
+                    }
+                }
+            }
+        }
+        return components;
+    }
+
+    private int[][] condense(int[][] successors) {
+        int[][] condensed = new int[componentCount][];
+        int[] lastSeen = new int[componentCount];
+        Arrays.fill(lastSeen, -1);
+        int[][] members = new int[componentCount][];
+        int[] memberCount = new int[componentCount];
+        for (int c : component) {
+            ++memberCount[c];
+        }
+        for (int c = 0; c < componentCount; ++c) {
+            members[c] = new int[memberCount[c]];
+            memberCount[c] = 0;
+        }
+        for (int node = 0; node < successors.length; ++node) {
+            members[component[node]][memberCount[component[node]]++] = node;
+        }
+        int[] buffer = new int[componentCount];
+        for (int c = 0; c < componentCount; ++c) {
+            int size = 0;
+            for (int node : members[c]) {
+                for (int successor : successors[node]) {
+                    int target = component[successor];
+                    if (target != c && lastSeen[target] != c) {
+                        lastSeen[target] = c;
+                        buffer[size++] = target;
+                    }
+                }
+            }
+            condensed[c] = Arrays.copyOf(buffer, size);
+        }
+        return condensed;
+    }
+
+    /**
+     * Numbers every component in post order of a depth first spanning forest of the condensation.
+     */
+    private void numberSpanningForest() {
+        boolean[] visited = new boolean[componentCount];
+        int[] callStack = new int[componentCount];
+        int[] nextSuccessor = new int[componentCount];
+        int next = 0;
+        // Components with high numbers first, they are the sources of the DAG
+        for (int root = componentCount - 1; root >= 0; --root) {
+            if (visited[root]) {
+                continue;
+            }
+            int depth = 0;
+            callStack[depth++] = root;
+            visited[root] = true;
+            subtreeStart[root] = next;
+            while (depth > 0) {
+                int c = callStack[depth - 1];
+                if (nextSuccessor[c] < componentSuccessors[c].length) {
+                    int successor = componentSuccessors[c][nextSuccessor[c]++];
+                    if (!visited[successor]) {
+                        visited[successor] = true;
+                        subtreeStart[successor] = next;
+                        callStack[depth++] = successor;
+                    }
+                } else {
+                    // All components finished since c was discovered are in the subtree of c
+                    postOrder[c] = next++;
+                    --depth;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Union of two sorted interval lists, overlapping and adjacent intervals are merged
+     */
+    private static int[] merge(int[] first, int[] second) {
+        int[] merged = new int[first.length + second.length];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length || j < second.length) {
+            int start;
+            int end;
+            if (j >= second.length || i < first.length && first[i] <= second[j]) {
+                start = first[i];
+                end = first[i + 1];
+                i += 2;
+            } else {
+                start = second[j];
+                end = second[j + 1];
+                j += 2;
+            }
+            if (size > 0 && start <= merged[size - 1] + 1) {
+                merged[size - 1] = Math.max(merged[size - 1], end);
+            } else {
+                merged[size++] = start;
+                merged[size++] = end;
+            }
+        }
+        return size == merged.length ? merged : Arrays.copyOf(merged, size);
+    }
+}
@@ -0,0 +1,139 @@
+package com.itestra.software_analyse_challenge;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Reads the files to analyse ahead of the lexing stage, so on cold caches (network file systems, spinning disks)
+ * the reads of the next files overlap with lexing instead of each lexing thread waiting for its own read.
+ * <p>
+ * The files are read in locality order by a dedicated pool of reader threads: at most {@code depth} reads are in
+ * flight and at most {@code depth} more read files wait for lexing. The lexing threads take the files in the same
+ * order, so the oldest read file is always lexed first and the readers never wait for a file far behind.
+ */
+public final class ReadAhead {
+
+    /**
+     * Order to read the files in.
+     */
+    public enum Order {
+        /** By path, so the files of a directory are read one after another */
+        TREE,
+        /** By inode number, which approximates the allocation order on disk, by path if there are no inodes */
+        INODE
+    }
+
+    /**
+     * Name of the queue of the files read ahead in the {@link Telemetry}.
+     */
+    private static final String QUEUE = "read-ahead";
+
+    private ReadAhead() {
+    }
+
+    /**
+     * @param files Files to read
+     * @param order Order to read the files in
+     * @param depth Number of reads in flight, at least {@code 1}
+     * @param maxFileSize Files of this size or larger are not read ahead, e.g. because they are lexed in chunks
+     * @param consumer Called in parallel with every file and its content, {@code null} if the file was not read
+     *                 ahead or could not be read, so the consumer reads it itself and handles the error
+     */
+    public static void forEach(List<File> files, Order order, int depth, long maxFileSize,
+            BiConsumer<File, byte[]> consumer) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("The read-ahead depth must be at least 1, not " + depth);
+        }
+        List<File> ordered = sort(files, order);
+        List<CompletableFuture<byte[]>> contents = new ArrayList<>(ordered.size());
+        for (int i = 0; i < ordered.size(); ++i) {
+            contents.add(new CompletableFuture<>());
+        }
+        Semaphore window = new Semaphore(2 * depth);
+        AtomicInteger nextRead = new AtomicInteger();
+        ExecutorService readers = Executors.newFixedThreadPool(depth, runnable -> {
+            Thread thread = new Thread(runnable, "read-ahead");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger nextLex = new AtomicInteger();
+        // Files read or being read which no lexing thread took yet
+        Telemetry.registerQueue(QUEUE,
+                () -> Math.max(0, Math.min(nextRead.get(), ordered.size()) - nextLex.get()));
+        try {
+            for (int reader = 0; reader < depth; ++reader) {
+                readers.execute(() -> read(ordered, contents, window, nextRead, maxFileSize));
+            }
+            IntStream.range(0, ForkJoinPool.getCommonPoolParallelism() + 1).parallel().forEach(worker -> {
+                int index;
+                while ((index = nextLex.getAndIncrement()) < ordered.size()) {
+                    try {
+                        consumer.accept(ordered.get(index), contents.get(index).join());
+                    } finally {
+                        contents.set(index, null);
+                        window.release();
+                    }
+                }
+            });
+        } finally {
+            readers.shutdownNow();
+            // Does not keep the files of this run
+            Telemetry.registerQueue(QUEUE, () -> 0);
+        }
+    }
+
+    private static void read(List<File> files, List<CompletableFuture<byte[]>> contents, Semaphore window,
+            AtomicInteger nextRead, long maxFileSize) {
+        while (true) {
+            try {
+                window.acquire();
+            } catch (InterruptedException e) {
+                return;
+            }
+            int index = nextRead.getAndIncrement();
+            if (index >= files.size()) {
+                return;
+            }
+            File file = files.get(index);
+            byte[] content = null;
+            try {
+                if (file.length() < maxFileSize) {
+                    content = Files.readAllBytes(file.toPath());
+                }
+            } catch (IOException e) {
+                // The consumer reads the file itself and reports the error
+            }
+            contents.get(index).complete(content);
+        }
+    }
+
+    private static List<File> sort(List<File> files, Order order) {
+        List<File> sorted = new ArrayList<>(files);
+        Comparator<File> byPath = Comparator.comparing(File::getPath);
+        if (order == Order.INODE) {
+            Map<File, Long> inodes = new ConcurrentHashMap<>(files.size());
+            try {
+                files.parallelStream().forEach(file -> {
+                    try {
+                        inodes.put(file, (Long) Files.getAttribute(file.toPath(), "unix:ino"));
+                    } catch (IOException e) {
+                        // Unreadable files are sorted last, by path
+                    }
+                });
+                sorted.sort(Comparator.<File>comparingLong(file -> inodes.getOrDefault(file, Long.MAX_VALUE))
+                        .thenComparing(byPath));
+                return sorted;
+            } catch (UnsupportedOperationException e) {
+                // No inodes on this platform
+            }
+        }
+        sorted.sort(byPath);
+        return sorted;
+    }
+}
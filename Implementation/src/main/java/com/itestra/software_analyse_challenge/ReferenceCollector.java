@@ -0,0 +1,96 @@
+package com.itestra.software_analyse_challenge;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Finds the types of the input directory a file references without importing them: types of the same package
+ * used by their simple name and types used by their fully qualified name (e.g. {@code spark.Request}).
+ * <p>
+ * Qualified names are built from the identifier and {@code .} tokens of the {@link JavaLexer} and looked up in the
+ * {@link ClassIndex} by their characters, the longest prefix which is a type wins.
+ */
+public final class ReferenceCollector implements TokenVisitor {
+
+    private final ClassIndex classIndex;
+    private final int ownType;
+    private final BitSet referencedTypes = new BitSet();
+
+    /**
+     * Start of the current qualified name, {@code -1} if there is none.
+     */
+    private int nameStart = -1;
+    private int nameEnd;
+    private boolean afterDot = false;
+    private char[] nameBuffer;
+
+    /**
+     * @param classIndex Index of all types of the input directory
+     * @param ownType Id of the type declared by the file, references to it are ignored
+     */
+    public ReferenceCollector(ClassIndex classIndex, int ownType) {
+        this.classIndex = classIndex;
+        this.ownType = ownType;
+    }
+
+    @Override
+    public void token(JavaLexer.TokenKind kind, char[] buffer, int start, int end) {
+        if (kind == JavaLexer.TokenKind.IDENTIFIER) {
+            if (nameStart >= 0 && afterDot) {
+                nameEnd = end;
+                afterDot = false;
+                return;
+            }
+            resolveName();
+            nameBuffer = buffer;
+            nameStart = start;
+            nameEnd = end;
+        } else if (kind == JavaLexer.TokenKind.OPERATOR && buffer[start] == '.' && nameStart >= 0 && !afterDot) {
+            afterDot = true;
+        } else if (kind != JavaLexer.TokenKind.COMMENT) {
+            resolveName();
+        }
+    }
+
+    @Override
+    public void line(JavaLexer.LineKind kind, char[] buffer, int start, int end) {
+        // Indices into the buffer are only valid within a line
+        resolveName();
+    }
+
+    private void resolveName() {
+        if (nameStart < 0) {
+            return;
+        }
+        int segmentEnd = nameEnd;
+        int firstSegmentEnd = nameStart;
+        while (firstSegmentEnd < nameEnd && nameBuffer[firstSegmentEnd] != '.') {
+            ++firstSegmentEnd;
+        }
+        int type = -1;
+        while (type < 0 && segmentEnd > firstSegmentEnd) {
+            type = classIndex.findQualifiedType(nameBuffer, nameStart, segmentEnd);
+            do {
+                --segmentEnd;
+            } while (segmentEnd > firstSegmentEnd && nameBuffer[segmentEnd] != '.');
+        }
+        if (type < 0 && ownType >= 0) {
+            type = classIndex.findSamePackageType(nameBuffer, nameStart, firstSegmentEnd, ownType);
+        }
+        if (type >= 0 && type != ownType) {
+            referencedTypes.set(type);
+        }
+        nameStart = -1;
+        afterDot = false;
+    }
+
+    /**
+     * @return Fully qualified names of all referenced types
+     */
+    public List<String> getReferences() {
+        List<String> references = new ArrayList<>(referencedTypes.cardinality());
+        referencedTypes.stream().forEach(type -> references.add(classIndex.getTypeName(type)));
+        return references;
+    }
+}
@@ -0,0 +1,225 @@
+package com.itestra.software_analyse_challenge;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Totals of the files of every package (including its subpackages), of every project and of the whole tree, plus
+ * the number of dependencies between the projects. Packages are the directories of the input directory.
+ * <p>
+ * Dependencies are the edges of the {@link DependencyGraph}: a file depending on another file counts once, however
+ * many import statements (or references) resolve to that file, and a type import on demand counts once per file of
+ * the package.
+ * <p>
+ * The files are ordered like a depth first traversal of the directory tree, so the files of a package and its
+ * subpackages form a contiguous range. The totals are kept in Fenwick trees (prefix sums) over this order, so
+ * updating a file and querying a package both take logarithmic time.
+ */
+public final class RollUp {
+
+    /**
+     * Name of the package of the whole tree.
+     */
+    public static final String TREE = "";
+
+    /**
+     * Values which are summed up.
+     */
+    public enum Measure {
+        FILES, SOURCE_LINES, SOURCE_LINES_BONUS, CROSS_PROJECT_DEPENDENCIES
+    }
+
+    private final Path root;
+    private final List<String> projects;
+    private final Map<File, Integer> positions = new HashMap<>();
+    private final int[] fileProjects;
+    /**
+     * Range {@code [start, end)} of the positions of the files of every package.
+     */
+    private final Map<String, int[]> packageRanges = new TreeMap<>();
+    private final long[][] sums;
+    private final long[][] values;
+    /**
+     * Totals of every project, its files need not be contiguous.
+     */
+    private final long[][] projectTotals;
+    /**
+     * Dependencies of every file on the files of every project.
+     */
+    private final int[][] fileProjectDependencies;
+    private final long[][] projectDependencies;
+
+    /**
+     * @param inputDirectory Source directory the files were found in
+     * @param files All files of the input directory
+     * @param projectMapping Projects and the project of every file, indexed like {@code files}
+     */
+    public RollUp(File inputDirectory, List<File> files, ProjectMapping projectMapping) {
+        this.root = inputDirectory.toPath();
+        this.projects = projectMapping.getProjects();
+        Integer[] order = new Integer[files.size()];
+        Arrays.setAll(order, index -> index);
+        Arrays.sort(order, (first, second) -> compareTreeOrder(relativize(files.get(first)),
+                relativize(files.get(second))));
+        this.fileProjects = new int[order.length];
+        for (int position = 0; position < order.length; ++position) {
+            File file = files.get(order[position]);
+            positions.put(file, position);
+            Path relative = relativize(file);
+            fileProjects[position] = projectMapping.getProject(order[position]);
+            int finalPosition = position;
+            StringBuilder packageName = new StringBuilder();
+            packageRanges.computeIfAbsent(TREE, p -> new int[] {finalPosition, 0})[1] = position + 1;
+            for (int i = 0; i < relative.getNameCount() - 1; ++i) {
+                packageName.append(i == 0 ? "" : ".").append(relative.getName(i));
+                packageRanges.computeIfAbsent(packageName.toString(), p -> new int[] {finalPosition, 0})[1] = position + 1;
+            }
+        }
+        this.sums = new long[Measure.values().length][order.length + 1];
+        this.values = new long[Measure.values().length][order.length];
+        this.projectTotals = new long[Measure.values().length][projects.size()];
+        this.fileProjectDependencies = new int[order.length][projects.size()];
+        this.projectDependencies = new long[projects.size()][projects.size()];
+    }
+
+    private Path relativize(File file) {
+        return root.relativize(file.toPath());
+    }
+
+    /**
+     * Depth first order: the files of a directory first, then its subdirectories, both by name.
+     */
+    private static int compareTreeOrder(Path first, Path second) {
+        int common = Math.min(first.getNameCount(), second.getNameCount());
+        for (int i = 0; i < common; ++i) {
+            boolean firstIsFile = i == first.getNameCount() - 1;
+            boolean secondIsFile = i == second.getNameCount() - 1;
+            if (firstIsFile != secondIsFile) {
+                return firstIsFile ? -1 : 1;
+            }
+            int names = first.getName(i).toString().compareTo(second.getName(i).toString());
+            if (names != 0) {
+                return names;
+            }
+        }
+        return Integer.compare(first.getNameCount(), second.getNameCount());
+    }
+
+    /**
+     * Sets the values of a file, replacing the previous ones.
+     *
+     * @param file File of the input directory
+     * @param lineNumber Source lines of the file, negative if they were not counted
+     * @param lineNumberBonus Source lines without getters and block comments, negative if they were not counted
+     * @param dependencies Files the file depends on, see {@link DependencyGraph#getImportedFiles(File)}
+     */
+    public void update(File file, int lineNumber, int lineNumberBonus, Collection<File> dependencies) {
+        int position = getPosition(file);
+        int project = fileProjects[position];
+        int[] projectCounts = new int[projects.size()];
+        long crossProjectDependencies = 0;
+        for (File dependency : dependencies) {
+            Integer dependencyPosition = positions.get(dependency);
+            int dependencyProject = dependencyPosition == null ? -1 : fileProjects[dependencyPosition];
+            if (dependencyProject >= 0 && dependencyProject != project) {
+                ++projectCounts[dependencyProject];
+                ++crossProjectDependencies;
+            }
+        }
+        if (project >= 0) {
+            for (int other = 0; other < projects.size(); ++other) {
+                projectDependencies[project][other] += projectCounts[other] - fileProjectDependencies[position][other];
+            }
+        }
+        fileProjectDependencies[position] = projectCounts;
+        set(position, Measure.FILES, 1);
+        set(position, Measure.SOURCE_LINES, Math.max(0, lineNumber));
+        set(position, Measure.SOURCE_LINES_BONUS, Math.max(0, lineNumberBonus));
+        set(position, Measure.CROSS_PROJECT_DEPENDENCIES, crossProjectDependencies);
+    }
+
+    /**
+     * Removes the values of a file, e.g. because it was deleted.
+     *
+     * @param file File of the input directory
+     */
+    public void remove(File file) {
+        update(file, 0, 0, Collections.emptyList());
+        set(getPosition(file), Measure.FILES, 0);
+    }
+
+    private void set(int position, Measure measure, long value) {
+        long[] tree = sums[measure.ordinal()];
+        long delta = value - values[measure.ordinal()][position];
+        values[measure.ordinal()][position] = value;
+        if (fileProjects[position] >= 0) {
+            projectTotals[measure.ordinal()][fileProjects[position]] += delta;
+        }
+        for (int i = position + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    private long prefixSum(Measure measure, int end) {
+        long[] tree = sums[measure.ordinal()];
+        long sum = 0;
+        for (int i = end; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * @return All packages with at least one file in them or their subpackages, sorted by name,
+     *         including {@link #TREE}
+     */
+    public Set<String> getPackages() {
+        return packageRanges.keySet();
+    }
+
+    /**
+     * @param packageName Package or {@link #TREE}
+     * @param measure Measure to sum up
+     * @return Sum of the measure over all files of the package and its subpackages
+     */
+    public long getTotal(String packageName, Measure measure) {
+        int[] range = packageRanges.get(packageName);
+        if (range == null) {
+            throw new IllegalArgumentException(packageName + " is no package of the input directory");
+        }
+        return prefixSum(measure, range[1]) - prefixSum(measure, range[0]);
+    }
+
+    /**
+     * @param project Name of a project
+     * @param measure Measure to sum up
+     * @return Sum of the measure over all files of the project
+     */
+    public long getProjectTotal(String project, Measure measure) {
+        int index = projects.indexOf(project);
+        if (index < 0) {
+            throw new IllegalArgumentException(project + " is not a project, available: " + projects);
+        }
+        return projectTotals[measure.ordinal()][index];
+    }
+
+    /**
+     * @return Number of dependencies of files of project {@code from} on files of project {@code to}
+     */
+    public long getProjectDependencies(String from, String to) {
+        return projectDependencies[projects.indexOf(from)][projects.indexOf(to)];
+    }
+
+    public List<String> getProjects() {
+        return projects;
+    }
+
+    private int getPosition(File file) {
+        Integer position = positions.get(file);
+        if (position == null) {
+            throw new IllegalArgumentException(file + " is not part of the roll-up");
+        }
+        return position;
+    }
+}
@@ -0,0 +1,478 @@
+package com.itestra.software_analyse_challenge;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.BiConsumer;
+
+/**
+ * Serves the analysis of the input directory as JSON over HTTP on the loopback interface, e.g. {@code serve 8080},
+ * so clients polling the results do not analyse the tree again:
+ * <pre>
+ * GET  /files?offset=0&amp;limit=100        source lines and dependencies of the files
+ * GET  /files/spark/Request.java          a single file and the files it imports
+ * GET  /packages?offset=0&amp;limit=100     roll-up of the packages
+ * GET  /graph/depends-on?project=spark    files of other projects depending on a project
+ * GET  /graph/dependents?file=...         files which import a file directly or indirectly
+ * GET  /graph/reaches?from=...&amp;to=...    whether a file imports another one directly or indirectly
+ * GET  /graph/chain?from=...&amp;to=...      shortest chain of imports between two files
+ * GET  /rules/violations                  violations of the architecture rules with their shortest chains
+ * POST /refresh                           analyses the tree again, unchanged files are not read again
+ * GET  /metrics                           {@link Telemetry} of the service in the OpenMetrics text format
+ * </pre>
+ * Every analysis has a generation number, the {@code ETag} of all successful responses. Clients sending it back in
+ * {@code If-None-Match} get {@code 304 Not Modified} for resources which exist until the tree is analysed again;
+ * errors are always answered: {@code 404} for unknown resources, including files and projects named by parameters,
+ * and {@code 400} for missing or malformed parameters. Lists are paged with
+ * {@code offset} and {@code limit} and report their {@code total} size.
+ */
+public final class ServeCommand {
+
+    public static final String COMMAND = "serve";
+
+    private static final int DEFAULT_PORT = 8080;
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 10_000;
+
+    private final Input input;
+    /**
+     * Distinguishes the generations of different server runs, so cached responses of a previous run do not match.
+     */
+    private final String runId = Long.toHexString(System.currentTimeMillis());
+    private volatile Generation current;
+
+    /**
+     * Analysis which is served, replaced as a whole on refresh.
+     *
+     * @param violations Violations of the architecture rules, {@code null} if no rules are checked
+     */
+    private record Generation(long number, Analysis analysis, String etag,
+            List<ArchitectureRules.Violation> violations) {
+    }
+
+    private ServeCommand(Input input) {
+        this.input = input;
+    }
+
+    /**
+     * Analyses the input directory and serves it until the process is stopped.
+     *
+     * @param input Settings of the analysis
+     * @param arguments Optional port, {@value #DEFAULT_PORT} by default
+     * @param out Stream to print the address to
+     * @throws IllegalArgumentException If the port is invalid
+     * @throws IllegalStateException If the server cannot be started
+     */
+    public static void run(Input input, List<String> arguments, PrintStream out) {
+        if (arguments.size() > 1) {
+            throw new IllegalArgumentException(COMMAND + " expects at most a port");
+        }
+        int port;
+        try {
+            port = arguments.isEmpty() ? DEFAULT_PORT : Integer.parseInt(arguments.getFirst());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(arguments.getFirst() + " is not a port", e);
+        }
+        ServeCommand service = new ServeCommand(input);
+        service.refresh();
+        HttpServer server;
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not listen on port " + port, e);
+        }
+        server.createContext("/", service::handle);
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) Executors.newFixedThreadPool(
+                Runtime.getRuntime().availableProcessors());
+        Telemetry.registerQueue("http", () -> executor.getQueue().size());
+        server.setExecutor(executor);
+        server.start();
+        out.println("Serving " + input.getInputDirectory() + " on http://" + server.getAddress().getHostString()
+                + ":" + server.getAddress().getPort() + "/");
+    }
+
+    private synchronized void refresh() {
+        Generation previous = current;
+        // References depend on the other files of the tree, everything else only on the content of a file
+        Map<String, FileFacts> knownFacts = new HashMap<>();
+        if (previous != null && !input.isSymbolReferences()) {
+            previous.analysis().contentHashes().forEach((file, contentHash) -> {
+                FileFacts facts = previous.analysis().facts().get(file);
+                if (!contentHash.equals(ContentHash.UNKNOWN) && !facts.isSlowFile()) {
+                    knownFacts.put(contentHash, facts);
+                }
+            });
+        }
+        Analysis analysis = SourceCodeAnalyser.analyseTree(input.getInputDirectory(), input, knownFacts);
+        List<ArchitectureRules.Violation> violations = null;
+        if (input.getRuleDefinitions() != null) {
+            // Unchanged contents of all files give the same graph, so its violations need no check
+            boolean unchanged = previous != null && !analysis.contentHashes().containsValue(ContentHash.UNKNOWN)
+                    && analysis.contentHashes().equals(previous.analysis().contentHashes());
+            violations = unchanged ? previous.violations() : analysis.graph().getViolations(
+                    new ArchitectureRules(input.getRuleDefinitions(), analysis.graph().getProjects()));
+        }
+        long number = previous == null ? 1 : previous.number() + 1;
+        current = new Generation(number, analysis, "\"" + runId + "-" + number + "\"", violations);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            if (path.equals("/refresh")) {
+                if (!exchange.getRequestMethod().equals("POST")) {
+                    send(exchange, 405, error("Use POST to refresh"), null);
+                    return;
+                }
+                refresh();
+                Generation generation = current;
+                send(exchange, 200, new Json().object().field("generation").value(generation.number()).end(),
+                        generation.etag());
+                return;
+            }
+            if (!exchange.getRequestMethod().equals("GET") && !exchange.getRequestMethod().equals("HEAD")) {
+                send(exchange, 405, error("Use GET"), null);
+                return;
+            }
+            if (path.equals("/metrics")) {
+                send(exchange, 200, "application/openmetrics-text; version=1.0.0; charset=utf-8",
+                        Telemetry.toOpenMetrics(), null);
+                return;
+            }
+            Generation generation = current;
+            Map<String, String> parameters = parseQuery(exchange.getRequestURI().getRawQuery());
+            Json body;
+            try {
+                body = answer(generation, path, parameters);
+            } catch (NoSuchElementException e) {
+                send(exchange, 404, error(e.getMessage()), null);
+                return;
+            } catch (IllegalArgumentException e) {
+                send(exchange, 400, error(e.getMessage()), null);
+                return;
+            }
+            if (body == null) {
+                send(exchange, 404, error("Unknown resource " + path), null);
+                return;
+            }
+            // Only existing resources are conditional, errors are always sent
+            String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+            if (ifNoneMatch != null && (ifNoneMatch.equals("*")
+                    || Arrays.stream(ifNoneMatch.split(",")).map(String::trim).anyMatch(generation.etag()::equals))) {
+                exchange.getResponseHeaders().set("ETag", generation.etag());
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+            send(exchange, 200, body, generation.etag());
+        }
+    }
+
+    /**
+     * @return Answer to the request, {@code null} if the path is unknown
+     * @throws NoSuchElementException If a file or project named by a parameter is unknown
+     * @throws IllegalArgumentException If the parameters are invalid
+     */
+    private static Json answer(Generation generation, String path, Map<String, String> parameters) {
+        Analysis analysis = generation.analysis();
+        DependencyGraph graph = analysis.graph();
+        FileTable fileTable = analysis.fileTable();
+        if (path.equals("/files")) {
+            List<Integer> ids = new ArrayList<>(fileTable.size());
+            // Every path is built once, not once per comparison
+            String[] paths = new String[fileTable.size()];
+            for (int id = 0; id < fileTable.size(); ++id) {
+                ids.add(id);
+                paths[id] = fileTable.getRelativePath(id);
+            }
+            ids.sort(Comparator.comparing(id -> paths[id]));
+            return page(generation, parameters, ids, (json, id) -> file(json, analysis, fileTable.getFile(id)));
+        }
+        if (path.startsWith("/files/")) {
+            File file = graph.findFile(path.substring("/files/".length()));
+            if (file == null) {
+                return null;
+            }
+            Json json = new Json().object().field("generation").value(generation.number()).field("file");
+            file(json, analysis, file).field("imports").array();
+            graph.getImportedFiles(file).stream().map(graph::getRelativePath).sorted().forEach(json::value);
+            return json.end().end();
+        }
+        if (path.equals("/packages")) {
+            RollUp rollUp = analysis.rollUp();
+            return page(generation, parameters, List.copyOf(rollUp.getPackages()), (json, p) -> {
+                json.object().field("package").value(p.equals(RollUp.TREE) ? "<all>" : p);
+                for (RollUp.Measure measure : RollUp.Measure.values()) {
+                    json.field(toCamelCase(measure.name())).value(rollUp.getTotal(p, measure));
+                }
+                json.end();
+            });
+        }
+        if (path.equals("/graph/depends-on")) {
+            String project = require(parameters, "project");
+            if (!graph.getProjects().contains(project)) {
+                throw new NoSuchElementException("Unknown project " + project);
+            }
+            return paths(generation, parameters, graph, graph.getFilesDependingOn(project));
+        }
+        if (path.equals("/graph/dependents")) {
+            return paths(generation, parameters, graph,
+                    graph.getDependents(requireFile(graph, parameters, "file")));
+        }
+        if (path.equals("/graph/reaches")) {
+            boolean reaches = graph.reaches(requireFile(graph, parameters, "from"),
+                    requireFile(graph, parameters, "to"));
+            return new Json().object().field("generation").value(generation.number())
+                    .field("reaches").value(reaches).end();
+        }
+        if (path.equals("/graph/chain")) {
+            List<File> chain = graph.getShortestImportChain(requireFile(graph, parameters, "from"),
+                    requireFile(graph, parameters, "to"));
+            Json json = new Json().object().field("generation").value(generation.number()).field("chain").array();
+            chain.stream().map(graph::getRelativePath).forEach(json::value);
+            return json.end().end();
+        }
+        if (path.equals("/rules/violations")) {
+            if (generation.violations() == null) {
+                throw new IllegalArgumentException("No architecture rules, start the server with --rules");
+            }
+            return page(generation, parameters, generation.violations(), (json, violation) -> {
+                json.object().field("from").value(violation.from()).field("to").value(violation.to())
+                        .field("chain").array();
+                violation.chain().stream().map(graph::getRelativePath).forEach(json::value);
+                json.end().end();
+            });
+        }
+        return null;
+    }
+
+    private static Json file(Json json, Analysis analysis, File file) {
+        FileFacts facts = analysis.facts().get(file);
+        json.object().field("path").value(analysis.graph().getRelativePath(file));
+        json.field("sourceLines").value(facts.getLineNumber());
+        json.field("sourceLinesBonus").value(facts.getLineNumberBonus());
+        facts.getMetrics().forEach((name, value) -> json.field(name).value(value));
+        json.field("dependencies").array();
+        analysis.graph().getDependencies(file).stream().sorted().forEach(json::value);
+        return json.end().end();
+    }
+
+    private static Json paths(Generation generation, Map<String, String> parameters, DependencyGraph graph,
+            List<File> files) {
+        List<String> paths = files.stream().map(graph::getRelativePath).sorted().toList();
+        return page(generation, parameters, paths, Json::value);
+    }
+
+    /**
+     * @return The items from {@code offset} to {@code offset + limit} of the list and its total size
+     */
+    private static <T> Json page(Generation generation, Map<String, String> parameters, List<T> items,
+            BiConsumer<Json, T> writer) {
+        int offset = parseInt(parameters, "offset", 0);
+        int limit = parseInt(parameters, "limit", DEFAULT_LIMIT);
+        if (offset < 0 || limit < 0 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("offset must not be negative and limit between 0 and " + MAX_LIMIT);
+        }
+        Json json = new Json().object()
+                .field("generation").value(generation.number())
+                .field("offset").value(offset)
+                .field("limit").value(limit)
+                .field("total").value(items.size())
+                .field("items").array();
+        for (int i = offset; i < Math.min(items.size(), (long) offset + limit); ++i) {
+            writer.accept(json, items.get(i));
+        }
+        return json.end().end();
+    }
+
+    private static int parseInt(Map<String, String> parameters, String name, int defaultValue) {
+        String value = parameters.get(name);
+        try {
+            return value == null ? defaultValue : Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(value + " is not a number for " + name, e);
+        }
+    }
+
+    private static String require(Map<String, String> parameters, String name) {
+        String value = parameters.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Parameter " + name + " is missing");
+        }
+        return value;
+    }
+
+    /**
+     * @return File named by the parameter, see {@link DependencyGraph#findFile(String)}
+     * @throws NoSuchElementException If no file has the name
+     * @throws IllegalArgumentException If the parameter is missing or several files have the name
+     */
+    private static File requireFile(DependencyGraph graph, Map<String, String> parameters, String name) {
+        String value = require(parameters, name);
+        File file = graph.findFile(value);
+        if (file == null) {
+            throw new NoSuchElementException("Unknown file " + value);
+        }
+        return file;
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> parameters = new HashMap<>();
+        if (query == null) {
+            return parameters;
+        }
+        for (String parameter : query.split("&")) {
+            int separator = parameter.indexOf('=');
+            String name = separator < 0 ? parameter : parameter.substring(0, separator);
+            String value = separator < 0 ? "" : parameter.substring(separator + 1);
+            parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    private static String toCamelCase(String constant) {
+        StringBuilder name = new StringBuilder();
+        for (String word : constant.toLowerCase(Locale.ROOT).split("_")) {
+            name.append(name.isEmpty() ? word : Character.toUpperCase(word.charAt(0)) + word.substring(1));
+        }
+        return name.toString();
+    }
+
+    private static Json error(String message) {
+        return new Json().object().field("error").value(message).end();
+    }
+
+    private static void send(HttpExchange exchange, int status, Json body, String etag) throws IOException {
+        send(exchange, status, "application/json; charset=utf-8", body.toString(), etag);
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, String body, String etag)
+            throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        if (etag != null) {
+            exchange.getResponseHeaders().set("ETag", etag);
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        }
+        boolean head = exchange.getRequestMethod().equals("HEAD");
+        exchange.sendResponseHeaders(status, head ? -1 : bytes.length);
+        if (!head) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * Minimal streaming JSON writer, commas are inserted between the values of objects and arrays.
+     */
+    private static final class Json {
+
+        private final StringBuilder text = new StringBuilder();
+        /**
+         * Closing brackets of the open objects and arrays, the innermost first.
+         */
+        private final Deque<Character> closing = new ArrayDeque<>();
+        /**
+         * Whether the open object or array at every depth already has a value.
+         */
+        private final BitSet hasValue = new BitSet();
+        private boolean afterField = false;
+
+        Json object() {
+            return open('{', '}');
+        }
+
+        Json array() {
+            return open('[', ']');
+        }
+
+        Json end() {
+            text.append(closing.pop());
+            return this;
+        }
+
+        private Json open(char bracket, char closingBracket) {
+            separate();
+            text.append(bracket);
+            closing.push(closingBracket);
+            hasValue.clear(closing.size());
+            return this;
+        }
+
+        Json field(String name) {
+            separate();
+            quote(name);
+            text.append(':');
+            afterField = true;
+            return this;
+        }
+
+        Json value(String value) {
+            separate();
+            quote(value);
+            return this;
+        }
+
+        Json value(long value) {
+            separate();
+            text.append(value);
+            return this;
+        }
+
+        Json value(boolean value) {
+            separate();
+            text.append(value);
+            return this;
+        }
+
+        private void separate() {
+            if (afterField) {
+                afterField = false;
+                return;
+            }
+            if (hasValue.get(closing.size())) {
+                text.append(',');
+            }
+            hasValue.set(closing.size());
+        }
+
+        private void quote(String value) {
+            text.append('"');
+            for (int i = 0; i < value.length(); ++i) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"' -> text.append("\\\"");
+                    case '\\' -> text.append("\\\\");
+                    case '\n' -> text.append("\\n");
+                    case '\r' -> text.append("\\r");
+                    case '\t' -> text.append("\\t");
+                    default -> {
+                        if (c < 0x20) {
+                            text.append(String.format("\\u%04x", (int) c));
+                        } else {
+                            text.append(c);
+                        }
+                    }
+                }
+            }
+            text.append('"');
+        }
+
+        @Override
+        public String toString() {
+            return text.toString();
+        }
+    }
+}
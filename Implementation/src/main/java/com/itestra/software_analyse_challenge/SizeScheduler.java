@@ -0,0 +1,73 @@
+package com.itestra.software_analyse_challenge;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Processes files in parallel, the largest first (longest processing time first), so a few huge files do not start
+ * last and keep one thread busy while all others are idle at the end of the run.
+ * <p>
+ * Files smaller than the batch size are grouped into batches of about that size, so the many tiny files of a tree
+ * do not cost one task dispatch each. The workers run in the work-stealing {@link ForkJoinPool#commonPool()} and
+ * take the next batch from a shared cursor: the batches are taken strictly in size order, which forking and
+ * stealing halves of the files would not keep, and the lexers of large files can still fork their chunks into the
+ * same pool.
+ */
+public final class SizeScheduler {
+
+    /**
+     * Default size of a batch of small files, about the work of lexing one file of 64 KiB.
+     */
+    public static final long DEFAULT_BATCH_BYTES = 64 << 10;
+
+    private SizeScheduler() {
+    }
+
+    /**
+     * @param files Files to process
+     * @param batchBytes Files smaller than this are processed in batches of about this size
+     * @param consumer Called in parallel with every file
+     */
+    public static void forEach(List<File> files, long batchBytes, Consumer<File> consumer) {
+        long[] sizes = files.parallelStream().mapToLong(File::length).toArray();
+        // Sorts primitives: the inverted size in the high bits, so the largest file comes first, and the index in
+        // the low bits, so files of the same size keep the order of the list
+        int indexBits = 32 - Integer.numberOfLeadingZeros(Math.max(1, files.size() - 1));
+        long indexMask = (1L << indexBits) - 1;
+        long maxSize = (1L << (63 - indexBits)) - 1;
+        long[] order = new long[files.size()];
+        for (int i = 0; i < order.length; ++i) {
+            order[i] = (maxSize - Math.min(sizes[i], maxSize)) << indexBits | i;
+        }
+        Arrays.sort(order);
+        // Start of every batch in the order, and the end of the last batch
+        int[] batchStarts = new int[files.size() + 1];
+        int batches = 0;
+        long batchSize = 0;
+        for (int position = 0; position < order.length; ++position) {
+            if (batchSize == 0 || batchSize >= batchBytes) {
+                batchStarts[batches++] = position;
+                batchSize = 0;
+            }
+            batchSize += Math.max(1, sizes[(int) (order[position] & indexMask)]);
+        }
+        batchStarts[batches] = order.length;
+
+        int batchCount = batches;
+        AtomicInteger nextBatch = new AtomicInteger();
+        int workers = Math.min(batchCount, ForkJoinPool.getCommonPoolParallelism() + 1);
+        IntStream.range(0, workers).parallel().forEach(worker -> {
+            int batch;
+            while ((batch = nextBatch.getAndIncrement()) < batchCount) {
+                for (int position = batchStarts[batch]; position < batchStarts[batch + 1]; ++position) {
+                    consumer.accept(files.get((int) (order[position] & indexMask)));
+                }
+            }
+        });
+    }
+}
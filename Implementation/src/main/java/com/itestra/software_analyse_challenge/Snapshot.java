@@ -0,0 +1,158 @@
+package com.itestra.software_analyse_challenge;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Results of an analysis per file, which can be saved and compared with a later analysis.
+ * <p>
+ * Saved snapshots are text files with a header line, a line with the settings of the analysis
+ * ({@link Input#getAnalysisSettings()}) and one tab separated line per file: relative path, content hash, source
+ * lines, source lines without getters and block comments ({@code -1} if not counted), dependencies, imports, static
+ * imports, references, metrics ({@code name=value}) and slow file (size, milliseconds and {@code 1} if counted by the
+ * linear fallback), lists separated by {@code ,} and values escaped by {@link TextColumns}.
+ */
+public final class Snapshot {
+
+    private static final String HEADER = "# software analyse snapshot 2";
+    private static final int COLUMNS = 10;
+
+    /**
+     * @param contentHash {@link ContentHash} of the file
+     * @param facts {@link FileFacts} of the file
+     * @param dependencies Sorted projects the file depends on
+     */
+    public record Entry(String contentHash, FileFacts facts, List<String> dependencies) {
+    }
+
+    private final List<String> settings;
+    private final SortedMap<String, Entry> entries;
+
+    private Snapshot(List<String> settings, SortedMap<String, Entry> entries) {
+        this.settings = settings;
+        this.entries = entries;
+    }
+
+    /**
+     * @param analysis Analysis with content hashes
+     * @param input Settings of the analysis
+     * @return Snapshot of the analysis
+     */
+    public static Snapshot of(Analysis analysis, Input input) {
+        SortedMap<String, Entry> entries = new TreeMap<>();
+        FileTable fileTable = analysis.fileTable();
+        for (int id = 0; id < fileTable.size(); ++id) {
+            File file = fileTable.getFile(id);
+            entries.put(fileTable.getRelativePath(id), new Entry(
+                    analysis.contentHashes().getOrDefault(file, ContentHash.UNKNOWN), analysis.facts().get(file),
+                    analysis.graph().getDependencies(file).stream().sorted().toList()));
+        }
+        return new Snapshot(input.getAnalysisSettings(), entries);
+    }
+
+    /**
+     * @return Settings of the analysis, see {@link Input#getAnalysisSettings()}
+     */
+    public List<String> getSettings() {
+        return settings;
+    }
+
+    /**
+     * @return Entries by relative path, sorted
+     */
+    public SortedMap<String, Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * @return Facts of the files by their content hash, e.g. to skip files which did not change, without slow files
+     *         whose facts depend on the load of the machine
+     */
+    public Map<String, FileFacts> getFactsByContentHash() {
+        Map<String, FileFacts> facts = new HashMap<>(entries.size());
+        entries.values().stream()
+                .filter(entry -> !entry.contentHash().equals(ContentHash.UNKNOWN) && !entry.facts().isSlowFile())
+                .forEach(entry -> facts.put(entry.contentHash(), entry.facts()));
+        return facts;
+    }
+
+    public void write(File file) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file),
+                StandardCharsets.UTF_8))) {
+            writer.write(HEADER);
+            writer.newLine();
+            writer.write(String.join("\t", settings.stream().map(TextColumns::escape).toList()));
+            writer.newLine();
+            for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                FileFacts facts = e.getValue().facts();
+                List<String> metrics = new ArrayList<>(facts.getMetrics().size());
+                facts.getMetrics().forEach((name, value) -> metrics.add(name + "=" + value));
+                writer.write(String.join("\t", TextColumns.escape(e.getKey()), e.getValue().contentHash(),
+                        String.valueOf(facts.getLineNumber()), String.valueOf(facts.getLineNumberBonus()),
+                        TextColumns.join(e.getValue().dependencies()), TextColumns.join(facts.getImports()),
+                        TextColumns.join(facts.getStaticImports()), TextColumns.join(facts.getReferences()),
+                        TextColumns.join(metrics), slowFile(facts)));
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * @param file Snapshot written by {@link #write(File)}
+     * @return The snapshot
+     * @throws IOException If the file cannot be read or is no snapshot
+     */
+    public static Snapshot read(File file) throws IOException {
+        List<String> settings;
+        SortedMap<String, Entry> entries = new TreeMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file),
+                StandardCharsets.UTF_8))) {
+            if (!HEADER.equals(reader.readLine())) {
+                throw new IOException(file + " is no snapshot");
+            }
+            String settingsLine = reader.readLine();
+            if (settingsLine == null) {
+                throw new IOException("Snapshot " + file + " has no settings");
+            }
+            try {
+                settings = Arrays.stream(settingsLine.split("\t", -1)).map(TextColumns::unescape).toList();
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid settings in snapshot " + file + ": " + settingsLine, e);
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] columns = line.split("\t", -1);
+                if (columns.length != COLUMNS) {
+                    throw new IOException("Invalid line in snapshot " + file + ": " + line);
+                }
+                try {
+                    FileFacts facts = new FileFacts(TextColumns.split(columns[5]), TextColumns.split(columns[6]))
+                            .references(TextColumns.split(columns[7]));
+                    int lineNumber = Integer.parseInt(columns[2]);
+                    if (lineNumber != -1) {
+                        facts.lineNumbers(lineNumber, Integer.parseInt(columns[3]));
+                    }
+                    for (String metric : TextColumns.split(columns[8])) {
+                        int separator = metric.lastIndexOf('=');
+                        facts.metric(metric.substring(0, separator), Integer.parseInt(metric.substring(separator + 1)));
+                    }
+                    if (!columns[9].isEmpty()) {
+                        String[] slow = columns[9].split(",");
+                        facts.slowFile(Long.parseLong(slow[0]), Long.parseLong(slow[1]), slow[2].equals("1"));
+                    }
+                    entries.put(TextColumns.unescape(columns[0]),
+                            new Entry(columns[1], facts, TextColumns.split(columns[4])));
+                } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                    throw new IOException("Invalid line in snapshot " + file + ": " + line, e);
+                }
+            }
+        }
+        return new Snapshot(settings, entries);
+    }
+
+    private static String slowFile(FileFacts facts) {
+        return facts.isSlowFile() ? facts.getSizeBytes() + "," + facts.getElapsedMillis() + ","
+                + (facts.isLinearFallback() ? "1" : "0") : "";
+    }
+}
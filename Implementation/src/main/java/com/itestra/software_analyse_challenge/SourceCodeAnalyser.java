@@ -3,11 +3,18 @@ package com.itestra.software_analyse_challenge;
 import org.apache.commons.cli.*;
 
 import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.util.*;
-import java.util.regex.MatchResult;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class SourceCodeAnalyser {
 
@@ -15,239 +22,375 @@ public class SourceCodeAnalyser {
      * Your implementation
      *
      * @param input {@link Input} object.
-     * @return mapping from filename -> {@link Output} object.
+     * @return mapping from relative path (e.g. {@code spark/Request.java}) -> {@link Output} object.
      */
     public static Map<String, Output> analyse(Input input) {
-        List<File> files = getFilesInDirectory(input.getInputDirectory());
-
-        /*
-         * Assumption: Directory is always the java source directory
-         * where the first level of subdirectories are the projects / root packages to consider.
-         */
-        List<String> rootPackages = Arrays.stream(Objects.requireNonNull(
-                    input.getInputDirectory().listFiles(File::isDirectory)
-                )).map(File::getName).toList();
-
-        Map<File, List<String>> imports = new HashMap<>(files.size());
-        Map<File, Set<String>> directDependencies = new HashMap<>(files.size());
-        Map<File, Set<String>> indirectDependencies = new HashMap<>(files.size());
-        Map<File, List<File>> dependents = new HashMap<>(files.size());
-        for (File file: files) {
-            indirectDependencies.put(file, new HashSet<>(rootPackages.size()));
-            dependents.put(file, new LinkedList<>());
+        return analyseTree(input).toOutput();
+    }
+
+    /**
+     * Builds the import graph of the input directory, e.g. for queries.
+     *
+     * @param input {@link Input} object.
+     * @return {@link DependencyGraph} of all files in the input directory
+     */
+    public static DependencyGraph analyseDependencyGraph(Input input) {
+        return analyseTree(input).graph();
+    }
+
+    /**
+     * Reads all files of the input directory once and derives the dependency graph and the roll-up from the facts.
+     *
+     * @param input {@link Input} object.
+     * @return {@link Analysis} of the input directory
+     */
+    public static Analysis analyseTree(Input input) {
+        boolean hash = input.getSnapshotFile() != null || input.getFactStore() != null;
+        return analyseTree(input.getInputDirectory(), input, hash ? Collections.emptyMap() : null);
+    }
+
+    /**
+     * Reads all files of a directory once and derives the dependency graph and the roll-up from the facts.
+     *
+     * @param inputDirectory Directory to analyse
+     * @param input {@link Input} object with the settings of the analysis
+     * @param knownFacts Facts of files by their {@link ContentHash}, files with one of these hashes (or in the
+     *                   {@link FactStore} of the input) are not scanned; {@code null} to read all files without
+     *                   computing their hashes
+     * @return {@link Analysis} of the directory
+     */
+    public static Analysis analyseTree(File inputDirectory, Input input, Map<String, FileFacts> knownFacts) {
+        return analyseTree(inputDirectory, input, knownFacts, null);
+    }
+
+    /**
+     * Reads all files of a directory once and derives the dependency graph and the roll-up from the facts.
+     *
+     * @param inputDirectory Directory to analyse
+     * @param input {@link Input} object with the settings of the analysis
+     * @param knownFacts Facts of files by their {@link ContentHash}, files with one of these hashes (or in the
+     *                   {@link FactStore} of the input) are not scanned; {@code null} to read all files without
+     *                   computing their hashes
+     * @param earlierIndex {@link ClassIndex} of an earlier analysis, reused if the directory declares the same
+     *                     types, see {@link ClassIndex#reuse(List, ProjectMapping)}; {@code null} to build one
+     * @return {@link Analysis} of the directory
+     */
+    public static Analysis analyseTree(File inputDirectory, Input input, Map<String, FileFacts> knownFacts,
+            ClassIndex earlierIndex) {
+        long start = System.nanoTime();
+        List<File> files = getFilesInDirectory(inputDirectory);
+        ProjectMapping projectMapping = new ProjectMapping(input.getProjectDefinitions(), inputDirectory, files);
+        ClassIndex classIndex = earlierIndex != null ? earlierIndex.reuse(files, projectMapping) : null;
+        if (classIndex == null) {
+            classIndex = new ClassIndex(files, projectMapping);
         }
-        for (File file : files) {
-            imports.put(file, getFileImports(file));
-            /*
-             * Assumption: Directory is always the java source directory
-             * where the first level of subdirectories are the projects / root packages to consider.
-             */
-            List<String> otherRootPackages = rootPackages.stream()
-                    .filter(p -> !file.getPath().startsWith(input.getInputDirectory()
-                            + File.separator + p.replaceAll("\\.", File.separator)))
-                    .toList();
-            directDependencies.put(file, analyseDirectDependencies(imports.get(file), otherRootPackages));
-            imports.get(file).forEach(imported -> {
-                File dependency = new File(input.getInputDirectory() + File.separator
-                        + imported.replaceAll("\\.", File.separator) + ".java");
-                if (dependents.containsKey(dependency)) {
-                    dependents.get(dependency).add(file);
-                }
-            });
+        Map<File, String> contentHashes = knownFacts == null ? null : new ConcurrentHashMap<>(files.size());
+        Map<File, FileFacts> facts;
+        if (input.getJournalFile() == null) {
+            facts = scanFiles(files, input, classIndex, contentHashes,
+                    knownFacts == null ? Collections.emptyMap() : knownFacts, null);
+        } else {
+            try (Journal journal = Journal.open(input.getJournalFile(), inputDirectory, input, input.isResume())) {
+                facts = scanFiles(files, input, classIndex, contentHashes,
+                        knownFacts == null ? Collections.emptyMap() : knownFacts, journal);
+            } catch (IOException | UncheckedIOException e) {
+                throw new IllegalStateException("Could not write the journal " + input.getJournalFile(), e);
+            }
         }
+        long graphStart = System.nanoTime();
+        FileTable fileTable = new FileTable(inputDirectory, files);
+        DependencyGraph graph = buildDependencyGraph(fileTable, files, facts, classIndex, projectMapping);
+        RollUp rollUp = new RollUp(inputDirectory, files, projectMapping);
         for (File file : files) {
-            if (!directDependencies.get(file).isEmpty()) {
-                addDependenciesToDependents(file, indirectDependencies, directDependencies, dependents);
-            }
+            FileFacts fileFacts = facts.get(file);
+            rollUp.update(file, fileFacts.getLineNumber(), fileFacts.getLineNumberBonus(), graph.getImportedFiles(file));
+        }
+        Telemetry.record(Telemetry.Phase.GRAPH, graphStart);
+        Telemetry.GRAPH_HEAP_BYTES.set(graph.getHeapBytes());
+        if (input.getFactStore() != null) {
+            input.getFactStore().evict();
         }
-        // Put all dependencies together
-        indirectDependencies.forEach((file, set) -> set.addAll(directDependencies.get(file)));
+        Telemetry.record(Telemetry.Phase.ANALYSIS, start);
+        return new Analysis(fileTable, facts, contentHashes == null ? Collections.emptyMap() : contentHashes, graph,
+                rollUp, classIndex);
+    }
 
+    /**
+     * Reads every file once, in parallel, unless its facts are known by its content hash.
+     * The hash is computed from the same read as the scan, so a file whose facts are not known is not read again.
+     * Files with facts in the journal are not scanned either, and the facts of the scanned files are journaled.
+     * The largest files are scanned first, see {@link SizeScheduler}.
+     * With a read-ahead depth, a {@link ReadAhead} pool reads the files in locality order ahead of the lexing threads.
+     *
+     * @param contentHashes Map to put the {@link ContentHash} of every file into, {@code null} to neither compute
+     *                      the hashes nor look up any facts by them
+     */
+    static Map<File, FileFacts> scanFiles(List<File> files, Input input, ClassIndex classIndex,
+            Map<File, String> contentHashes, Map<String, FileFacts> knownFacts, Journal journal) {
+        // The store only has source lines and all imports of files decoded with the default charset detection
+        FactStore factStore = input.getFactStore() != null && !input.isSkipSLOC() && !input.isHeaderOnly()
+                && input.getMetrics().isEmpty() && !input.isSymbolReferences() && !input.isDuplicates()
+                && input.getCharset() == null ? input.getFactStore() : null;
+        Map<File, FileFacts> facts = new ConcurrentHashMap<>(files.size());
+        List<File> unjournaledFiles = journal == null ? files : files.parallelStream().filter(file -> {
+            FileFacts journaled = journal.get(file);
+            if (journaled == null) {
+                return true;
+            }
+            facts.put(file, journaled);
+            if (contentHashes != null) {
+                contentHashes.put(file, ContentHash.of(file));
+            }
+            return false;
+        }).toList();
+        BiConsumer<File, byte[]> scan = (file, readAhead) -> {
+            byte[] content = readAhead;
+            String contentHash = ContentHash.UNKNOWN;
+            if (contentHashes != null) {
+                long hashStart = System.nanoTime();
+                if (content == null) {
+                    content = readAllBytes(file);
+                }
+                contentHash = content == null ? ContentHash.UNKNOWN : ContentHash.of(content);
+                contentHashes.put(file, contentHash);
+                FileFacts known = knownFacts.get(contentHash);
+                if (known == null && factStore != null) {
+                    known = factStore.get(contentHash);
+                }
+                Telemetry.record(Telemetry.Phase.HASH, hashStart);
+                if (!contentHash.equals(ContentHash.UNKNOWN)) {
+                    Telemetry.increment(known != null ? Telemetry.CACHE_HITS : Telemetry.CACHE_MISSES);
+                }
+                if (known != null) {
+                    facts.put(file, known);
+                    return;
+                }
+            }
+            long start = System.nanoTime();
+            FileFacts fileFacts = scanFile(file, content, input, classIndex);
+            Telemetry.record(Telemetry.Phase.SCAN_FILE, start);
+            Telemetry.increment(Telemetry.FILES_ANALYSED);
+            if (factStore != null && fileFacts.getLineNumber() >= 0) {
+                factStore.put(contentHash, fileFacts);
+            }
+            if (journal != null) {
+                journal.record(file, fileFacts);
+            }
+            facts.put(file, fileFacts);
+        };
+        if (input.getReadAheadDepth() > 0) {
+            // Large files are lexed in chunks and read by the lexer
+            ReadAhead.forEach(unjournaledFiles, input.getReadAheadOrder(), input.getReadAheadDepth(),
+                    input.isSkipSLOC() ? Long.MAX_VALUE : input.getParallelLexingThreshold(), scan);
+        } else {
+            SizeScheduler.forEach(unjournaledFiles, SizeScheduler.DEFAULT_BATCH_BYTES,
+                    file -> scan.accept(file, null));
+        }
+        return facts;
+    }
 
-        // For each file put one Output object to your result map.
-        Map<String, Output> output = new HashMap<>(files.size());
-        for (File file : files) {
-            output.put(file.getName(), new Output(analyseSLOC(file, false),
-                    indirectDependencies.get(file).stream().toList()));
-            // You can extend the Output object using the functions lineNumberBonus(int), if you did
-            // the bonus exercise.
-            output.get(file.getName()).lineNumberBonus(analyseSLOC(file, true));
+    /**
+     * @return Content of the file, {@code null} if it cannot be read, so the scan reports the error
+     */
+    private static byte[] readAllBytes(File file) {
+        try {
+            return Files.readAllBytes(file.toPath());
+        } catch (IOException e) {
+            return null;
         }
-        return output;
     }
 
+    /**
+     * 2. Analyze the project dependencies
+     *
+     * @param fileTable Ids of the files of the input directory
+     * @param files All files of the input directory, indexed by their ids
+     * @param facts {@link FileFacts} of every file
+     * @param classIndex {@link ClassIndex} of the files
+     * @return Graph of the imports between the files with the projects every file directly depends on
+     */
+    private static DependencyGraph buildDependencyGraph(FileTable fileTable, List<File> files,
+            Map<File, FileFacts> facts, ClassIndex classIndex, ProjectMapping projectMapping) {
+        List<BitSet> directDependencies = new ArrayList<>(files.size());
+        int[][] successors = new int[files.size()][];
+        for (int id = 0; id < files.size(); ++id) {
+            File file = files.get(id);
+            List<String> imports = facts.get(file).getImports();
+            List<String> staticImports = facts.get(file).getStaticImports();
+            List<String> references = facts.get(file).getReferences();
+            int ownProject = projectMapping.getProject(id);
+            BitSet dependencies = new BitSet(projectMapping.getProjects().size());
+            analyseDirectDependencies(imports, projectMapping, ownProject, dependencies);
+            analyseDirectDependencies(staticImports, projectMapping, ownProject, dependencies);
+            analyseDirectDependencies(references, projectMapping, ownProject, dependencies);
+            directDependencies.add(dependencies);
+            successors[id] = Stream.of(
+                        imports.stream().flatMap(imported -> classIndex.resolve(imported).stream()),
+                        staticImports.stream().flatMap(imported -> classIndex.resolveStatic(imported).stream()),
+                        references.stream().flatMap(referenced -> classIndex.resolve(referenced).stream()))
+                    .flatMap(resolved -> resolved)
+                    .mapToInt(fileTable::getId)
+                    .distinct()
+                    .toArray();
+        }
+        return new DependencyGraph(fileTable, projectMapping, directDependencies, successors);
+    }
 
     /**
      * 1. Analyze the number of source lines <br>
-     * OR <br>
+     * AND <br>
      * 3. BONUS: Analyze the number of source lines excluding getters and block comments
+     * <p>
+     * Reads a file once: its imports, source lines and metrics are all collected in a single scan within the
+     * time budget of the file. If the budget is exceeded, the file is reported as slow file. With the linear
+     * fallback, the scan goes on without the lexer, so only the imports and source lines are counted to the end,
+     * otherwise only the imports are read.
      *
      * @param file File to analyse
-     * @param enhanced If True, further excluding of lines for the task 3
-     *                 otherwise counting of task 1.
-     * @return Line number of the given file
+     * @param content Content of the file if it was read ahead, {@code null} to read the file
+     * @param input {@link Input} object with the time budget, metrics and the fallback and lexing settings
+     * @param classIndex {@link ClassIndex} to look up references to types in, if enabled
+     * @return {@link FileFacts} of the file
      */
-    private static int analyseSLOC(File file, boolean enhanced) {
-        if (file.canRead()) {
-            int lineNumber = 0;
-            boolean insideMultilineString = false;
-            boolean multilineStringFirstLine = false;
-            // Does a multiline string start? (Not inside a single line comment or start of block comment!)
-            Pattern multilineStringStart = Pattern.compile(
-                    enhanced ? "^((?!/[/*]).)*\"\"\".*$" : "^((?!//).)*\"\"\".*$");
-            // Does a multiline string end? (Cannot be inside a single line comment)
-            Pattern multilineStringEnd = Pattern.compile("^.*\"\"\".*$");
-
-            boolean insideBlockComment = false;
-            // Does a block comment start? (And no line comment i.e., //* or // ... /*)
-            Pattern blockCommentStart = Pattern.compile("^(((?!//).)*[^/]|)(?<comment>/\\*).*$");
-            // Does a block commend end? (Cannot be inside a single line comment)
-            Pattern blockCommentEnd = Pattern.compile("^.*(?<comment>\\*/).*$");
-
-            Pattern[] getterLines = {
-                    Pattern.compile("^public .* get.*\\(\\) *\\{$"),
-                    Pattern.compile("^return *(this\\.)?.*;$"),
-                    Pattern.compile("^}$")
-            };
-            int expectedGetterLine = 0;
-
-            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    line = line.trim();
-                    if (!line.isEmpty()) {
-                        MatchResult blockCommentStartMatch = null;
-                        if (!insideMultilineString && !insideBlockComment) {
-                            // Check for multiline string first, as it consider not to be in a block comment
-                            if (multilineStringStart.matcher(line).matches()) {
-                                insideMultilineString = true;
-                                multilineStringFirstLine = true;
-                            } else if (enhanced) {
-                                Matcher blockCommentStartMatcher = blockCommentStart.matcher(line);
-                                if (blockCommentStartMatcher.matches()) {
-                                    blockCommentStartMatch = blockCommentStartMatcher.toMatchResult();
-                                    insideBlockComment = true;
-                                    if (blockCommentStartMatch.start("comment") != 0) {
-                                        // block comment starts after a source code line --> count this line
-                                        ++lineNumber;
-
-                                    }
-                                }
-                            }
-                        }
-                        if (!insideBlockComment) {
-                            // "lines containing comments" --> Line which is only a comment
-                            if (!(line.startsWith("//") && !insideMultilineString)) {
-                                ++lineNumber;
-                            }
-                            if (!insideMultilineString) {
-                                if (getterLines[expectedGetterLine].matcher(line).matches()) {
-                                    ++expectedGetterLine;
-                                    if (expectedGetterLine == getterLines.length) {
-                                        // getter method was found --> 3 lines were counted too much
-                                        lineNumber -= 3;
-                                        expectedGetterLine = 0;
-                                    }
-                                } else {
-                                    expectedGetterLine = 0;
-                                }
-                            }
-                        }
-                        if (insideMultilineString && !multilineStringFirstLine
-                                && multilineStringEnd.matcher(line).matches()) {
-                            insideMultilineString = false;
-                        }
-                        if (multilineStringFirstLine) {
-                            multilineStringFirstLine = false;
-                        }
-                        if (insideBlockComment) {
-                            Matcher blockCommentEndMatcher = blockCommentEnd.matcher(line);
-                            if (blockCommentEndMatcher.matches()) {
-                                MatchResult blockCommentEndMatch = blockCommentEndMatcher.toMatchResult();
-                            /*/ A block comment does not end if it shares its * with the start comment,
-                                but a / before the end comment in general is okay, see here: /*/
-                                if (!(blockCommentStartMatch != null && blockCommentStartMatch.end("comment")
-                                        == blockCommentEndMatch.start("comment"))) {
-                                    insideBlockComment = false;
-                                    if (blockCommentEndMatch.end("comment") == line.length() - 1) {
-                                        /*/ block comment before source code line --> count this line /*/
-                                        ++lineNumber;
-                                    }
-                                }
-                            }
-                        }
-                    }
-                }
-            } catch (FileNotFoundException e) {
-                // The given Output type does not consider the case of "No analyse possible".
-                return -37;
-            } catch (IOException e) {
-                // The given Output type does not consider the case of "No analyse possible".
-                return -73;
+    private static FileFacts scanFile(File file, byte[] content, Input input, ClassIndex classIndex) {
+        if (content == null && !file.canRead()) {
+            // The given Output type does not consider the case of "No analyse possible".
+            return errorFacts(-42, input);
+        }
+        List<Metric> metrics = input.getMetrics().stream().map(MetricProvider::create).toList();
+        ImportCollector importCollector = new ImportCollector(input.isHeaderOnly());
+        List<LineVisitor> visitors = new ArrayList<>();
+        visitors.add(importCollector);
+        ReferenceCollector referenceCollector = input.isSymbolReferences()
+                ? new ReferenceCollector(classIndex, classIndex.getType(file)) : null;
+        DuplicateCollector duplicateCollector = input.isDuplicates() ? new DuplicateCollector() : null;
+        List<TokenVisitor> tokenVisitors = new ArrayList<>(metrics);
+        if (referenceCollector != null) {
+            tokenVisitors.add(referenceCollector);
+        }
+        List<LineVisitor> lexingVisitors = new ArrayList<>();
+        if (duplicateCollector != null) {
+            lexingVisitors.add(duplicateCollector);
+            tokenVisitors.add(duplicateCollector);
+        }
+        if (!tokenVisitors.isEmpty()) {
+            lexingVisitors.add(new JavaLexer(tokenVisitors));
+        }
+        visitors.addAll(lexingVisitors);
+        Deadline deadline = input.isLinearFallback() && !input.isSkipSLOC()
+                ? Deadline.after(input.getFileTimeBudgetMillis(), () -> visitors.removeAll(lexingVisitors))
+                : Deadline.after(input.getFileTimeBudgetMillis());
+        FileScanner.Text text = null;
+        try {
+            FileFacts facts;
+            if (input.isSkipSLOC()) {
+                scan(file, content, input.getCharset(), visitors, deadline);
+                facts = new FileFacts(importCollector.getImports(), importCollector.getStaticImports());
+            } else if (file.length() >= input.getParallelLexingThreshold()) {
+                // Very large file --> lex chunks of the file in parallel, the other visitors share the read
+                text = content != null ? FileScanner.read(content, input.getCharset(), deadline)
+                        : FileScanner.read(file, input.getCharset(), deadline);
+                int[] lineNumbers = ParallelSlocCounter.count(text, deadline);
+                FileScanner.lines(text, visitors, deadline);
+                facts = new FileFacts(importCollector.getImports(), importCollector.getStaticImports()).lineNumbers(lineNumbers[0], lineNumbers[1]);
+            } else {
+                LinearSlocCounter lineCounter = new LinearSlocCounter(false);
+                LinearSlocCounter lineCounterBonus = new LinearSlocCounter(true);
+                visitors.add(lineCounter);
+                visitors.add(lineCounterBonus);
+                scan(file, content, input.getCharset(), visitors, deadline);
+                facts = new FileFacts(importCollector.getImports(), importCollector.getStaticImports())
+                        .lineNumbers(lineCounter.getLineNumber(), lineCounterBonus.getLineNumber());
             }
-            return lineNumber;
-        } else {
+            if (deadline.isExceeded()) {
+                // The lexer was dropped, its metrics, references and fingerprint are incomplete
+                Telemetry.increment(Telemetry.SLOW_FILES);
+                return facts.slowFile(file.length(), deadline.getElapsedMillis(), true);
+            }
+            if (referenceCollector != null) {
+                facts.references(referenceCollector.getReferences());
+            }
+            if (duplicateCollector != null) {
+                facts.fingerprint(duplicateCollector.getFingerprint());
+            }
+            for (int i = 0; i < metrics.size(); ++i) {
+                facts.metric(input.getMetrics().get(i).getName(), metrics.get(i).getValue());
+            }
+            return facts;
+        } catch (FileNotFoundException | NoSuchFileException e) {
             // The given Output type does not consider the case of "No analyse possible".
-            return -42;
+            return errorFacts(-37, input);
+        } catch (IOException e) {
+            // The given Output type does not consider the case of "No analyse possible".
+            return errorFacts(-73, input);
+        } catch (Deadline.TimeBudgetExceededException e) {
+            return scanSlowFile(file, content, text, input, e.getElapsedMillis());
+        }
+    }
+
+    private static void scan(File file, byte[] content, Charset charset, List<LineVisitor> visitors,
+            Deadline deadline) throws IOException {
+        if (content == null) {
+            FileScanner.scan(file, charset, visitors, deadline);
+        } else {
+            FileScanner.scan(content, charset, visitors, deadline);
         }
     }
 
     /**
-     * 2. Analyze the project dependencies
+     * Reads only the imports of a file which exceeded its time budget, without time budget. They are read from the
+     * content or text of the first scan if it is in memory, otherwise only the header of the file is read again.
      *
-     * @param fileImports Import of a File which dependencies are of interest
-     * @param packages List of package names
-     * @return {@code packages} filtered that only the one remains on which {@code file} directly depends on
+     * @param file File to analyse
+     * @param content Content of the file if it was read ahead, {@code null} otherwise
+     * @param text Text of the file if it was read into memory before the time budget was exceeded, {@code null}
+     *             otherwise
+     * @param input {@link Input} object
+     * @param elapsedMillis Time spent until the first scan was interrupted
+     * @return {@link FileFacts} of the file
      */
-    private static Set<String> analyseDirectDependencies(List<String> fileImports, List<String> packages) {
-            Set<String> dependencies = new HashSet<>(packages.size());
-            for (String fileImport : fileImports) {
-                for (String pkg : packages) {
-                    if (!dependencies.contains(pkg) && fileImport.startsWith(pkg)) {
-                        dependencies.add(pkg);
-                    }
-                }
-                // All packages already a dependency?
-                if (dependencies.size() == packages.size()) {
-                    break;
-                }
+    private static FileFacts scanSlowFile(File file, byte[] content, FileScanner.Text text, Input input,
+            long elapsedMillis) {
+        Telemetry.increment(Telemetry.SLOW_FILES);
+        ImportCollector importCollector = new ImportCollector(true);
+        try {
+            if (text != null) {
+                FileScanner.lines(text, List.of(importCollector), Deadline.NONE);
+            } else {
+                scan(file, content, input.getCharset(), List.of(importCollector), Deadline.NONE);
             }
-            return dependencies;
+        } catch (IOException e) {
+            // The given Output type does not consider the case of "No analyse possible".
+            return errorFacts(-73, input).slowFile(file.length(), elapsedMillis, false);
+        }
+        FileFacts facts = new FileFacts(importCollector.getImports(), importCollector.getStaticImports());
+        if (!input.isSkipSLOC()) {
+            // The given Output type does not consider the case of "No analyse possible".
+            facts.lineNumbers(-13, -13);
+        }
+        return facts.slowFile(file.length(), elapsedMillis, false);
     }
 
-    private static void addDependenciesToDependents(File file, Map<File, Set<String>> indirectDependencies,
-            Map<File, Set<String>> directDependencies, Map<File, List<File>> dependents) {
-        for (File dependent : dependents.get(file)) {
-            indirectDependencies.get(dependent).addAll(directDependencies.get(file));
-            addDependenciesToDependents(dependent, indirectDependencies, directDependencies, dependents);
-        }
+    private static FileFacts errorFacts(int errorCode, Input input) {
+        FileFacts facts = new FileFacts(Collections.emptyList(), Collections.emptyList());
+        return input.isSkipSLOC() ? facts : facts.lineNumbers(errorCode, errorCode);
     }
+
     /**
-     * Reads the imports from a Java file
+     * 2. Analyze the project dependencies
      *
-     * @param file to consider
-     * @return All imported classes in this file
+     * @param fileImports Imported names of a file
+     * @param projectMapping Classifies the imported names
+     * @param ownProject Project of the file, which is no dependency
+     * @param dependencies Projects the file depends on, the projects of the imports are added
      */
-    private static List<String> getFileImports(File file) {
-        if (file.canRead()) {
-            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-                List<String> imports = new LinkedList<>();
-                Pattern importRegEx = Pattern.compile("^ *import ([a-zA-Z_.]+); *$");
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    Matcher matcher = importRegEx.matcher(line);
-                    if (matcher.find()) {
-                        imports.add(matcher.group(1));
-                    }
-                }
-                return imports;
-            } catch (IOException e) {
-                // The given Output type does not consider the case of "No analyse possible".
-                return Collections.emptyList();
+    private static void analyseDirectDependencies(List<String> fileImports, ProjectMapping projectMapping,
+            int ownProject, BitSet dependencies) {
+        for (String fileImport : fileImports) {
+            int project = projectMapping.classify(fileImport);
+            if (project >= 0 && project != ownProject) {
+                dependencies.set(project);
             }
-        } else {
-            // The given Output type does not consider the case of "No analyse possible".
-            return Collections.emptyList();
         }
     }
 
@@ -256,7 +399,7 @@ public class SourceCodeAnalyser {
      * @param directory The directory to look at
      * @return The List of Files found (without directories)
      */
-    private static List<File> getFilesInDirectory(File directory) {
+    static List<File> getFilesInDirectory(File directory) {
         return Arrays.stream(Objects.requireNonNull(directory.listFiles()))
             .<File>mapMulti((f, c) -> {
                 if (f.isDirectory()) {
@@ -281,41 +424,391 @@ public class SourceCodeAnalyser {
             .required(false)
             .build();
 
+    public static final Option FILE_TIME_BUDGET = Option.builder("b")
+            .longOpt("file-time-budget")
+            .hasArg(true)
+            .desc("time budget per file in milliseconds, 0 for no budget")
+            .required(false)
+            .build();
+
+    public static final Option LINEAR_FALLBACK = Option.builder()
+            .longOpt("linear-fallback")
+            .hasArg(false)
+            .desc("count the source lines of files exceeding their time budget to the end, without lexing them for "
+                    + "metrics, symbol references and duplicates")
+            .required(false)
+            .build();
+
+    public static final Option PARALLEL_LEXING_THRESHOLD = Option.builder()
+            .longOpt("parallel-lexing-threshold")
+            .hasArg(true)
+            .desc("minimum size in bytes of files which are split into chunks lexed in parallel")
+            .required(false)
+            .build();
+
+    public static final String DEFAULT_PARALLEL_LEXING_THRESHOLD = String.valueOf(16L << 20);
+
+    public static final Option HEADER_ONLY = Option.builder()
+            .longOpt("header-only")
+            .hasArg(false)
+            .desc("read imports only up to the first type declaration of a file")
+            .required(false)
+            .build();
+
+    public static final Option SKIP_SLOC = Option.builder()
+            .longOpt("skip-sloc")
+            .hasArg(false)
+            .desc("do not count source lines, only analyse the dependencies")
+            .required(false)
+            .build();
+
+    public static final Option SYMBOL_REFERENCES = Option.builder()
+            .longOpt("symbol-references")
+            .hasArg(false)
+            .desc("also detect dependencies on types of the same package and on fully qualified type names")
+            .required(false)
+            .build();
+
+    public static final Option ROLL_UP = Option.builder()
+            .longOpt("roll-up")
+            .hasArg(false)
+            .desc("print the totals of every package, project and the whole tree")
+            .required(false)
+            .build();
+
+    public static final Option EXPORT = Option.builder("e")
+            .longOpt("export")
+            .hasArg(true)
+            .desc("export the dependency graph to a .dot, .graphml or .bin (binary edge list) file")
+            .required(false)
+            .build();
+
+    public static final Option EXPORT_LEVEL = Option.builder()
+            .longOpt("export-level")
+            .hasArg(true)
+            .desc("graph to export: file (default) or project")
+            .required(false)
+            .build();
+
+    public static final Option SNAPSHOT = Option.builder("s")
+            .longOpt("snapshot")
+            .hasArg(true)
+            .desc("save a snapshot of the analysis to a file, to compare it later with the diff command")
+            .required(false)
+            .build();
+
+    public static final Option FACT_STORE = Option.builder()
+            .longOpt("fact-store")
+            .hasArg(true)
+            .desc("directory of a store of file facts by content, shared by runs on other trees")
+            .required(false)
+            .build();
+
+    public static final Option FACT_STORE_SIZE = Option.builder()
+            .longOpt("fact-store-size")
+            .hasArg(true)
+            .desc("size limit of the fact store in MiB, least recently used facts are evicted")
+            .required(false)
+            .build();
+
+    public static final String DEFAULT_FACT_STORE_SIZE = "256";
+
+    public static final Option JOURNAL = Option.builder()
+            .longOpt("journal")
+            .hasArg(true)
+            .desc("journal the facts of the analysed files to a file, so an interrupted analysis can be resumed")
+            .required(false)
+            .build();
+
+    public static final Option RESUME = Option.builder()
+            .longOpt("resume")
+            .hasArg(false)
+            .desc("resume the analysis from the journal, only reading files which are not journaled or changed")
+            .required(false)
+            .build();
+
+    public static final Option DUPLICATES = Option.builder()
+            .longOpt("duplicates")
+            .hasArg(false)
+            .desc("print exact and near-duplicate files")
+            .required(false)
+            .build();
+
+    public static final Option DUPLICATE_THRESHOLD = Option.builder()
+            .longOpt("duplicate-threshold")
+            .hasArg(true)
+            .desc("minimum estimated similarity of near-duplicate files between 0 and 1")
+            .required(false)
+            .build();
+
+    public static final String DEFAULT_DUPLICATE_THRESHOLD = "0.8";
+
+    private static final int TELEMETRY_INTERVAL_SECONDS = 10;
+
+    public static final Option OPENMETRICS_FILE = Option.builder()
+            .longOpt("openmetrics-file")
+            .hasArg(true)
+            .desc("file to write the throughput and cache statistics to in the OpenMetrics text format, "
+                    + "every " + TELEMETRY_INTERVAL_SECONDS + " seconds and at the end of the run")
+            .required(false)
+            .build();
+
+    public static final Option READ_AHEAD = Option.builder()
+            .longOpt("read-ahead")
+            .hasArg(true)
+            .desc("number of reads in flight ahead of the lexing threads, for cold caches, default: 0 (every "
+                    + "lexing thread reads its own files)")
+            .required(false)
+            .build();
+
+    public static final Option IO_ORDER = Option.builder()
+            .longOpt("io-order")
+            .hasArg(true)
+            .desc("order of the reads ahead: tree (by directory, default) or inode (approximates the order on disk)")
+            .required(false)
+            .build();
+
+    public static final Option CHARSET = Option.builder()
+            .longOpt("charset")
+            .hasArg(true)
+            .desc("charset of files with non-ASCII characters and without byte order mark, default: UTF-8, "
+                    + "files which are no valid UTF-8 are read as ISO-8859-1")
+            .required(false)
+            .build();
+
+    public static final Option PROJECTS = Option.builder()
+            .longOpt("projects")
+            .hasArg(true)
+            .desc("project definitions name=package.prefix or name=source/root (comma separated, @file or "
+                    + ProjectMapping.AUTO + " for the modules of pom.xml and settings.gradle), "
+                    + "default: the directories directly in the input directory")
+            .required(false)
+            .build();
+
+    public static final Option RULES = Option.builder()
+            .longOpt("rules")
+            .hasArg(true)
+            .desc("architecture rules between projects, from!->to forbids a dependency, from->to allows only the "
+                    + "listed dependencies of from, * for every project (comma separated or @file)")
+            .required(false)
+            .build();
+
+    public static final Option METRICS = Option.builder("m")
+            .longOpt("metrics")
+            .hasArg(true)
+            .desc("comma separated metrics to compute additionally, e.g., methods,complexity,todos,long-lines or all")
+            .required(false)
+            .build();
+
     public static final String DEFAULT_INPUT_DIR = String.join(File.separator , Arrays.asList("..", "CodeExamples", "src", "main", "java"));
 
-    private static Input parseInput(String[] args) {
+    static Input parseInput(String[] args) {
         Options options = new Options();
-        Collections.singletonList(INPUT_DIR).forEach(options::addOption);
+        Arrays.asList(INPUT_DIR, FILE_TIME_BUDGET, LINEAR_FALLBACK, PARALLEL_LEXING_THRESHOLD,
+                HEADER_ONLY, SKIP_SLOC, SYMBOL_REFERENCES, ROLL_UP, EXPORT, EXPORT_LEVEL, SNAPSHOT, FACT_STORE,
+                FACT_STORE_SIZE, JOURNAL, RESUME, DUPLICATES, DUPLICATE_THRESHOLD, PROJECTS, RULES, OPENMETRICS_FILE,
+                READ_AHEAD, IO_ORDER, CHARSET, METRICS).forEach(options::addOption);
         CommandLineParser parser = new DefaultParser();
-        HelpFormatter formatter = new HelpFormatter();
         try {
             CommandLine commandLine = parser.parse(options, args);
             return new Input(commandLine);
         } catch (ParseException e) {
+            // Only created if needed, it is not part of the class loading of a regular run
+            HelpFormatter formatter = new HelpFormatter();
             formatter.printHelp("help", options);
             throw new IllegalStateException("Could not parse Command Line", e);
         }
     }
 
-    private static void printOutput(Map<String, Output> outputMap) {
+    private static void printOutput(Map<String, Output> outputMap, List<String> metricNames) {
         System.out.println("Result: ");
         List<OutputLine> outputLines =
                 outputMap.entrySet().stream()
-                        .map(e -> new OutputLine(e.getKey(), e.getValue().getLineNumber(), e.getValue().getLineNumberBonus(), e.getValue().getDependencies()))
+                        .map(e -> new OutputLine(e.getKey(), e.getValue().getLineNumber(), e.getValue().getLineNumberBonus(), e.getValue().getDependencies(),
+                                metricNames.stream().map(e.getValue()::getMetric).toList()))
                         .sorted(Comparator.comparing(OutputLine::getFileName))
                         .collect(Collectors.toList());
-        outputLines.addFirst(new OutputLine("File", "Source Lines", "Source Lines without Getters and Block Comments", "Dependencies"));
+        outputLines.addFirst(new OutputLine("File", "Source Lines", "Source Lines without Getters and Block Comments", "Dependencies", metricNames));
         int maxDirectoryName = outputLines.stream().map(OutputLine::getFileName).mapToInt(String::length).max().orElse(100);
         int maxLineNumber = outputLines.stream().map(OutputLine::getLineNumber).mapToInt(String::length).max().orElse(100);
         int maxLineNumberWithoutGetterAndSetter = outputLines.stream().map(OutputLine::getLineNumberWithoutGetterSetter).mapToInt(String::length).max().orElse(100);
         int maxDependencies = outputLines.stream().map(OutputLine::getDependencies).mapToInt(String::length).max().orElse(100);
-        String lineFormat = "| %"+ maxDirectoryName+"s | %"+maxLineNumber+"s | %"+maxLineNumberWithoutGetterAndSetter+"s | %"+ maxDependencies+"s |%n";
-        outputLines.forEach(line -> System.out.printf(lineFormat, line.getFileName(), line.getLineNumber(), line.getLineNumberWithoutGetterSetter(), line.getDependencies()));
+        StringBuilder lineFormat = new StringBuilder("| %"+ maxDirectoryName+"s | %"+maxLineNumber+"s | %"+maxLineNumberWithoutGetterAndSetter+"s | %"+ maxDependencies+"s |");
+        for (int i = 0; i < metricNames.size(); ++i) {
+            int column = i;
+            int maxMetric = outputLines.stream().map(line -> line.getMetrics().get(column)).mapToInt(String::length).max().orElse(100);
+            lineFormat.append(" %").append(maxMetric).append("s |");
+        }
+        lineFormat.append("%n");
+        outputLines.forEach(line -> {
+            List<String> columns = new ArrayList<>(List.of(line.getFileName(), line.getLineNumber(), line.getLineNumberWithoutGetterSetter(), line.getDependencies()));
+            columns.addAll(line.getMetrics());
+            System.out.printf(lineFormat.toString(), columns.toArray());
+        });
+        printSlowFiles(outputMap);
+    }
+
+    private static void printSlowFiles(Map<String, Output> outputMap) {
+        List<Map.Entry<String, Output>> slowFiles = outputMap.entrySet().stream()
+                .filter(e -> e.getValue().isSlowFile())
+                .sorted(Comparator.comparing(Map.Entry::getKey))
+                .toList();
+        if (!slowFiles.isEmpty()) {
+            System.out.println("Slow files (time budget exceeded): ");
+            slowFiles.forEach(e -> System.out.printf("%s: %d bytes, %d ms%s%n", e.getKey(),
+                    e.getValue().getSizeBytes(), e.getValue().getElapsedMillis(),
+                    e.getValue().isLinearFallback() ? ", counted by linear fallback" : ""));
+        }
+    }
+
+    private static void printRollUp(RollUp rollUp, boolean lineNumbers) {
+        System.out.println("Roll-up: ");
+        List<List<String>> rows = new ArrayList<>();
+        rows.add(List.of("Package", "Files", "Source Lines", "Source Lines without Getters and Block Comments", "Cross-Project Dependencies"));
+        rollUp.getPackages().forEach(p -> rows.add(rollUpRow(p.equals(RollUp.TREE) ? "<all>" : p,
+                measure -> rollUp.getTotal(p, measure), lineNumbers)));
+        // Projects which are no directory of the input directory, e.g. package prefixes or modules
+        rollUp.getProjects().stream()
+                .filter(p -> !rollUp.getPackages().contains(p))
+                .forEach(p -> rows.add(rollUpRow("project " + p, measure -> rollUp.getProjectTotal(p, measure),
+                        lineNumbers)));
+        printTable(rows, System.out);
+        System.out.println("Dependencies between projects: ");
+        for (String from : rollUp.getProjects()) {
+            for (String to : rollUp.getProjects()) {
+                if (rollUp.getProjectDependencies(from, to) > 0) {
+                    System.out.printf("%s -> %s: %d%n", from, to, rollUp.getProjectDependencies(from, to));
+                }
+            }
+        }
+    }
+
+    private static List<String> rollUpRow(String label, ToLongFunction<RollUp.Measure> total, boolean lineNumbers) {
+        return List.of(label,
+                String.valueOf(total.applyAsLong(RollUp.Measure.FILES)),
+                lineNumbers ? String.valueOf(total.applyAsLong(RollUp.Measure.SOURCE_LINES)) : "N/A",
+                lineNumbers ? String.valueOf(total.applyAsLong(RollUp.Measure.SOURCE_LINES_BONUS)) : "N/A",
+                String.valueOf(total.applyAsLong(RollUp.Measure.CROSS_PROJECT_DEPENDENCIES)));
+    }
+
+    /**
+     * Prints the rows with right-aligned columns as wide as their widest cell.
+     */
+    static void printTable(List<List<String>> rows, PrintStream out) {
+        StringBuilder lineFormat = new StringBuilder("|");
+        for (int column = 0; column < rows.getFirst().size(); ++column) {
+            int i = column;
+            lineFormat.append(" %").append(rows.stream().mapToInt(row -> row.get(i).length()).max().orElse(100)).append("s |");
+        }
+        lineFormat.append("%n");
+        rows.forEach(row -> out.printf(lineFormat.toString(), row.toArray()));
+    }
+
+    private static void printDuplicates(Duplicates duplicates) {
+        System.out.println("Exact duplicates: ");
+        duplicates.getExactDuplicates().forEach(d -> System.out.println(String.join(" = ", d.files())));
+        System.out.println("Near duplicates: ");
+        duplicates.getNearDuplicates().forEach(d -> System.out.printf("%.2f %s ~ %s%n", d.similarity(), d.first(), d.second()));
+    }
+
+    private static void printViolations(List<ArchitectureRules.Violation> violations, DependencyGraph graph) {
+        System.out.println("Architecture violations: ");
+        violations.forEach(v -> System.out.printf("%s -> %s: %s%n", v.from(), v.to(),
+                v.chain().stream().map(graph::getRelativePath).collect(Collectors.joining(" -> "))));
+    }
+
+    private static void exportGraph(DependencyGraph graph, File file, boolean projectGraph) {
+        try (GraphWriter writer = GraphWriter.open(file)) {
+            if (projectGraph) {
+                graph.writeProjectGraph(writer);
+            } else {
+                graph.writeFileGraph(writer);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not export the dependency graph to " + file, e);
+        }
+    }
+
+    /**
+     * Writes the {@link Telemetry} every {@value #TELEMETRY_INTERVAL_SECONDS} seconds and when the JVM exits.
+     */
+    private static void writeTelemetryPeriodically(File file) {
+        Runnable write = () -> {
+            try {
+                Telemetry.write(file);
+            } catch (IOException e) {
+                System.err.println("Could not write the metrics to " + file + ": " + e.getMessage());
+            }
+        };
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "telemetry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(write, TELEMETRY_INTERVAL_SECONDS, TELEMETRY_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(write));
+    }
+
+    private static void printAnalysis(Analysis analysis, Input input) {
+        // Invalid rules fail before anything is printed
+        ArchitectureRules rules = input.getRuleDefinitions() == null ? null
+                : new ArchitectureRules(input.getRuleDefinitions(), analysis.graph().getProjects());
+        Map<String, Output> outputMap = analysis.toOutput();
+        printOutput(outputMap, input.getMetrics().stream().map(MetricProvider::getName).toList());
+        if (input.isRollUp()) {
+            printRollUp(analysis.rollUp(), !input.isSkipSLOC());
+        }
+        if (input.isDuplicates()) {
+            printDuplicates(new Duplicates(analysis, input.getDuplicateThreshold()));
+        }
+        if (rules != null) {
+            printViolations(analysis.graph().getViolations(rules), analysis.graph());
+        }
     }
 
     public static void main(String[] args) {
         Input input = parseInput(args);
-        Map<String, Output> outputMap = analyse(input);
-        printOutput(outputMap);
+        if (input.getOpenMetricsFile() != null) {
+            writeTelemetryPeriodically(input.getOpenMetricsFile());
+        }
+        switch (input.getCommand()) {
+            case QueryCommand.COMMAND -> {
+                QueryCommand.run(analyseDependencyGraph(input), input.getCommandArguments(), System.out);
+                return;
+            }
+            case DiffCommand.COMMAND -> {
+                DiffCommand.run(input, input.getCommandArguments(), System.out);
+                return;
+            }
+            case BatchCommand.COMMAND -> {
+                BatchCommand.run(input, input.getCommandArguments(), (root, analysis) -> {
+                    System.out.println("Root: " + root);
+                    printAnalysis(analysis, input);
+                }, (root, error) -> System.out.println("Root: " + root + " could not be analysed: " + error.getMessage()));
+                return;
+            }
+            case ServeCommand.COMMAND -> {
+                ServeCommand.run(input, input.getCommandArguments(), System.out);
+                return;
+            }
+            case EstimateCommand.COMMAND -> {
+                EstimateCommand.run(input, input.getCommandArguments(), System.out);
+                return;
+            }
+            default -> {
+            }
+        }
+        Analysis analysis = analyseTree(input);
+        printAnalysis(analysis, input);
+        if (input.getSnapshotFile() != null) {
+            try {
+                Snapshot.of(analysis, input).write(input.getSnapshotFile());
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not save the snapshot to " + input.getSnapshotFile(), e);
+            }
+        }
+        if (input.getExportFile() != null) {
+            exportGraph(analysis.graph(), input.getExportFile(), input.isExportProjectGraph());
+        }
     }
 }
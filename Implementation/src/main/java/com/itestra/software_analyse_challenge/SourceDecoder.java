@@ -0,0 +1,136 @@
+package com.itestra.software_analyse_challenge;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Decodes the bytes of a source file independent of the platform charset.
+ * <p>
+ * A byte order mark selects UTF-8 or UTF-16 and is skipped. Otherwise the bytes are widened to characters directly as
+ * long as they are ASCII, which most sources are completely. At the first non-ASCII byte the rest of the file is
+ * decoded with the configured charset or, without one, as UTF-8 which switches to ISO-8859-1 at the first malformed
+ * sequence. So Latin-1 files are decoded the same on every machine.
+ * <p>
+ * An instance decodes one file at a time and is reused for the next file after {@link #reset(Charset)}.
+ */
+public final class SourceDecoder {
+
+    private final CharsetDecoder utf8 = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT)
+            .onUnmappableCharacter(CodingErrorAction.REPORT);
+    private final CharsetDecoder latin1 = StandardCharsets.ISO_8859_1.newDecoder();
+    private final Map<Charset, CharsetDecoder> decoders = new HashMap<>();
+
+    private Charset charset;
+    private boolean byteOrderMarkChecked;
+    /**
+     * Decoder of the rest of the file, {@code null} while all bytes were ASCII.
+     */
+    private CharsetDecoder decoder;
+
+    /**
+     * Prepares the decoding of the next file.
+     *
+     * @param charset Charset of files with non-ASCII bytes and without byte order mark, {@code null} for UTF-8
+     *                with ISO-8859-1 as fallback
+     * @return This decoder
+     */
+    public SourceDecoder reset(Charset charset) {
+        this.charset = charset;
+        this.byteOrderMarkChecked = false;
+        this.decoder = null;
+        return this;
+    }
+
+    /**
+     * Decodes as many bytes as possible, like {@link CharsetDecoder#decode(ByteBuffer, CharBuffer, boolean)}.
+     * Both buffers must have accessible arrays.
+     *
+     * @param bytes Bytes to decode
+     * @param chars Buffer for the characters
+     * @param endOfInput Whether there are no more bytes after {@code bytes}
+     * @return {@link CoderResult#UNDERFLOW} if more bytes are needed, {@link CoderResult#OVERFLOW} if the characters
+     *         do not fit
+     */
+    public CoderResult decode(ByteBuffer bytes, CharBuffer chars, boolean endOfInput) {
+        if (!byteOrderMarkChecked) {
+            if (bytes.remaining() < 3 && !endOfInput) {
+                return CoderResult.UNDERFLOW;
+            }
+            checkByteOrderMark(bytes);
+            byteOrderMarkChecked = true;
+        }
+        if (decoder == null) {
+            if (widenAscii(bytes, chars)) {
+                return bytes.hasRemaining() ? CoderResult.OVERFLOW : CoderResult.UNDERFLOW;
+            }
+            decoder = charset == null ? utf8.reset() : decoder(charset);
+        }
+        CoderResult result = decoder.decode(bytes, chars, endOfInput);
+        if (result.isError() && decoder == utf8) {
+            // No UTF-8, the malformed bytes are still in the buffer
+            decoder = latin1.reset();
+            result = decoder.decode(bytes, chars, endOfInput);
+        }
+        return result;
+    }
+
+    /**
+     * @param chars Buffer for the characters
+     * @return Result like {@link CharsetDecoder#flush(CharBuffer)}
+     */
+    public CoderResult flush(CharBuffer chars) {
+        return decoder == null ? CoderResult.UNDERFLOW : decoder.flush(chars);
+    }
+
+    private void checkByteOrderMark(ByteBuffer bytes) {
+        int position = bytes.position();
+        int first = bytes.remaining() > 0 ? bytes.get(position) & 0xFF : -1;
+        int second = bytes.remaining() > 1 ? bytes.get(position + 1) & 0xFF : -1;
+        int third = bytes.remaining() > 2 ? bytes.get(position + 2) & 0xFF : -1;
+        if (first == 0xEF && second == 0xBB && third == 0xBF) {
+            bytes.position(position + 3);
+            decoder = utf8.reset();
+        } else if (first == 0xFE && second == 0xFF) {
+            bytes.position(position + 2);
+            decoder = decoder(StandardCharsets.UTF_16BE);
+        } else if (first == 0xFF && second == 0xFE) {
+            bytes.position(position + 2);
+            decoder = decoder(StandardCharsets.UTF_16LE);
+        }
+    }
+
+    /**
+     * Copies the ASCII bytes to the characters, without a {@link CharsetDecoder}.
+     *
+     * @return Whether the copy stopped because the bytes or the characters ran out, not at a non-ASCII byte
+     */
+    private static boolean widenAscii(ByteBuffer bytes, CharBuffer chars) {
+        byte[] in = bytes.array();
+        int i = bytes.arrayOffset() + bytes.position();
+        int inEnd = bytes.arrayOffset() + bytes.limit();
+        char[] out = chars.array();
+        int o = chars.arrayOffset() + chars.position();
+        int outEnd = chars.arrayOffset() + chars.limit();
+        int end = i + Math.min(inEnd - i, outEnd - o);
+        while (i < end && in[i] >= 0) {
+            out[o++] = (char) in[i++];
+        }
+        bytes.position(i - bytes.arrayOffset());
+        chars.position(o - chars.arrayOffset());
+        return i == end;
+    }
+
+    private CharsetDecoder decoder(Charset charset) {
+        return decoders.computeIfAbsent(charset, c -> c.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE)).reset();
+    }
+}
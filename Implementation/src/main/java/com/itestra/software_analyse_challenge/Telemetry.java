@@ -0,0 +1,205 @@
+package com.itestra.software_analyse_challenge;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Counters of the work of the analyser in this process, exposed in the OpenMetrics text format, e.g. for alerts on
+ * slowdowns of the {@link ServeCommand} or of batch runs.
+ * <p>
+ * The counters are {@link LongAdder}s, so recording on the hot path (once per file and phase) does not contend
+ * between the threads; they are only summed up when the metrics are written. They are recorded through
+ * {@link #add(LongAdder, long)}, {@link #increment(LongAdder)} and {@link #record(Phase, long)}, so the benchmark
+ * {@code TelemetryBenchmark} can switch them off to measure their cost.
+ */
+public final class Telemetry {
+
+    /**
+     * Phases of an analysis whose latencies are recorded.
+     */
+    public enum Phase {
+        /** Reading and hashing a single file to look up its facts */
+        HASH,
+        /** Scanning a single file */
+        SCAN_FILE,
+        /** Building the dependency graph and the roll-up from the facts of the files */
+        GRAPH,
+        /** Whole analysis of a tree */
+        ANALYSIS
+    }
+
+    /**
+     * Upper bounds of the latency buckets in nanoseconds, from 10 µs to 100 s.
+     */
+    private static final long[] BUCKET_BOUNDS = {10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+            1_000_000_000L, 10_000_000_000L, 100_000_000_000L};
+
+    public static final LongAdder FILES_ANALYSED = new LongAdder();
+    public static final LongAdder BYTES_READ = new LongAdder();
+    public static final LongAdder SLOW_FILES = new LongAdder();
+    /** Files whose facts were found by their content hash */
+    public static final LongAdder CACHE_HITS = new LongAdder();
+    /** Files whose facts were looked up by their content hash but not found */
+    public static final LongAdder CACHE_MISSES = new LongAdder();
+    /** Estimated heap used by the arrays of the last dependency graph, see {@link DependencyGraph#getHeapBytes()} */
+    public static final AtomicLong GRAPH_HEAP_BYTES = new AtomicLong();
+
+    private static final LongAdder[][] BUCKETS = new LongAdder[Phase.values().length][BUCKET_BOUNDS.length + 1];
+    private static final LongAdder[] SUMS = new LongAdder[Phase.values().length];
+    private static final Map<String, LongSupplier> QUEUES = new ConcurrentHashMap<>();
+
+    private static volatile boolean enabled = true;
+
+    static {
+        for (Phase phase : Phase.values()) {
+            for (int bucket = 0; bucket <= BUCKET_BOUNDS.length; ++bucket) {
+                BUCKETS[phase.ordinal()][bucket] = new LongAdder();
+            }
+            SUMS[phase.ordinal()] = new LongAdder();
+        }
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        registerQueue("scan", () -> pool.getQueuedTaskCount() + pool.getQueuedSubmissionCount());
+    }
+
+    private Telemetry() {
+    }
+
+    /**
+     * @param enabled Whether the counters are recorded, only switched off to measure their cost
+     */
+    static void setEnabled(boolean enabled) {
+        Telemetry.enabled = enabled;
+    }
+
+    /**
+     * @param counter Counter, e.g. {@link #BYTES_READ}
+     * @param value Value to add
+     */
+    public static void add(LongAdder counter, long value) {
+        if (enabled) {
+            counter.add(value);
+        }
+    }
+
+    /**
+     * @param counter Counter, e.g. {@link #FILES_ANALYSED}
+     */
+    public static void increment(LongAdder counter) {
+        if (enabled) {
+            counter.increment();
+        }
+    }
+
+    /**
+     * @param phase Phase which ended now
+     * @param startNanos {@link System#nanoTime()} at the start of the phase
+     */
+    public static void record(Phase phase, long startNanos) {
+        if (!enabled) {
+            return;
+        }
+        long nanos = System.nanoTime() - startNanos;
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS.length && nanos > BUCKET_BOUNDS[bucket]) {
+            ++bucket;
+        }
+        BUCKETS[phase.ordinal()][bucket].increment();
+        SUMS[phase.ordinal()].add(nanos);
+    }
+
+    /**
+     * @param name Name of the queue, the value of the label {@code queue}
+     * @param depth Current number of waiting tasks
+     */
+    public static void registerQueue(String name, LongSupplier depth) {
+        QUEUES.put(name, depth);
+    }
+
+    /**
+     * @return All metrics in the OpenMetrics text format, terminated by {@code # EOF}
+     */
+    public static String toOpenMetrics() {
+        StringBuilder text = new StringBuilder();
+        counter(text, "analyser_files_analysed", "Files read and analysed", FILES_ANALYSED.sum());
+        counter(text, "analyser_read_bytes", "Bytes of the files read and analysed", BYTES_READ.sum());
+        counter(text, "analyser_slow_files", "Files which exceeded their time budget", SLOW_FILES.sum());
+        counter(text, "analyser_cache_hits", "Files whose facts were known by their content hash", CACHE_HITS.sum());
+        counter(text, "analyser_cache_misses", "Files whose facts were not known by their content hash",
+                CACHE_MISSES.sum());
+        long lookups = CACHE_HITS.sum() + CACHE_MISSES.sum();
+        gauge(text, "analyser_cache_hit_ratio", "Share of the content hash lookups which found facts",
+                lookups == 0 ? "0" : String.format(Locale.ROOT, "%.6f", (double) CACHE_HITS.sum() / lookups));
+
+        text.append("# TYPE analyser_phase_seconds histogram\n");
+        text.append("# HELP analyser_phase_seconds Latency of the phases of the analysis\n");
+        for (Phase phase : Phase.values()) {
+            String label = "phase=\"" + phase.name().toLowerCase(Locale.ROOT) + "\"";
+            long count = 0;
+            for (int bucket = 0; bucket <= BUCKET_BOUNDS.length; ++bucket) {
+                count += BUCKETS[phase.ordinal()][bucket].sum();
+                String bound = bucket < BUCKET_BOUNDS.length ? seconds(BUCKET_BOUNDS[bucket]) : "+Inf";
+                text.append("analyser_phase_seconds_bucket{").append(label).append(",le=\"").append(bound)
+                        .append("\"} ").append(count).append('\n');
+            }
+            text.append("analyser_phase_seconds_sum{").append(label).append("} ")
+                    .append(seconds(SUMS[phase.ordinal()].sum())).append('\n');
+            text.append("analyser_phase_seconds_count{").append(label).append("} ").append(count).append('\n');
+        }
+
+        text.append("# TYPE analyser_queue_depth gauge\n");
+        text.append("# HELP analyser_queue_depth Tasks waiting in the queues of the worker pools\n");
+        QUEUES.forEach((name, depth) -> text.append("analyser_queue_depth{queue=\"").append(name).append("\"} ")
+                .append(depth.getAsLong()).append('\n'));
+        gauge(text, "analyser_graph_heap_bytes", "Estimated heap used by the last dependency graph",
+                String.valueOf(GRAPH_HEAP_BYTES.get()));
+        gauge(text, "analyser_heap_used_bytes", "Heap used by the whole process",
+                String.valueOf(ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed()));
+        text.append("# EOF\n");
+        return text.toString();
+    }
+
+    /**
+     * Replaces the file atomically, so readers never see a partial file.
+     *
+     * @param file File to write the metrics to
+     * @throws IOException If the file cannot be written
+     */
+    public static void write(File file) throws IOException {
+        Path target = file.toPath().toAbsolutePath();
+        Path temporary = Files.createTempFile(target.getParent(), file.getName(), ".tmp");
+        try {
+            Files.writeString(temporary, toOpenMetrics(), StandardCharsets.UTF_8);
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static void counter(StringBuilder text, String name, String help, long value) {
+        text.append("# TYPE ").append(name).append(" counter\n");
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        text.append(name).append("_total ").append(value).append('\n');
+    }
+
+    private static void gauge(StringBuilder text, String name, String help, String value) {
+        text.append("# TYPE ").append(name).append(" gauge\n");
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        text.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9).replaceFirst("0+$", "").replaceFirst("\\.$", ".0");
+    }
+}
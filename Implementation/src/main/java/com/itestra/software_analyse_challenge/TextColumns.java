@@ -0,0 +1,107 @@
+package com.itestra.software_analyse_challenge;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Values of the tab separated lines of the {@link Journal} and of {@link Snapshot}s.
+ * <p>
+ * Paths and names may contain the separators: {@code \}, tab, line terminators and {@code ,} are escaped with a
+ * {@code \}, so a value never splits a line, a column or a list. Values without them, i.e. almost all, are written
+ * unchanged.
+ */
+public final class TextColumns {
+
+    private TextColumns() {
+    }
+
+    /**
+     * @param value Any value
+     * @return The value with all separators escaped
+     */
+    public static String escape(String value) {
+        StringBuilder escaped = null;
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            char escape = switch (c) {
+                case '\\' -> '\\';
+                case '\t' -> 't';
+                case '\n' -> 'n';
+                case '\r' -> 'r';
+                case ',' -> ',';
+                default -> 0;
+            };
+            if (escape != 0 && escaped == null) {
+                escaped = new StringBuilder(value.length() + 8).append(value, 0, i);
+            }
+            if (escaped != null) {
+                if (escape != 0) {
+                    escaped.append('\\').append(escape);
+                } else {
+                    escaped.append(c);
+                }
+            }
+        }
+        return escaped == null ? value : escaped.toString();
+    }
+
+    /**
+     * @param values Values of a list
+     * @return The escaped values separated by {@code ,}
+     */
+    public static String join(List<String> values) {
+        StringJoiner list = new StringJoiner(",");
+        for (String value : values) {
+            list.add(escape(value));
+        }
+        return list.toString();
+    }
+
+    /**
+     * @param value Value written by {@link #escape(String)}
+     * @return The original value
+     * @throws IllegalArgumentException If the value is not escaped correctly
+     */
+    public static String unescape(String value) {
+        return value.indexOf('\\') < 0 ? value : split(value, false).getFirst();
+    }
+
+    /**
+     * @param list List written by {@link #join(List)}
+     * @return The original values
+     * @throws IllegalArgumentException If a value is not escaped correctly
+     */
+    public static List<String> split(String list) {
+        return list.isEmpty() ? Collections.emptyList() : split(list, true);
+    }
+
+    private static List<String> split(String text, boolean list) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < text.length(); ++i) {
+            char c = text.charAt(i);
+            if (c == ',' && list) {
+                values.add(value.toString());
+                value.setLength(0);
+            } else if (c == '\\') {
+                if (++i == text.length()) {
+                    throw new IllegalArgumentException("Incomplete escape in " + text);
+                }
+                value.append(switch (text.charAt(i)) {
+                    case '\\' -> '\\';
+                    case 't' -> '\t';
+                    case 'n' -> '\n';
+                    case 'r' -> '\r';
+                    case ',' -> ',';
+                    default -> throw new IllegalArgumentException("Invalid escape in " + text);
+                });
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+}
@@ -0,0 +1,28 @@
+package com.itestra.software_analyse_challenge;
+
+/**
+ * Counts the {@code TODO} and {@code FIXME} markers in comments.
+ */
+public final class TodoMetric implements Metric {
+
+    public static final String NAME = "todos";
+
+    private int todos = 0;
+
+    @Override
+    public void token(JavaLexer.TokenKind kind, char[] buffer, int start, int end) {
+        if (kind == JavaLexer.TokenKind.COMMENT) {
+            for (int i = start; i < end; ++i) {
+                if (JavaLexer.equals(buffer, i, Math.min(end, i + 4), "TODO")
+                        || JavaLexer.equals(buffer, i, Math.min(end, i + 5), "FIXME")) {
+                    ++todos;
+                }
+            }
+        }
+    }
+
+    @Override
+    public int getValue() {
+        return todos;
+    }
+}
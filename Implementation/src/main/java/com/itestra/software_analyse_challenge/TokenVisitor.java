@@ -0,0 +1,29 @@
+package com.itestra.software_analyse_challenge;
+
+/**
+ * Receives the events of the {@link JavaLexer} for the lines and tokens of a file.
+ */
+public interface TokenVisitor {
+
+    /**
+     * Called for every line after the tokens of the line.
+     *
+     * @param kind Kind of the line
+     * @param buffer Characters of the file
+     * @param start Index of the first character of the line
+     * @param end Index after the last character of the line (excluding the line terminator)
+     */
+    default void line(JavaLexer.LineKind kind, char[] buffer, int start, int end) {
+    }
+
+    /**
+     * Called for every token of the file, comments are passed as tokens as well.
+     *
+     * @param kind Kind of the token
+     * @param buffer Characters of the file
+     * @param start Index of the first character of the token
+     * @param end Index after the last character of the token
+     */
+    default void token(JavaLexer.TokenKind kind, char[] buffer, int start, int end) {
+    }
+}
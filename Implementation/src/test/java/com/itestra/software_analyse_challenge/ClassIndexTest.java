@@ -0,0 +1,127 @@
+package com.itestra.software_analyse_challenge;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClassIndexTest {
+
+    @TempDir
+    Path directory;
+
+    private final List<File> files = new ArrayList<>();
+
+    @Test
+    void singleTypeImportsResolveToTheFileOfTheTopLevelType() throws IOException {
+        File list = file("app/util/List.java");
+        file("app/util/Map.java");
+        ClassIndex index = index();
+        assertEquals(List.of(list), index.resolve("app.util.List"));
+        // Nested types are declared in the file of their top level type
+        assertEquals(List.of(list), index.resolve("app.util.List.Node"));
+        assertEquals(List.of(list), index.resolve("app.util.List.Node.Leaf"));
+        assertEquals(List.of(), index.resolve("java.util.List"));
+        assertEquals(List.of(), index.resolve("app.util.Set"));
+    }
+
+    @Test
+    void wildcardImportsResolveToAllFilesOfThePackage() throws IOException {
+        File list = file("app/util/List.java");
+        File map = file("app/util/Map.java");
+        file("app/util/internal/Node.java");
+        ClassIndex index = index();
+        List<File> resolved = index.resolve("app.util.*");
+        assertEquals(2, resolved.size());
+        assertTrue(resolved.containsAll(List.of(list, map)));
+        // Nested types of a type on demand
+        assertEquals(List.of(list), index.resolve("app.util.List.*"));
+        assertEquals(List.of(), index.resolve("java.util.*"));
+        assertEquals(List.of(), index.resolve("app.*"));
+    }
+
+    @Test
+    void packageWinsOverTypeOfTheSameNameOnDemand() throws IOException {
+        // app.util is both a package and the type declared by app/util.java
+        file("app/util.java");
+        File list = file("app/util/List.java");
+        ClassIndex index = index();
+        assertEquals(List.of(list), index.resolve("app.util.*"));
+    }
+
+    @Test
+    void staticImportsResolveToTheDeclaringType() throws IOException {
+        File math = file("app/util/Math.java");
+        ClassIndex index = index();
+        assertEquals(List.of(math), index.resolveStatic("app.util.Math.max"));
+        assertEquals(List.of(math), index.resolveStatic("app.util.Math.*"));
+        // Members of nested types
+        assertEquals(List.of(math), index.resolveStatic("app.util.Math.Constants.PI"));
+        assertEquals(List.of(), index.resolveStatic("java.lang.Math.max"));
+        assertEquals(List.of(), index.resolveStatic("max"));
+    }
+
+    @Test
+    void simpleNamesOfSeveralPackagesResolveInTheSamePackage() throws IOException {
+        File appNode = file("app/tree/Node.java");
+        File appTree = file("app/tree/Tree.java");
+        File libNode = file("lib/graph/Node.java");
+        File libGraph = file("lib/graph/Graph.java");
+        ClassIndex index = index();
+        char[] node = "Node".toCharArray();
+        assertEquals(index.getType(appNode), index.findSamePackageType(node, 0, node.length, index.getType(appTree)));
+        assertEquals(index.getType(libNode), index.findSamePackageType(node, 0, node.length, index.getType(libGraph)));
+
+        char[] buffer = "new lib.graph.Node()".toCharArray();
+        int type = index.findQualifiedType(buffer, 4, buffer.length - 2);
+        assertEquals(index.getType(libNode), type);
+        assertEquals("lib.graph.Node", index.getTypeName(type));
+        assertEquals(-1, index.findQualifiedType(buffer, 4, 13));
+        assertEquals(-1, index.findSamePackageType(buffer, 0, 3, index.getType(appTree)));
+        assertEquals(-1, index.getType(new File(directory.toFile(), "app/tree/Missing.java")));
+    }
+
+    @Test
+    void indexIsReusedForFilesDeclaringTheSameTypes() throws IOException {
+        file("app/util/List.java");
+        file("app/util/Map.java");
+        ClassIndex index = index();
+        files.clear();
+        File list = file("copy/app/util/List.java");
+        File map = file("copy/app/util/Map.java");
+        ProjectMapping copy = new ProjectMapping(null, directory.resolve("copy").toFile(), files);
+        ClassIndex reused = index.reuse(files, copy);
+        assertNotNull(reused);
+        assertEquals(List.of(list), reused.resolve("app.util.List"));
+        assertEquals(List.of(list, map), reused.resolve("app.util.*"));
+        assertEquals(reused.getType(map), reused.findSamePackageType("Map".toCharArray(), 0, 3,
+                reused.getType(list)));
+
+        // Other packages or names
+        assertNull(index.reuse(files, new ProjectMapping(null, directory.toFile(), files)));
+        files.remove(map);
+        file("copy/app/util/Set.java");
+        assertNull(index.reuse(files, copy));
+        files.remove(files.size() - 1);
+        assertNull(index.reuse(files, copy));
+    }
+
+    private File file(String path) throws IOException {
+        Path file = directory.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "");
+        files.add(file.toFile());
+        return file.toFile();
+    }
+
+    private ClassIndex index() {
+        return new ClassIndex(files, new ProjectMapping(null, directory.toFile(), files));
+    }
+}
@@ -0,0 +1,67 @@
+package com.itestra.software_analyse_challenge;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentHashTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void knownAnswersOfXxh64() throws IOException {
+        assertEquals("ef46db3751d8e999-0", hash(""));
+        assertEquals("d24ec4f1a98c6e5b-1", hash("a"));
+        assertEquals("44bc2cf5ad770999-3", hash("abc"));
+        assertEquals("fbcea83c8a378bf1-39", hash("Nobody inspects the spammish repetition"));
+        assertEquals("0b242d361fda71bc-43", hash("The quick brown fox jumps over the lazy dog"));
+    }
+
+    @Test
+    void stripesAndTailsAcrossReads() throws IOException {
+        // Below, at and above one stripe of 32 bytes, and across the reads of 64 KiB
+        assertEquals("3391303d485e846e-31", hash(pattern(31)));
+        assertEquals("40b7aff75d45bbc8-32", hash(pattern(32)));
+        assertEquals("f0b29a915621716d-100", hash(pattern(100)));
+        assertEquals("d093ecf7227ded30-65553", hash(pattern(65536 + 17)));
+        assertEquals("466e4adabe39049a-200003", hash(pattern(200003)));
+    }
+
+    @Test
+    void contentInMemoryHasTheHashOfTheFile() throws IOException {
+        for (int length : new int[] {0, 5, 31, 32, 100, 65536 + 17}) {
+            assertEquals(hash(pattern(length)), ContentHash.of(pattern(length)));
+        }
+    }
+
+    @Test
+    void unreadableFileHasUnknownHash() {
+        assertEquals(ContentHash.UNKNOWN, ContentHash.of(new File(directory.toFile(), "Missing.java")));
+    }
+
+    private String hash(String content) throws IOException {
+        return hash(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String hash(byte[] content) throws IOException {
+        Path file = Files.createTempFile(directory, "Hashed", ".java");
+        Files.write(file, content);
+        return ContentHash.of(file.toFile());
+    }
+
+    private static byte[] pattern(int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; ++i) {
+            bytes[i] = (byte) ((i * 31 + 7) % 251);
+        }
+        return bytes;
+    }
+}
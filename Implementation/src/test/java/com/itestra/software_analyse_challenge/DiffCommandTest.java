@@ -0,0 +1,74 @@
+package com.itestra.software_analyse_challenge;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiffCommandTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void savedSnapshotIsComparedWithTheChangedTree() throws IOException {
+        Path tree = tree();
+        Input input = SourceCodeAnalyser.parseInput(new String[0]);
+        File snapshot = save(tree, input);
+        assertEquals("", diff(input, snapshot, tree));
+
+        Files.writeString(tree.resolve("app/App.java"), "package app;\n\nimport lib.Lib;\n\nclass App {\n}\n");
+        Files.writeString(tree.resolve("lib/New.java"), "package lib;\nclass New {}\n");
+        Files.delete(tree.resolve("lib/Old.java"));
+        assertEquals("""
+                ~ app/App.java: source lines 2 -> 4, source lines without getters and block comments 2 -> 4, \
+                dependencies [] -> [lib]
+                + lib/New.java: 2 source lines, []
+                - lib/Old.java
+                """, diff(input, snapshot, tree));
+    }
+
+    @Test
+    void snapshotOfOtherSettingsIsRefused() throws IOException {
+        Path tree = tree();
+        File snapshot = save(tree, SourceCodeAnalyser.parseInput(new String[0]));
+        Input skipSloc = SourceCodeAnalyser.parseInput(new String[] {"--skip-sloc"});
+        assertThrows(IllegalArgumentException.class, () -> diff(skipSloc, snapshot, tree));
+        Input projects = SourceCodeAnalyser.parseInput(new String[] {"--projects", "all=app"});
+        assertThrows(IllegalArgumentException.class, () -> diff(projects, snapshot, tree));
+    }
+
+    private Path tree() throws IOException {
+        Path tree = directory.resolve("tree");
+        Files.createDirectories(tree.resolve("app"));
+        Files.createDirectories(tree.resolve("lib"));
+        Files.writeString(tree.resolve("app/App.java"), "package app;\nclass App {}\n");
+        Files.writeString(tree.resolve("lib/Lib.java"), "package lib;\npublic class Lib {}\n");
+        Files.writeString(tree.resolve("lib/Old.java"), "package lib;\nclass Old {}\n");
+        return tree;
+    }
+
+    private File save(Path tree, Input input) throws IOException {
+        File snapshot = directory.resolve("base.snapshot").toFile();
+        Snapshot.of(SourceCodeAnalyser.analyseTree(tree.toFile(), input, Collections.emptyMap()), input)
+                .write(snapshot);
+        return snapshot;
+    }
+
+    private static String diff(Input input, File base, Path head) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DiffCommand.run(input, List.of(base.getPath(), head.toString()),
+                new PrintStream(bytes, true, StandardCharsets.UTF_8));
+        return bytes.toString(StandardCharsets.UTF_8).replace(System.lineSeparator(), "\n");
+    }
+}
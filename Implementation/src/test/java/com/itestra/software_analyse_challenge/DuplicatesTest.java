@@ -0,0 +1,163 @@
+package com.itestra.software_analyse_challenge;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DuplicatesTest {
+
+    private static final String IO_UTILS = """
+            package util;
+
+            import java.io.InputStream;
+            import java.io.IOException;
+
+            public final class IOUtils {
+
+                private static final int BUFFER_SIZE = 4096;
+
+                public static String toString(InputStream input) throws IOException {
+                    StringBuilder builder = new StringBuilder();
+                    byte[] buffer = new byte[BUFFER_SIZE];
+                    int read;
+                    while ((read = input.read(buffer)) != -1) {
+                        builder.append(new String(buffer, 0, read, "UTF-8"));
+                    }
+                    return builder.toString();
+                }
+
+                public static void close(InputStream input) {
+                    try {
+                        if (input != null) {
+                            input.close();
+                        }
+                    } catch (IOException e) {
+                        // ignored
+                    }
+                }
+            }
+            """;
+
+    /**
+     * {@link #IO_UTILS} reformatted, re-commented and with other literals.
+     */
+    private static final String REFORMATTED_IO_UTILS = """
+            package util;
+            import java.io.InputStream;
+            import java.io.IOException;
+            /** Copied from another project */
+            public final class IOUtils
+            {
+                private static final int BUFFER_SIZE = 8192;
+                public static String toString(InputStream input) throws IOException
+                {
+                    StringBuilder builder = new StringBuilder(); byte[] buffer = new byte[BUFFER_SIZE];
+                    int read;
+                    while ((read = input.read(buffer)) != -1)
+                    {
+                        builder.append(new String(buffer, 0, read, "ISO-8859-1"));
+                    }
+                    return builder.toString();
+                }
+                public static void close(InputStream input)
+                {
+                    try { if (input != null) { input.close(); } } catch (IOException e) { /* nothing to do */ }
+                }
+            }
+            """;
+
+    private static final String ROUTES = """
+            package web;
+
+            import java.util.ArrayList;
+            import java.util.List;
+
+            public class Routes {
+                private final List<String> paths = new ArrayList<>();
+
+                public void add(String path) {
+                    if (!paths.contains(path)) {
+                        paths.add(path);
+                    }
+                }
+
+                public int size() {
+                    return paths.size();
+                }
+            }
+            """;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reformattedCopiesHaveEqualSignatures() throws IOException {
+        write("a/IOUtils.java", IO_UTILS);
+        write("b/IOUtils.java", REFORMATTED_IO_UTILS);
+        Analysis analysis = analyse();
+        DuplicateCollector.Fingerprint first = fingerprint(analysis, "a/IOUtils.java");
+        DuplicateCollector.Fingerprint second = fingerprint(analysis, "b/IOUtils.java");
+        assertNotEquals(first.contentHash(), second.contentHash());
+        assertEquals(1.0, first.similarity(second));
+    }
+
+    @Test
+    void exactAndNearDuplicatesAreFound() throws IOException {
+        write("a/IOUtils.java", IO_UTILS);
+        // Same content with other line terminators
+        write("b/IOUtils.java", IO_UTILS.replace("\n", "\r\n"));
+        write("c/IOUtils.java", IO_UTILS);
+        write("d/IOUtils.java", IO_UTILS.replace("// ignored", "throw new IllegalStateException(e);"));
+        write("web/Routes.java", ROUTES);
+        write("web/Tiny.java", "class Tiny {}");
+        write("web/Other.java", "class Tiny {}");
+
+        Duplicates duplicates = new Duplicates(analyse(), 0.5);
+        assertEquals(List.of(new Duplicates.ExactDuplicate(List.of("a/IOUtils.java", "b/IOUtils.java",
+                        "c/IOUtils.java")), new Duplicates.ExactDuplicate(List.of("web/Other.java", "web/Tiny.java"))),
+                duplicates.getExactDuplicates());
+        // One representative of the exact duplicates is compared
+        assertEquals(1, duplicates.getNearDuplicates().size(), duplicates.getNearDuplicates().toString());
+        Duplicates.NearDuplicate near = duplicates.getNearDuplicates().getFirst();
+        assertTrue(List.of("a/IOUtils.java", "b/IOUtils.java", "c/IOUtils.java").contains(near.first()));
+        assertEquals("d/IOUtils.java", near.second());
+        assertTrue(near.similarity() >= 0.5 && near.similarity() < 1, String.valueOf(near.similarity()));
+
+        assertTrue(new Duplicates(analyse(), 0.99).getNearDuplicates().isEmpty());
+    }
+
+    @Test
+    void filesWithTooFewTokensHaveNoSignature() throws IOException {
+        write("a/Tiny.java", "class Tiny");
+        Analysis analysis = analyse();
+        assertNull(fingerprint(analysis, "a/Tiny.java").signature());
+        assertTrue(new Duplicates(analysis, 0).getNearDuplicates().isEmpty());
+    }
+
+    private void write(String path, String content) throws IOException {
+        Path file = directory.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+
+    private Analysis analyse() {
+        return SourceCodeAnalyser.analyseTree(directory.toFile(),
+                SourceCodeAnalyser.parseInput(new String[] {"--duplicates"}), null);
+    }
+
+    private static DuplicateCollector.Fingerprint fingerprint(Analysis analysis, String path) {
+        FileTable fileTable = analysis.fileTable();
+        for (int id = 0; id < fileTable.size(); ++id) {
+            if (fileTable.getRelativePath(id).equals(path)) {
+                return analysis.facts().get(fileTable.getFile(id)).getFingerprint();
+            }
+        }
+        throw new IllegalArgumentException(path);
+    }
+}
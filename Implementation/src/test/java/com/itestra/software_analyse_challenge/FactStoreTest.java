@@ -0,0 +1,94 @@
+package com.itestra.software_analyse_challenge;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FactStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void factsAreStoredByContentHash() {
+        FactStore store = new FactStore(directory.toFile(), 1 << 20);
+        store.put(hash(1), facts(7));
+        FileFacts facts = store.get(hash(1));
+        assertNotNull(facts);
+        assertEquals(7, facts.getLineNumber());
+        assertEquals(6, facts.getLineNumberBonus());
+        assertEquals(List.of("java.util.List", "a.*"), facts.getImports());
+        assertEquals(List.of("a.B.c"), facts.getStaticImports());
+        assertNull(store.get(hash(2)));
+        assertNull(store.get(ContentHash.UNKNOWN));
+    }
+
+    @Test
+    void leastRecentlyUsedEntriesAreEvictedInWholeBlocks() throws IOException {
+        // Every entry has less than 100 bytes but takes a whole block, so 10 entries exceed 5 blocks
+        FactStore store = new FactStore(directory.toFile(), 5 * blockSize());
+        for (int i = 0; i < 10; ++i) {
+            store.put(hash(i), facts(i));
+        }
+        age(entries());
+        // Used most recently
+        assertNotNull(store.get(hash(3)));
+        store.evict();
+        // Down to 90 % of the limit
+        assertEquals(4, entries().size());
+        assertNotNull(store.get(hash(3)));
+    }
+
+    @Test
+    void storeIsOnlyListedIfItExceedsTheLimit() throws IOException {
+        FactStore store = new FactStore(directory.toFile(), 5 * blockSize());
+        for (int i = 0; i < 3; ++i) {
+            store.put(hash(i), facts(i));
+        }
+        store.evict();
+        assertEquals(3 * blockSize(), Long.parseLong(Files.readString(directory.resolve("v1/usage")).trim()));
+        // Entries added by another store are not known until the usage exceeds the limit
+        FactStore other = new FactStore(directory.toFile(), 5 * blockSize());
+        for (int i = 3; i < 10; ++i) {
+            other.put(hash(i), facts(i));
+        }
+        store.evict();
+        assertEquals(10, entries().size());
+        other.evict();
+        assertEquals(4, entries().size());
+        assertEquals(4 * blockSize(), Long.parseLong(Files.readString(directory.resolve("v1/usage")).trim()));
+    }
+
+    private long blockSize() throws IOException {
+        return Files.getFileStore(directory).getBlockSize();
+    }
+
+    private List<Path> entries() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory.resolve("v1"), 2)) {
+            return paths.filter(path -> path.getNameCount() == directory.getNameCount() + 3).toList();
+        }
+    }
+
+    private static void age(List<Path> entries) throws IOException {
+        for (Path entry : entries) {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis() - 60_000));
+        }
+    }
+
+    private static String hash(int i) {
+        return String.format("%032x", i + 1000);
+    }
+
+    private static FileFacts facts(int lineNumber) {
+        return new FileFacts(List.of("java.util.List", "a.*"), List.of("a.B.c")).lineNumbers(lineNumber,
+                lineNumber - 1);
+    }
+}
@@ -0,0 +1,209 @@
+package com.itestra.software_analyse_challenge;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileScannerTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Records every line it visits, optionally only the first lines.
+     */
+    private static final class RecordingVisitor implements LineVisitor {
+        private final List<String> lines = new ArrayList<>();
+        private final int maxLines;
+
+        private RecordingVisitor(int maxLines) {
+            this.maxLines = maxLines;
+        }
+
+        @Override
+        public void line(char[] buffer, int start, int end) {
+            lines.add(new String(buffer, start, end - start));
+        }
+
+        @Override
+        public boolean isDone() {
+            return lines.size() >= maxLines;
+        }
+    }
+
+    @Test
+    void crLfSplitBetweenTwoReadsIsOneTerminator() throws IOException {
+        // The \r is the last byte of the first read of 8192 bytes, the \n the first byte of the second read
+        String text = "x\n" + "a".repeat(8188) + ";\r\nsecond line\rthird\n\nlast";
+        assertEquals('\r', text.charAt(8191));
+        assertEquals(expectedLines(text), scan(text));
+    }
+
+    @Test
+    void lineLongerThanTheBufferIsPassedWhole() throws IOException {
+        String longLine = "int x = 1; ".repeat(5000);
+        String text = "first\r\n" + longLine + "\r\nlast\n";
+        List<String> lines = scan(text);
+        assertEquals(expectedLines(text), lines);
+        assertEquals(longLine, lines.get(1));
+    }
+
+    @Test
+    void bufferOfAHugeLineIsNotKept() throws IOException {
+        String hugeLine = "x".repeat(3 << 20);
+        assertEquals(List.of("a", hugeLine, "b"), scan("a\n" + hugeLine + "\nb"));
+        assertTrue(FileScanner.getBufferCapacity() <= 1 << 20,
+                "kept " + FileScanner.getBufferCapacity() + " characters");
+        String longLine = "y".repeat(100_000);
+        assertEquals(List.of(longLine), scan(longLine));
+        assertTrue(FileScanner.getBufferCapacity() > longLine.length(), "buffers of long lines are reused");
+    }
+
+    @Test
+    void fileAndContentScansAreEqual() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 3000; ++i) {
+            text.append("line ").append(i).append(i % 3 == 0 ? "\r\n" : i % 3 == 1 ? "\n" : "\r");
+        }
+        File file = write(text.toString());
+        RecordingVisitor fromFile = new RecordingVisitor(Integer.MAX_VALUE);
+        FileScanner.scan(file, null, List.of(fromFile), Deadline.NONE);
+        RecordingVisitor fromContent = new RecordingVisitor(Integer.MAX_VALUE);
+        FileScanner.scan(Files.readAllBytes(file.toPath()), null, List.of(fromContent), Deadline.NONE);
+        assertEquals(expectedLines(text.toString()), fromFile.lines);
+        assertEquals(fromFile.lines, fromContent.lines);
+    }
+
+    @Test
+    void allVisitorsShareOneScanAndItStopsWhenAllAreDone() throws IOException {
+        String text = "a\nb\nc\nd\n".repeat(10000);
+        RecordingVisitor two = new RecordingVisitor(2);
+        RecordingVisitor five = new RecordingVisitor(5);
+        FileScanner.scan(write(text), null, List.of(two, five), Deadline.NONE);
+        assertEquals(List.of("a", "b"), two.lines);
+        assertEquals(List.of("a", "b", "c", "d", "a"), five.lines);
+    }
+
+    @Test
+    void readReturnsAllCharacters() throws IOException {
+        String text = "class A {\n    String s = \"äöü\";\n}\n";
+        FileScanner.Text read = FileScanner.read(write(text), null, Deadline.NONE);
+        assertEquals(text, new String(read.chars(), 0, read.length()));
+    }
+
+    @Test
+    void textIsPassedInSlicesEqualToAScan() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 3000; ++i) {
+            text.append("line ").append(i).append(i % 3 == 0 ? "\r\n" : i % 3 == 1 ? "\n" : "\r");
+        }
+        text.append("x".repeat(20000)).append("\r\nlast");
+        File file = write(text.toString());
+        RecordingVisitor fromText = new RecordingVisitor(Integer.MAX_VALUE);
+        FileScanner.lines(FileScanner.read(file, null, Deadline.NONE), List.of(fromText), Deadline.NONE);
+        assertEquals(scan(text.toString()), fromText.lines);
+    }
+
+    @Test
+    void exceededDeadlineRunsTheFallbackOnceAndTheScanGoesOn() throws IOException, InterruptedException {
+        String text = "a\nb\nc\nd\n".repeat(10000);
+        RecordingVisitor kept = new RecordingVisitor(Integer.MAX_VALUE);
+        RecordingVisitor dropped = new RecordingVisitor(Integer.MAX_VALUE);
+        List<LineVisitor> visitors = new ArrayList<>(List.of(kept, dropped));
+        int[] fallbacks = {0};
+        Deadline deadline = Deadline.after(1, () -> {
+            ++fallbacks[0];
+            visitors.remove(dropped);
+        });
+        Thread.sleep(5);
+        FileScanner.scan(write(text), null, visitors, deadline);
+        assertTrue(deadline.isExceeded());
+        assertEquals(1, fallbacks[0]);
+        assertEquals(40000, kept.lines.size());
+        // Only the lines of the first read are passed before the deadline is checked
+        assertTrue(dropped.lines.size() < 8192, dropped.lines.size() + " lines");
+        Deadline throwing = Deadline.after(1);
+        Thread.sleep(5);
+        assertThrows(Deadline.TimeBudgetExceededException.class,
+                () -> FileScanner.scan(write(text), null, List.of(new RecordingVisitor(Integer.MAX_VALUE)), throwing));
+    }
+
+    @Test
+    void scanningAllocatesNothingPerLine() throws IOException {
+        String lines = """
+                /**
+                 * Block comment
+                 */
+                public int getValue() {
+                    return value;
+                }
+                // Line comment
+                if (a && b || c) { x = "text"; } else { y = 'c'; }
+
+                """;
+        String header = "package a;\nimport java.util.List;\nimport static a.B.c;\nclass A {\n";
+        File small = write(header + lines.repeat(100) + "}\n");
+        File large = write(header + lines.repeat(100 * 100) + "}\n");
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long smallBytes = Long.MAX_VALUE;
+        long largeBytes = Long.MAX_VALUE;
+        // Warm up, and the minimum of several scans is not distorted by the JIT compiler
+        for (int i = 0; i < 20; ++i) {
+            smallBytes = Math.min(smallBytes, allocatedBytesOfScan(small, threads));
+            largeBytes = Math.min(largeBytes, allocatedBytesOfScan(large, threads));
+        }
+        // 100 times more lines, 9 lines each: even a single object per line would be at least 16 bytes * 89100
+        assertTrue(largeBytes - smallBytes < 8 * 1024,
+                smallBytes + " bytes for 900 lines, " + largeBytes + " bytes for 90000 lines");
+    }
+
+    /**
+     * @return Bytes allocated by the current thread to scan the file with the visitors of a regular analysis
+     */
+    private static long allocatedBytesOfScan(File file, com.sun.management.ThreadMXBean threads) throws IOException {
+        ImportCollector importCollector = new ImportCollector(false);
+        List<Metric> metrics = List.of(new MethodCountMetric(), new CyclomaticComplexityMetric());
+        List<LineVisitor> visitors = List.of(importCollector, new JavaLexer(metrics), new LinearSlocCounter(false),
+                new LinearSlocCounter(true));
+        long threadId = Thread.currentThread().threadId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        FileScanner.scan(file, null, visitors, Deadline.after(60_000));
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        assertEquals(List.of("java.util.List"), importCollector.getImports());
+        return allocated;
+    }
+
+    private List<String> scan(String text) throws IOException {
+        RecordingVisitor visitor = new RecordingVisitor(Integer.MAX_VALUE);
+        FileScanner.scan(write(text), null, List.of(visitor), Deadline.NONE);
+        return visitor.lines;
+    }
+
+    private File write(String text) throws IOException {
+        Path file = Files.createTempFile(directory, "Scanned", ".java");
+        Files.writeString(file, text, StandardCharsets.UTF_8);
+        return file.toFile();
+    }
+
+    /**
+     * Lines split at \r\n, \r and \n, without an empty last line.
+     */
+    private static List<String> expectedLines(String text) {
+        List<String> lines = new ArrayList<>(Arrays.asList(text.split("\r\n|\r|\n", -1)));
+        if (lines.getLast().isEmpty()) {
+            lines.removeLast();
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,50 @@
+package com.itestra.software_analyse_challenge;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileTableTest {
+
+    private static final File INPUT_DIRECTORY = new File("input");
+    private static final List<File> FILES = List.of(
+            new File(INPUT_DIRECTORY, "spark/route/Routes.java"),
+            new File(INPUT_DIRECTORY, "spark/http/matching/Routes.java"),
+            new File(INPUT_DIRECTORY, "spark/Spark.java"),
+            new File(INPUT_DIRECTORY, "Main.java"),
+            new File(INPUT_DIRECTORY, "route/Routes.java"));
+
+    @Test
+    void filesAndIdsRoundTrip() {
+        FileTable table = new FileTable(INPUT_DIRECTORY, FILES);
+        assertEquals(FILES.size(), table.size());
+        for (int id = 0; id < FILES.size(); ++id) {
+            assertEquals(FILES.get(id), table.getFile(id));
+            assertEquals(id, table.getId(FILES.get(id)));
+        }
+        assertEquals("spark/http/matching/Routes.java", table.getRelativePath(1));
+        assertEquals("Main.java", table.getRelativePath(3));
+    }
+
+    @Test
+    void filesOfOtherDirectoriesHaveNoId() {
+        FileTable table = new FileTable(INPUT_DIRECTORY, FILES);
+        assertEquals(-1, table.getId(new File(INPUT_DIRECTORY, "spark/Routes.java")));
+        assertEquals(-1, table.getId(new File(INPUT_DIRECTORY, "http/matching/Routes.java")));
+        assertEquals(-1, table.getId(new File(INPUT_DIRECTORY, "a/spark/route/Routes.java")));
+        assertEquals(-1, table.getId(new File(INPUT_DIRECTORY, "spark/Main.java")));
+        assertEquals(-1, table.getId(new File("other/spark/Spark.java")));
+        assertEquals(-1, table.getId(new File("inputs/Main.java")));
+        assertEquals(-1, table.getId(new File(INPUT_DIRECTORY, "Other.java")));
+    }
+
+    @Test
+    void simpleNamesFindAllFiles() {
+        FileTable table = new FileTable(INPUT_DIRECTORY, FILES);
+        assertArrayEquals(new int[] {0, 1, 4}, table.findBySimpleName("Routes.java"));
+        assertArrayEquals(new int[0], table.findBySimpleName("Request.java"));
+    }
+}
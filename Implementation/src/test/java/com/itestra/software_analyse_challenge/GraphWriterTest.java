@@ -0,0 +1,132 @@
+package com.itestra.software_analyse_challenge;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphWriterTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Records the calls as {@code node id label} and {@code edge from to weight}.
+     */
+    private static final class RecordingGraphWriter implements GraphWriter {
+        private final List<String> calls = new ArrayList<>();
+
+        @Override
+        public void node(int id, String label) {
+            calls.add("node " + id + " " + label);
+        }
+
+        @Override
+        public void edge(int from, int to, long weight) {
+            calls.add("edge " + from + " " + to + " " + weight);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    @Test
+    void fileAndProjectGraphsAreStreamedNodesFirst() throws IOException {
+        File inputDirectory = new File("input");
+        List<File> files = List.of(new File(inputDirectory, "a/A1.java"), new File(inputDirectory, "a/A2.java"),
+                new File(inputDirectory, "b/B.java"), new File(inputDirectory, "Main.java"));
+        // A1 -> A2, A1 -> B, A2 -> B, Main -> A1
+        int[][] successors = {{1, 2}, {2}, {}, {0}};
+        List<BitSet> directDependencies = List.of(new BitSet(), new BitSet(), new BitSet(), new BitSet());
+        DependencyGraph graph = new DependencyGraph(new FileTable(inputDirectory, files),
+                new ProjectMapping("a=a,b=b", inputDirectory, files), directDependencies, successors);
+
+        RecordingGraphWriter fileGraph = new RecordingGraphWriter();
+        graph.writeFileGraph(fileGraph);
+        assertEquals(List.of("node 0 a/A1.java", "node 1 a/A2.java", "node 2 b/B.java", "node 3 Main.java",
+                "edge 0 1 1", "edge 0 2 1", "edge 1 2 1", "edge 3 0 1"), fileGraph.calls);
+
+        // Imports within a project and of files in no project are not counted
+        RecordingGraphWriter projectGraph = new RecordingGraphWriter();
+        graph.writeProjectGraph(projectGraph);
+        assertEquals(List.of("node 0 a", "node 1 b", "edge 0 1 2"), projectGraph.calls);
+    }
+
+    @Test
+    void dotEscapesLabelsAndLabelsWeights() throws IOException {
+        StringWriter text = new StringWriter();
+        try (GraphWriter writer = new DotGraphWriter(text)) {
+            writer.node(0, "a\"b\\c");
+            writer.node(1, "d");
+            writer.edge(0, 1, 1);
+            writer.edge(1, 0, 3);
+        }
+        assertEquals("""
+                digraph dependencies {
+                  n0 [label="a\\"b\\\\c"];
+                  n1 [label="d"];
+                  n0 -> n1;
+                  n1 -> n0 [weight=3, label="3"];
+                }
+                """, text.toString());
+    }
+
+    @Test
+    void graphMlEscapesLabels() throws IOException {
+        StringWriter text = new StringWriter();
+        try (GraphWriter writer = new GraphMlGraphWriter(text)) {
+            writer.node(0, "List<A & B>");
+            writer.edge(0, 0, 2);
+        }
+        String graphMl = text.toString();
+        assertTrue(graphMl.contains("<node id=\"n0\"><data key=\"label\">List&lt;A &amp; B&gt;</data></node>"),
+                graphMl);
+        assertTrue(graphMl.contains("<edge source=\"n0\" target=\"n0\"><data key=\"weight\">2</data></edge>"),
+                graphMl);
+        assertTrue(graphMl.endsWith("  </graph>\n</graphml>\n"), graphMl);
+    }
+
+    @Test
+    void edgeListIsReadBack() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GraphWriter writer = new EdgeListGraphWriter(bytes)) {
+            writer.node(0, "spark/Spark.java");
+            writer.node(1, "Ünïcode.java");
+            writer.edge(0, 1, 1L << 40);
+        }
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(EdgeListGraphWriter.MAGIC, input.readInt());
+        assertEquals(EdgeListGraphWriter.VERSION, input.readInt());
+        assertEquals(EdgeListGraphWriter.NODE, input.readInt());
+        assertEquals("spark/Spark.java", input.readUTF());
+        assertEquals(EdgeListGraphWriter.NODE, input.readInt());
+        assertEquals("Ünïcode.java", input.readUTF());
+        assertEquals(EdgeListGraphWriter.EDGE, input.readInt());
+        assertEquals(0, input.readInt());
+        assertEquals(1, input.readInt());
+        assertEquals(1L << 40, input.readLong());
+        assertEquals(-1, input.read());
+    }
+
+    @Test
+    void formatIsChosenByTheExtension() throws IOException {
+        for (String name : List.of("graph.dot", "graph.graphml", "graph.bin")) {
+            File file = directory.resolve(name).toFile();
+            try (GraphWriter writer = GraphWriter.open(file)) {
+                writer.node(0, "a");
+            }
+            assertTrue(Files.size(file.toPath()) > 0, name);
+        }
+        assertTrue(Files.readString(directory.resolve("graph.dot")).startsWith("digraph"));
+        assertTrue(Files.readString(directory.resolve("graph.graphml")).startsWith("<?xml"));
+        assertThrows(IllegalArgumentException.class, () -> GraphWriter.open(directory.resolve("graph.txt").toFile()));
+    }
+}
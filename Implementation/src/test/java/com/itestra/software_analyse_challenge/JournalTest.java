@@ -0,0 +1,164 @@
+package com.itestra.software_analyse_challenge;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void resumeReusesTheFactsOfUnchangedFiles() throws IOException {
+        File journalFile = directory.resolve("analysis.journal").toFile();
+        File unchanged = source("a/A.java", "class A {}\n");
+        File changed = source("a/B.java", "class B {}\n");
+        Input input = input();
+        try (Journal journal = Journal.open(journalFile, tree(), input, false)) {
+            journal.record(unchanged, facts(1));
+            journal.record(changed, facts(2));
+        }
+        Files.writeString(changed.toPath(), "class B {\n    int x;\n}\n");
+        try (Journal journal = Journal.open(journalFile, tree(), input, true)) {
+            assertEquals(2, journal.size());
+            assertFacts(facts(1), journal.get(unchanged));
+            assertNull(journal.get(changed));
+        }
+        // Without resume the journal is started over
+        try (Journal journal = Journal.open(journalFile, tree(), input, false)) {
+            assertEquals(0, journal.size());
+        }
+    }
+
+    @Test
+    void tornLastLineIsCutOff() throws IOException {
+        File journalFile = directory.resolve("analysis.journal").toFile();
+        File first = source("a/A.java", "class A {}\n");
+        File second = source("a/B.java", "class B {}\n");
+        Input input = input();
+        try (Journal journal = Journal.open(journalFile, tree(), input, false)) {
+            journal.record(first, facts(1));
+        }
+        long complete = journalFile.length();
+        // A run killed while appending the next line
+        Files.writeString(journalFile.toPath(), "a/B.java\t11\t", StandardOpenOption.APPEND);
+        try (Journal journal = Journal.open(journalFile, tree(), input, true)) {
+            assertEquals(1, journal.size());
+            assertEquals(complete, journalFile.length());
+            journal.record(second, facts(2));
+        }
+        try (Journal journal = Journal.open(journalFile, tree(), input, true)) {
+            assertEquals(2, journal.size());
+            assertFacts(facts(1), journal.get(first));
+            assertFacts(facts(2), journal.get(second));
+        }
+    }
+
+    @Test
+    void journalOfOtherSettingsIsStartedOver() throws IOException {
+        File journalFile = directory.resolve("analysis.journal").toFile();
+        File file = source("a/A.java", "class A {}\n");
+        try (Journal journal = Journal.open(journalFile, tree(), input(), false)) {
+            journal.record(file, facts(1));
+        }
+        try (Journal journal = Journal.open(journalFile, tree(), input("--projects", "core=a"), true)) {
+            assertEquals(0, journal.size());
+        }
+        try (Journal journal = Journal.open(journalFile, tree(), input(), true)) {
+            assertEquals(0, journal.size());
+        }
+    }
+
+    @Test
+    void pathsAndNamesWithSeparatorsAreEscaped() throws IOException {
+        File journalFile = directory.resolve("analysis.journal").toFile();
+        File file = source("a,b/Tab\tNew\nLine\\Back.java", "class A {}\n");
+        File other = source("a,b/Other.java", "class Other {}\n");
+        FileFacts facts = new FileFacts(List.of("a.b.C", "weird,name\t\\"), List.of())
+                .references(List.of("", "x\ny")).lineNumbers(3, 2).metric("odd,metric=", 4);
+        Input input = input();
+        try (Journal journal = Journal.open(journalFile, tree(), input, false)) {
+            journal.record(file, facts);
+            journal.record(other, facts(5));
+        }
+        assertEquals(4, Files.readAllLines(journalFile.toPath(), StandardCharsets.UTF_8).size());
+        try (Journal journal = Journal.open(journalFile, tree(), input, true)) {
+            assertEquals(2, journal.size());
+            assertFacts(facts, journal.get(file));
+            assertFacts(facts(5), journal.get(other));
+        }
+    }
+
+    @Test
+    void batchesWrittenByConcurrentThreadsAreComplete() throws IOException {
+        File journalFile = directory.resolve("analysis.journal").toFile();
+        Files.createDirectories(tree().toPath());
+        Input input = input();
+        int threads = 4;
+        int filesPerThread = 1500;
+        try (Journal journal = Journal.open(journalFile, tree(), input, false)) {
+            // Several batches of 1024 files, swapped and written while the other threads go on recording
+            IntStream.range(0, threads).parallel().forEach(thread -> {
+                for (int i = 0; i < filesPerThread; ++i) {
+                    journal.record(new File(tree(), thread + "/F" + i + ".java"), facts(i + 1));
+                }
+            });
+        }
+        try (Journal journal = Journal.open(journalFile, tree(), input, true)) {
+            assertEquals(threads * filesPerThread, journal.size());
+            assertFacts(facts(1500), journal.get(new File(tree(), "3/F1499.java")));
+        }
+    }
+
+    @Test
+    void resumeWithSymbolReferencesIsRefused() {
+        assertThrows(IllegalArgumentException.class, () -> input("--symbol-references", "--resume"));
+    }
+
+    private File tree() {
+        return directory.resolve("tree").toFile();
+    }
+
+    private File source(String path, String content) throws IOException {
+        Path file = directory.resolve("tree").resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+        return file.toFile();
+    }
+
+    private Input input(String... options) {
+        String[] arguments = new String[options.length + 4];
+        arguments[0] = "-i";
+        arguments[1] = tree().getPath();
+        arguments[2] = "--journal";
+        arguments[3] = directory.resolve("analysis.journal").toString();
+        System.arraycopy(options, 0, arguments, 4, options.length);
+        return SourceCodeAnalyser.parseInput(arguments);
+    }
+
+    private static FileFacts facts(int lineNumber) {
+        return new FileFacts(List.of("java.util.List", "b.*"), List.of("b.C.m"))
+                .lineNumbers(lineNumber, lineNumber - 1).metric("methods", lineNumber * 2);
+    }
+
+    private static void assertFacts(FileFacts expected, FileFacts actual) {
+        assertNotNull(actual);
+        assertEquals(expected.getImports(), actual.getImports());
+        assertEquals(expected.getStaticImports(), actual.getStaticImports());
+        assertEquals(expected.getReferences(), actual.getReferences());
+        assertEquals(expected.getLineNumber(), actual.getLineNumber());
+        assertEquals(expected.getLineNumberBonus(), actual.getLineNumberBonus());
+        assertEquals(expected.getMetrics(), actual.getMetrics());
+    }
+}
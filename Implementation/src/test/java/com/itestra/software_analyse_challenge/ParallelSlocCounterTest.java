@@ -0,0 +1,98 @@
+package com.itestra.software_analyse_challenge;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelSlocCounterTest {
+
+    /**
+     * Block comments, text blocks, getters and all line terminators, so every state of the counter occurs at some
+     * line boundary.
+     */
+    private static final String SOURCE = String.join("\n",
+            "package a;",
+            "",
+            "/* block comment",
+            " * spanning lines */",
+            "public class A {\r",
+            "    private int x; /* starts here",
+            "    still comment */ int y;\r\n",
+            "    String s = \"\"\"",
+            "        text block with /* no comment",
+            "        \"\"\";",
+            "\r\n",
+            "    public int getX() {\r\n",
+            "        return x;\r",
+            "    }",
+            "    public int getY() {",
+            "        return this.y;",
+            "    }",
+            "    // line comment",
+            "    void run() { x = 1; }",
+            "}",
+            "");
+
+    @Test
+    void everyLineBoundaryComposesToTheSequentialCount() {
+        char[] text = SOURCE.toCharArray();
+        for (boolean enhanced : new boolean[] {false, true}) {
+            int expected = sequential(text, enhanced);
+            for (int split = 1; split < text.length; ++split) {
+                if (text[split - 1] == '\n' || text[split - 1] == '\r') {
+                    // Includes splits between \r and \n
+                    int[] boundaries = {0, split, text.length};
+                    assertEquals(expected, ParallelSlocCounter.count(text, boundaries, enhanced, Deadline.NONE),
+                            "split at " + split + ", enhanced " + enhanced);
+                }
+            }
+        }
+    }
+
+    @Test
+    void everyLineIsItsOwnChunk() {
+        char[] text = SOURCE.toCharArray();
+        int chunks = 1;
+        for (int i = 0; i < text.length - 1; ++i) {
+            if (text[i] == '\n' || text[i] == '\r') {
+                ++chunks;
+            }
+        }
+        int[] boundaries = new int[chunks + 1];
+        int chunk = 1;
+        for (int i = 0; i < text.length - 1; ++i) {
+            if (text[i] == '\n' || text[i] == '\r') {
+                boundaries[chunk++] = i + 1;
+            }
+        }
+        boundaries[chunks] = text.length;
+        for (boolean enhanced : new boolean[] {false, true}) {
+            assertEquals(sequential(text, enhanced),
+                    ParallelSlocCounter.count(text, boundaries, enhanced, Deadline.NONE));
+        }
+    }
+
+    @Test
+    void largeTextIsSplitAndCountedLikeSequentially() {
+        StringBuilder builder = new StringBuilder();
+        while (builder.length() < 3 << 20) {
+            builder.append(SOURCE);
+        }
+        char[] text = builder.toString().toCharArray();
+        int[] boundaries = ParallelSlocCounter.chunkBoundaries(text, text.length, 8);
+        assertTrue(boundaries.length > 2, "expected several chunks");
+        for (int i = 1; i < boundaries.length - 1; ++i) {
+            char before = text[boundaries[i] - 1];
+            assertTrue(before == '\n' || before == '\r', "chunk " + i + " does not start a line");
+        }
+        int[] lineNumbers = ParallelSlocCounter.count(new FileScanner.Text(text, text.length), Deadline.NONE);
+        assertEquals(sequential(text, false), lineNumbers[0]);
+        assertEquals(sequential(text, true), lineNumbers[1]);
+    }
+
+    private static int sequential(char[] text, boolean enhanced) {
+        LinearSlocCounter counter = new LinearSlocCounter(enhanced);
+        counter.lines(text, 0, text.length);
+        return counter.getLineNumber();
+    }
+}
@@ -0,0 +1,94 @@
+package com.itestra.software_analyse_challenge;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReachabilityIndexTest {
+
+    @Test
+    void cyclesCollapseToOneComponent() {
+        // 0 -> 1 -> 2 -> 0 is a cycle, 2 -> 3, 4 is isolated
+        int[][] successors = {{1}, {2}, {0, 3}, {}, {}};
+        ReachabilityIndex index = new ReachabilityIndex(successors);
+        assertEquals(3, index.getComponentCount());
+        assertEquals(index.getComponent(0), index.getComponent(1));
+        assertEquals(index.getComponent(0), index.getComponent(2));
+        assertNotEquals(index.getComponent(0), index.getComponent(3));
+        // Successors of a component have smaller numbers
+        assertTrue(index.getComponent(3) < index.getComponent(0));
+        assertArrayEquals(new int[] {index.getComponent(3)}, index.getComponentSuccessors(index.getComponent(0)));
+        assertTrue(index.reaches(1, 0));
+        assertTrue(index.reaches(0, 3));
+        assertFalse(index.reaches(3, 0));
+        assertFalse(index.reaches(0, 4));
+        assertTrue(index.reaches(4, 4));
+    }
+
+    @Test
+    void sharedDescendantsAreReachedOverNonTreeEdges() {
+        // Diamond 0 -> {1, 2} -> 3 and a cross edge 4 -> 2 from a second root
+        int[][] successors = {{1, 2}, {3}, {3}, {}, {2}};
+        ReachabilityIndex index = new ReachabilityIndex(successors);
+        assertTrue(index.reaches(0, 3));
+        assertTrue(index.reaches(4, 3));
+        assertFalse(index.reaches(4, 1));
+        assertFalse(index.reaches(1, 2));
+    }
+
+    @Test
+    void deepChainDoesNotOverflowTheStack() {
+        int nodes = 200_000;
+        int[][] successors = new int[nodes][];
+        for (int node = 0; node < nodes; ++node) {
+            successors[node] = node + 1 < nodes ? new int[] {node + 1} : new int[0];
+        }
+        // Closing the chain to a cycle makes it a single component
+        successors[nodes - 1] = new int[] {0};
+        ReachabilityIndex index = new ReachabilityIndex(successors);
+        assertEquals(1, index.getComponentCount());
+        assertTrue(index.reaches(nodes - 1, nodes / 2));
+    }
+
+    @Test
+    void randomGraphsAgreeWithBreadthFirstSearch() {
+        Random random = new Random(42);
+        for (int graph = 0; graph < 200; ++graph) {
+            int nodes = 1 + random.nextInt(40);
+            int maxEdges = 1 + random.nextInt(4);
+            int[][] successors = new int[nodes][];
+            for (int node = 0; node < nodes; ++node) {
+                successors[node] = random.ints(random.nextInt(maxEdges + 1), 0, nodes).distinct().toArray();
+            }
+            ReachabilityIndex index = new ReachabilityIndex(successors);
+            for (int from = 0; from < nodes; ++from) {
+                boolean[] reached = breadthFirstSearch(successors, from);
+                for (int to = 0; to < nodes; ++to) {
+                    assertEquals(reached[to], index.reaches(from, to), "graph " + graph + ": " + from + " -> " + to);
+                    if (reached[to] && index.getComponent(from) != index.getComponent(to)) {
+                        assertTrue(index.getComponent(to) < index.getComponent(from), "topological order");
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean[] breadthFirstSearch(int[][] successors, int from) {
+        boolean[] reached = new boolean[successors.length];
+        reached[from] = true;
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(from);
+        while (!queue.isEmpty()) {
+            for (int successor : successors[queue.poll()]) {
+                if (!reached[successor]) {
+                    reached[successor] = true;
+                    queue.add(successor);
+                }
+            }
+        }
+        return reached;
+    }
+}
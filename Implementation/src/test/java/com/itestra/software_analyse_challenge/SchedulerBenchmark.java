@@ -0,0 +1,93 @@
+package com.itestra.software_analyse_challenge;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Measures the idle time of the worker threads at the end of a scan: scans all files of a tree in-process, once in
+ * the order of the listing (a parallel stream, before {@link SizeScheduler}) and once by the {@link SizeScheduler},
+ * and prints the wall time, the CPU time and the gap between them per scan.
+ * <p>
+ * The gap is the wall time of all processors minus the CPU time used, i.e. the time processors were idle.
+ * A tree with a few large files listed last shows the tail which largest-first scheduling removes; on a single CPU
+ * there is no gap to remove. Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.itestra.software_analyse_challenge.SchedulerBenchmark -Dexec.args="[dir] [scans] [rounds]"}.
+ */
+public final class SchedulerBenchmark {
+
+    private SchedulerBenchmark() {
+    }
+
+    /**
+     * @param args Input directory (default: the code examples), scans per round (default: 20) and rounds
+     *             (default: 5)
+     */
+    public static void main(String[] args) {
+        File inputDirectory = new File(args.length > 0 ? args[0] : SourceCodeAnalyser.DEFAULT_INPUT_DIR);
+        int scans = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        List<File> files = SourceCodeAnalyser.getFilesInDirectory(inputDirectory);
+        Consumer<List<File>> listingOrder = list -> list.parallelStream().forEach(SchedulerBenchmark::scan);
+        Consumer<List<File>> sizeScheduler = list -> SizeScheduler.forEach(list, SizeScheduler.DEFAULT_BATCH_BYTES,
+                SchedulerBenchmark::scan);
+        // Warm-up of both variants
+        time(files, scans, listingOrder);
+        time(files, scans, sizeScheduler);
+        double[] before = {Double.MAX_VALUE, 0};
+        double[] after = {Double.MAX_VALUE, 0};
+        for (int round = 0; round < rounds; ++round) {
+            before = best(before, time(files, scans, listingOrder));
+            after = best(after, time(files, scans, sizeScheduler));
+        }
+        int processors = Math.min(Runtime.getRuntime().availableProcessors(),
+                ForkJoinPool.getCommonPoolParallelism() + 1);
+        System.out.printf(Locale.ROOT, "%s: %d files, %d processors, best of %d rounds of %d scans%n",
+                inputDirectory, files.size(), processors, rounds, scans);
+        print("listing order", before, processors);
+        print("size scheduler", after, processors);
+    }
+
+    private static void print(String label, double[] wallAndCpu, int processors) {
+        System.out.printf(Locale.ROOT, "%-15s wall %8.3f ms, CPU %8.3f ms, gap %8.3f ms per scan%n", label + ":",
+                wallAndCpu[0], wallAndCpu[1], Math.max(0, wallAndCpu[0] * processors - wallAndCpu[1]));
+    }
+
+    /**
+     * @return The measurement with the smaller wall time
+     */
+    private static double[] best(double[] first, double[] second) {
+        return second[0] < first[0] ? second : first;
+    }
+
+    /**
+     * @return Wall time and CPU time of the process in milliseconds per scan
+     */
+    private static double[] time(List<File> files, int scans, Consumer<List<File>> scheduler) {
+        com.sun.management.OperatingSystemMXBean system =
+                (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        long cpuStart = system.getProcessCpuTime();
+        long start = System.nanoTime();
+        for (int i = 0; i < scans; ++i) {
+            scheduler.accept(files);
+        }
+        return new double[] {(System.nanoTime() - start) / 1e6 / scans,
+                (system.getProcessCpuTime() - cpuStart) / 1e6 / scans};
+    }
+
+    /**
+     * Scans a file like a run with the default settings.
+     */
+    private static void scan(File file) {
+        try {
+            FileScanner.scan(file, null, List.of(new ImportCollector(false), new LinearSlocCounter(false),
+                    new LinearSlocCounter(true)), Deadline.NONE);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read " + file, e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.itestra.software_analyse_challenge;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SizeSchedulerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void everyFileIsProcessedOnce() throws IOException {
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < 300; ++i) {
+            // Many files of the same size, some larger than a batch
+            Path file = directory.resolve("F" + i + ".java");
+            Files.write(file, new byte[i % 7 == 0 ? 100_000 + i : (i % 5) * 10]);
+            files.add(file.toFile());
+        }
+        Collections.shuffle(files);
+        ConcurrentLinkedQueue<File> processed = new ConcurrentLinkedQueue<>();
+        SizeScheduler.forEach(files, SizeScheduler.DEFAULT_BATCH_BYTES, processed::add);
+        assertEquals(files.size(), processed.size());
+        assertEquals(new HashSet<>(files), new HashSet<>(processed));
+    }
+
+    @Test
+    void emptyListProcessesNothing() {
+        ConcurrentLinkedQueue<File> processed = new ConcurrentLinkedQueue<>();
+        SizeScheduler.forEach(List.of(), SizeScheduler.DEFAULT_BATCH_BYTES, processed::add);
+        assertTrue(processed.isEmpty());
+    }
+}
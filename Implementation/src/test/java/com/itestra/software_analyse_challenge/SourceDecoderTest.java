@@ -0,0 +1,120 @@
+package com.itestra.software_analyse_challenge;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SourceDecoderTest {
+
+    private static final String TEXT = "class A {\n    String s = \"äöü ß € 😀\";\n}\n";
+    private static final String LATIN1_TEXT = "class A {\n    String s = \"äöü ß ¿\";\n}\n";
+
+    @Test
+    void asciiAndShortFilesAreDecoded() {
+        for (String text : new String[] {"", "a", "ab", "abc", "class A {}\r\n"}) {
+            assertDecodedInAllChunks(text, text.getBytes(StandardCharsets.US_ASCII), null);
+        }
+    }
+
+    @Test
+    void utf8WithoutByteOrderMark() {
+        assertDecodedInAllChunks(TEXT, TEXT.getBytes(StandardCharsets.UTF_8), null);
+    }
+
+    @Test
+    void byteOrderMarksSelectTheCharsetAndAreSkipped() {
+        assertDecodedInAllChunks(TEXT, concat(new byte[] {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF},
+                TEXT.getBytes(StandardCharsets.UTF_8)), null);
+        assertDecodedInAllChunks(TEXT, concat(new byte[] {(byte) 0xFE, (byte) 0xFF},
+                TEXT.getBytes(StandardCharsets.UTF_16BE)), null);
+        assertDecodedInAllChunks(TEXT, concat(new byte[] {(byte) 0xFF, (byte) 0xFE},
+                TEXT.getBytes(StandardCharsets.UTF_16LE)), null);
+        // The byte order mark wins over the configured charset
+        assertDecodedInAllChunks(TEXT, concat(new byte[] {(byte) 0xFF, (byte) 0xFE},
+                TEXT.getBytes(StandardCharsets.UTF_16LE)), StandardCharsets.ISO_8859_1);
+        // A byte order mark alone is an empty file
+        assertDecodedInAllChunks("", new byte[] {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF}, null);
+    }
+
+    @Test
+    void malformedUtf8FallsBackToLatin1() {
+        assertDecodedInAllChunks(LATIN1_TEXT, LATIN1_TEXT.getBytes(StandardCharsets.ISO_8859_1), null);
+        // Malformed only at the last byte
+        assertDecodedInAllChunks("abcä", "abcä".getBytes(StandardCharsets.ISO_8859_1), null);
+        // Valid UTF-8 before the first malformed sequence stays UTF-8
+        byte[] mixed = concat("ä;".getBytes(StandardCharsets.UTF_8), "ä".getBytes(StandardCharsets.ISO_8859_1));
+        assertDecodedInAllChunks("ä;ä", mixed, null);
+    }
+
+    @Test
+    void configuredCharsetIsUsedWithoutByteOrderMark() {
+        Charset windows1252 = Charset.forName("windows-1252");
+        String text = "String euro = \"€\";";
+        assertDecodedInAllChunks(text, text.getBytes(windows1252), windows1252);
+        // Without it, the byte 0x80 is no UTF-8 and decoded as ISO-8859-1
+        assertDecodedInAllChunks("String euro = \"\u0080\";", text.getBytes(windows1252), null);
+    }
+
+    @Test
+    void decoderIsReusedAfterReset() {
+        SourceDecoder decoder = new SourceDecoder();
+        assertEquals(LATIN1_TEXT, decode(decoder.reset(null), LATIN1_TEXT.getBytes(StandardCharsets.ISO_8859_1), 5));
+        assertEquals(TEXT, decode(decoder.reset(null), TEXT.getBytes(StandardCharsets.UTF_8), 5));
+        assertEquals(TEXT, decode(decoder.reset(null), concat(new byte[] {(byte) 0xFE, (byte) 0xFF},
+                TEXT.getBytes(StandardCharsets.UTF_16BE)), 5));
+        assertEquals(TEXT, decode(decoder.reset(null), TEXT.getBytes(StandardCharsets.UTF_8), 5));
+    }
+
+    private static void assertDecodedInAllChunks(String expected, byte[] content, Charset charset) {
+        for (int chunkSize = 1; chunkSize <= content.length + 1; ++chunkSize) {
+            assertEquals(expected, decode(new SourceDecoder().reset(charset), content, chunkSize),
+                    "chunks of " + chunkSize + " bytes");
+        }
+    }
+
+    /**
+     * Decodes the content like {@link FileScanner}, with reads of at most {@code chunkSize} bytes and a small
+     * character buffer.
+     */
+    private static String decode(SourceDecoder decoder, byte[] content, int chunkSize) {
+        ByteBuffer bytes = ByteBuffer.allocate(chunkSize + 4);
+        CharBuffer chars = CharBuffer.allocate(3);
+        StringBuilder text = new StringBuilder();
+        int offset = 0;
+        boolean endOfInput;
+        do {
+            int count = Math.min(Math.min(chunkSize, bytes.remaining()), content.length - offset);
+            bytes.put(content, offset, count);
+            offset += count;
+            endOfInput = offset == content.length;
+            bytes.flip();
+            CoderResult result;
+            do {
+                result = decoder.decode(bytes, chars, endOfInput);
+                assertFalse(result.isError(), result.toString());
+                text.append(chars.flip());
+                chars.clear();
+            } while (result.isOverflow());
+            bytes.compact();
+        } while (!endOfInput);
+        assertEquals(0, bytes.position(), "all bytes decoded");
+        while (decoder.flush(chars).isOverflow()) {
+            text.append(chars.flip());
+            chars.clear();
+        }
+        return text.append(chars.flip()).toString();
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] bytes = new byte[first.length + second.length];
+        System.arraycopy(first, 0, bytes, 0, first.length);
+        System.arraycopy(second, 0, bytes, first.length, second.length);
+        return bytes;
+    }
+}
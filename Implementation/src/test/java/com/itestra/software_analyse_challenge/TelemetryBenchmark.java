@@ -0,0 +1,60 @@
+package com.itestra.software_analyse_challenge;
+
+import java.util.Locale;
+
+/**
+ * Measures the cost of the {@link Telemetry} counters: analyses the same tree in-process with and without
+ * counters, alternating in rounds, and prints the best time per analysis of each.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.itestra.software_analyse_challenge.TelemetryBenchmark -Dexec.args="[dir] [analyses] [rounds]"}.
+ */
+public final class TelemetryBenchmark {
+
+    private TelemetryBenchmark() {
+    }
+
+    /**
+     * @param args Input directory (default: the code examples), analyses per round (default: 30) and rounds
+     *             (default: 10)
+     */
+    public static void main(String[] args) {
+        String inputDirectory = args.length > 0 ? args[0] : SourceCodeAnalyser.DEFAULT_INPUT_DIR;
+        int analyses = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        Input input = SourceCodeAnalyser.parseInput(new String[] {"-i", inputDirectory});
+        // Warm-up of both variants, until the scan path is compiled
+        for (int round = 0; round < 2; ++round) {
+            time(input, analyses, true);
+            time(input, analyses, false);
+        }
+        double withCounters = Double.MAX_VALUE;
+        double withoutCounters = Double.MAX_VALUE;
+        for (int round = 0; round < rounds; ++round) {
+            withCounters = Math.min(withCounters, time(input, analyses, true));
+            withoutCounters = Math.min(withoutCounters, time(input, analyses, false));
+        }
+        Telemetry.setEnabled(true);
+        System.out.printf(Locale.ROOT, "%s: best of %d rounds of %d analyses%n", inputDirectory, rounds, analyses);
+        System.out.printf(Locale.ROOT, "with counters:    %8.3f ms per analysis%n", withCounters);
+        System.out.printf(Locale.ROOT, "without counters: %8.3f ms per analysis%n", withoutCounters);
+        System.out.printf(Locale.ROOT, "overhead:         %8.3f ms (%.1f %%)%n", withCounters - withoutCounters,
+                100 * (withCounters - withoutCounters) / withoutCounters);
+    }
+
+    /**
+     * @return Milliseconds per analysis
+     */
+    private static double time(Input input, int analyses, boolean counters) {
+        Telemetry.setEnabled(counters);
+        long start = System.nanoTime();
+        int files = 0;
+        for (int i = 0; i < analyses; ++i) {
+            files += SourceCodeAnalyser.analyseTree(input).fileTable().size();
+        }
+        if (files == 0) {
+            throw new IllegalArgumentException(input.getInputDirectory() + " has no files");
+        }
+        return (System.nanoTime() - start) / 1e6 / analyses;
+    }
+}
@@ -0,0 +1,38 @@
+package com.itestra.software_analyse_challenge;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextColumnsTest {
+
+    @Test
+    void valuesWithoutSeparatorsAreUnchanged() {
+        String value = "spark/route/Routes.java";
+        assertSame(value, TextColumns.escape(value));
+        assertSame(value, TextColumns.unescape(value));
+        assertEquals("a.b.C,a.b.*", TextColumns.join(List.of("a.b.C", "a.b.*")));
+    }
+
+    @Test
+    void separatorsAreEscapedAndRestored() {
+        String value = "a\tb\nc\rd,e\\f";
+        String escaped = TextColumns.escape(value);
+        assertEquals("a\\tb\\nc\\rd\\,e\\\\f", escaped);
+        assertEquals(value, TextColumns.unescape(escaped));
+
+        List<String> values = List.of("", "x,y", "\\", "z", "");
+        String list = TextColumns.join(values);
+        assertEquals(-1, list.indexOf('\t'));
+        assertEquals(values, TextColumns.split(list));
+        assertEquals(List.of(), TextColumns.split(""));
+    }
+
+    @Test
+    void invalidEscapesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> TextColumns.unescape("a\\"));
+        assertThrows(IllegalArgumentException.class, () -> TextColumns.split("a,b\\x"));
+    }
+}
@@ -0,0 +1,37 @@
+#!/usr/bin/env bash
+# Startup benchmark of the startup profile: analyses a small tree many times, like pre-commit hooks do, with and
+# without the AppCDS archive, and prints the mean wall time per run.
+#
+# Usage, after mvn clean package -Pstartup:
+#   ./startup-benchmark.sh [tree, default: two files of the code examples] [runs, default: 20]
+set -euo pipefail
+cd "$(dirname "$0")"
+
+JAR=target/SourceCodeAnalyser-1.0-SNAPSHOT.jar
+ARCHIVE=target/SourceCodeAnalyser.jsa
+TREE=${1:-../CodeExamples/src/main/java/cronutils/validation}
+RUNS=${2:-20}
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+
+for file in "$JAR" "$ARCHIVE"; do
+    if [ ! -f "$file" ]; then
+        echo "$file is missing, build it with: mvn clean package -Pstartup" >&2
+        exit 1
+    fi
+done
+
+# Mean milliseconds per run of the analyser with the given JVM options
+measure() {
+    "$JAVA" "$@" -jar "$JAR" -i "$TREE" > /dev/null
+    local start end
+    start=$(date +%s%N)
+    for ((run = 0; run < RUNS; ++run)); do
+        "$JAVA" "$@" -jar "$JAR" -i "$TREE" > /dev/null
+    done
+    end=$(date +%s%N)
+    echo $(((end - start) / RUNS / 1000000))
+}
+
+echo "$RUNS runs on $TREE"
+echo "without archive: $(measure -XX:TieredStopAtLevel=1) ms per run"
+echo "with archive:    $(measure -XX:TieredStopAtLevel=1 -XX:SharedArchiveFile="$ARCHIVE") ms per run"